@@ -0,0 +1,60 @@
+package br.com.fiap.dao;
+
+import br.com.fiap.models.ConsultaOnline;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede ConsultaOnlineDao.criarConsultaFromResultSet sobre um ResultSet em memória
+ * com o mesmo formato da consulta de quatro tabelas do DAO
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsultaOnlineMapeamentoBenchmark {
+
+    private static final String[] COLUNAS = {
+            "ID_CONSULTA", "DATA_CONSULTA", "HORA_INICIO", "DURACAO_MINUTOS", "VERSAO", "STATUS", "LINK",
+            "ID_PACIENTE", "NOME_PACIENTE", "CPF_PACIENTE",
+            "ID_MEDICO", "NOME_MEDICO", "ESPECIALIDADE", "CRM",
+            "ID_EXAME", "NOME_EXAME", "RESULTADO_EXAME"
+    };
+
+    @Param({"1000", "100000"})
+    public int linhas;
+
+    private ResultSetStub resultSet;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Date data = Date.valueOf(LocalDate.of(2025, 3, 10));
+        Object[][] dados = new Object[linhas][];
+        for (int i = 0; i < linhas; i++) {
+            boolean comExame = i % 3 != 0;
+            dados[i] = new Object[]{
+                    i + 1, data, 480 + i % 20 * 30, 30, 0, "Agendada", "https://meet.hc/" + i,
+                    i % 500 + 1, "Paciente " + i, String.format("%011d", i),
+                    i % 40 + 1, "Médico " + (i % 40), "Cardiologia", 100000 + i % 40,
+                    comExame ? i % 90 + 1 : null, comExame ? "Hemograma" : null, comExame ? "Normal" : null
+            };
+        }
+        resultSet = new ResultSetStub(COLUNAS, dados);
+    }
+
+    @Benchmark
+    public void mapearLinhas(Blackhole bh) throws SQLException {
+        resultSet.reiniciar();
+        while (resultSet.next()) {
+            ConsultaOnline consulta = ConsultaOnlineDao.criarConsultaFromResultSet(resultSet);
+            bh.consume(consulta);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package br.com.fiap.dao;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ResultSet em memória para medir o mapeamento de linhas sem banco.
+ * A busca de coluna por nome normaliza o rótulo e consulta um mapa,
+ * como fazem os drivers JDBC em findColumn.
+ *
+ * Classe final com chamadas diretas, para que o JIT as otimize como as do driver Oracle.
+ * Só os métodos usados pelo código medido são implementados; os demais (gerados a partir
+ * de java.sql.ResultSet, um por linha) lançam SQLFeatureNotSupportedException.
+ */
+final class ResultSetStub implements ResultSet {
+
+    private final Map<String, Integer> colunas = new HashMap<>();
+    private final Object[][] linhas;
+    private int cursor = -1;
+    private boolean ultimoNulo;
+    private boolean fechado;
+
+    ResultSetStub(String[] nomesColunas, Object[][] linhas) {
+        for (int i = 0; i < nomesColunas.length; i++) {
+            colunas.put(nomesColunas[i].toUpperCase(Locale.ROOT), i + 1);
+        }
+        this.linhas = linhas;
+    }
+
+    /**
+     * Volta o cursor para antes da primeira linha, permitindo reutilizar o stub
+     */
+    void reiniciar() {
+        cursor = -1;
+        fechado = false;
+    }
+
+    @Override
+    public boolean next() {
+        return ++cursor < linhas.length;
+    }
+
+    @Override
+    public boolean wasNull() {
+        return ultimoNulo;
+    }
+
+    @Override
+    public int findColumn(String rotulo) throws SQLException {
+        Integer indice = colunas.get(rotulo.toUpperCase(Locale.ROOT));
+        if (indice == null) {
+            throw new SQLException("Coluna inexistente: " + rotulo);
+        }
+        return indice;
+    }
+
+    @Override
+    public int getInt(int coluna) {
+        Object valor = valor(coluna);
+        return valor == null ? 0 : (Integer) valor;
+    }
+
+    @Override
+    public int getInt(String rotulo) throws SQLException {
+        return getInt(findColumn(rotulo));
+    }
+
+    @Override
+    public String getString(int coluna) {
+        return (String) valor(coluna);
+    }
+
+    @Override
+    public String getString(String rotulo) throws SQLException {
+        return getString(findColumn(rotulo));
+    }
+
+    @Override
+    public Date getDate(int coluna) {
+        return (Date) valor(coluna);
+    }
+
+    @Override
+    public Date getDate(String rotulo) throws SQLException {
+        return getDate(findColumn(rotulo));
+    }
+
+    @Override
+    public void close() {
+        fechado = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return fechado;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultSetStub[" + linhas.length + " linhas]";
+    }
+
+    private Object valor(int coluna) {
+        Object valor = linhas[cursor][coluna - 1];
+        ultimoNulo = valor == null;
+        return valor;
+    }
+
+    private static SQLFeatureNotSupportedException naoSuportado() {
+        return new SQLFeatureNotSupportedException("Não suportado no ResultSet de benchmark");
+    }
+
+    // Métodos não usados pelo mapeamento medido
+
+    @Override public boolean absolute(int valor) throws SQLException { throw naoSuportado(); }
+    @Override public void afterLast() throws SQLException { throw naoSuportado(); }
+    @Override public void beforeFirst() throws SQLException { throw naoSuportado(); }
+    @Override public void cancelRowUpdates() throws SQLException { throw naoSuportado(); }
+    @Override public void clearWarnings() throws SQLException { throw naoSuportado(); }
+    @Override public void deleteRow() throws SQLException { throw naoSuportado(); }
+    @Override public boolean first() throws SQLException { throw naoSuportado(); }
+    @Override public Array getArray(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public Array getArray(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public InputStream getAsciiStream(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public InputStream getAsciiStream(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public BigDecimal getBigDecimal(String rotulo, int tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public BigDecimal getBigDecimal(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public BigDecimal getBigDecimal(int coluna, int tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public BigDecimal getBigDecimal(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public InputStream getBinaryStream(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public InputStream getBinaryStream(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public Blob getBlob(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public Blob getBlob(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public boolean getBoolean(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public boolean getBoolean(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public byte getByte(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public byte getByte(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public byte[] getBytes(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public byte[] getBytes(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public Reader getCharacterStream(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public Reader getCharacterStream(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public Clob getClob(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public Clob getClob(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public int getConcurrency() throws SQLException { throw naoSuportado(); }
+    @Override public String getCursorName() throws SQLException { throw naoSuportado(); }
+    @Override public Date getDate(String rotulo, Calendar calendario) throws SQLException { throw naoSuportado(); }
+    @Override public Date getDate(int coluna, Calendar calendario) throws SQLException { throw naoSuportado(); }
+    @Override public double getDouble(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public double getDouble(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public int getFetchDirection() throws SQLException { throw naoSuportado(); }
+    @Override public int getFetchSize() throws SQLException { throw naoSuportado(); }
+    @Override public float getFloat(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public float getFloat(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public int getHoldability() throws SQLException { throw naoSuportado(); }
+    @Override public long getLong(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public long getLong(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public ResultSetMetaData getMetaData() throws SQLException { throw naoSuportado(); }
+    @Override public Reader getNCharacterStream(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public Reader getNCharacterStream(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public NClob getNClob(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public NClob getNClob(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public String getNString(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public String getNString(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public <T> T getObject(String rotulo, Class<T> tipo) throws SQLException { throw naoSuportado(); }
+    @Override public Object getObject(String rotulo, Map<String, Class<?>> tipos) throws SQLException { throw naoSuportado(); }
+    @Override public Object getObject(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public <T> T getObject(int coluna, Class<T> tipo) throws SQLException { throw naoSuportado(); }
+    @Override public Object getObject(int coluna, Map<String, Class<?>> tipos) throws SQLException { throw naoSuportado(); }
+    @Override public Object getObject(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public Ref getRef(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public Ref getRef(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public int getRow() throws SQLException { throw naoSuportado(); }
+    @Override public RowId getRowId(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public RowId getRowId(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public SQLXML getSQLXML(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public SQLXML getSQLXML(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public short getShort(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public short getShort(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public Statement getStatement() throws SQLException { throw naoSuportado(); }
+    @Override public Time getTime(String rotulo, Calendar calendario) throws SQLException { throw naoSuportado(); }
+    @Override public Time getTime(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public Time getTime(int coluna, Calendar calendario) throws SQLException { throw naoSuportado(); }
+    @Override public Time getTime(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public Timestamp getTimestamp(String rotulo, Calendar calendario) throws SQLException { throw naoSuportado(); }
+    @Override public Timestamp getTimestamp(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public Timestamp getTimestamp(int coluna, Calendar calendario) throws SQLException { throw naoSuportado(); }
+    @Override public Timestamp getTimestamp(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public int getType() throws SQLException { throw naoSuportado(); }
+    @Override public URL getURL(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public URL getURL(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public InputStream getUnicodeStream(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public InputStream getUnicodeStream(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public SQLWarning getWarnings() throws SQLException { throw naoSuportado(); }
+    @Override public void insertRow() throws SQLException { throw naoSuportado(); }
+    @Override public boolean isAfterLast() throws SQLException { throw naoSuportado(); }
+    @Override public boolean isBeforeFirst() throws SQLException { throw naoSuportado(); }
+    @Override public boolean isFirst() throws SQLException { throw naoSuportado(); }
+    @Override public boolean isLast() throws SQLException { throw naoSuportado(); }
+    @Override public boolean isWrapperFor(Class<?> tipo) throws SQLException { throw naoSuportado(); }
+    @Override public boolean last() throws SQLException { throw naoSuportado(); }
+    @Override public void moveToCurrentRow() throws SQLException { throw naoSuportado(); }
+    @Override public void moveToInsertRow() throws SQLException { throw naoSuportado(); }
+    @Override public boolean previous() throws SQLException { throw naoSuportado(); }
+    @Override public void refreshRow() throws SQLException { throw naoSuportado(); }
+    @Override public boolean relative(int valor) throws SQLException { throw naoSuportado(); }
+    @Override public boolean rowDeleted() throws SQLException { throw naoSuportado(); }
+    @Override public boolean rowInserted() throws SQLException { throw naoSuportado(); }
+    @Override public boolean rowUpdated() throws SQLException { throw naoSuportado(); }
+    @Override public void setFetchDirection(int valor) throws SQLException { throw naoSuportado(); }
+    @Override public void setFetchSize(int valor) throws SQLException { throw naoSuportado(); }
+    @Override public <T> T unwrap(Class<T> tipo) throws SQLException { throw naoSuportado(); }
+    @Override public void updateArray(String rotulo, Array valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateArray(int coluna, Array valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateAsciiStream(String rotulo, InputStream valor, int tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateAsciiStream(String rotulo, InputStream valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateAsciiStream(String rotulo, InputStream valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateAsciiStream(int coluna, InputStream valor, int tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateAsciiStream(int coluna, InputStream valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateAsciiStream(int coluna, InputStream valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBigDecimal(String rotulo, BigDecimal valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBigDecimal(int coluna, BigDecimal valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBinaryStream(String rotulo, InputStream valor, int tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBinaryStream(String rotulo, InputStream valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBinaryStream(String rotulo, InputStream valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBinaryStream(int coluna, InputStream valor, int tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBinaryStream(int coluna, InputStream valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBinaryStream(int coluna, InputStream valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBlob(String rotulo, InputStream valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBlob(String rotulo, InputStream valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBlob(String rotulo, Blob valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBlob(int coluna, InputStream valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBlob(int coluna, InputStream valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBlob(int coluna, Blob valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBoolean(String rotulo, boolean valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBoolean(int coluna, boolean valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateByte(String rotulo, byte valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateByte(int coluna, byte valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBytes(String rotulo, byte[] valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateBytes(int coluna, byte[] valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateCharacterStream(String rotulo, Reader valor, int tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateCharacterStream(String rotulo, Reader valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateCharacterStream(String rotulo, Reader valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateCharacterStream(int coluna, Reader valor, int tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateCharacterStream(int coluna, Reader valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateCharacterStream(int coluna, Reader valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateClob(String rotulo, Reader valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateClob(String rotulo, Reader valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateClob(String rotulo, Clob valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateClob(int coluna, Reader valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateClob(int coluna, Reader valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateClob(int coluna, Clob valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateDate(String rotulo, Date valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateDate(int coluna, Date valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateDouble(String rotulo, double valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateDouble(int coluna, double valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateFloat(String rotulo, float valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateFloat(int coluna, float valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateInt(String rotulo, int valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateInt(int coluna, int valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateLong(String rotulo, long valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateLong(int coluna, long valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNCharacterStream(String rotulo, Reader valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNCharacterStream(String rotulo, Reader valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNCharacterStream(int coluna, Reader valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNCharacterStream(int coluna, Reader valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNClob(String rotulo, Reader valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNClob(String rotulo, Reader valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNClob(String rotulo, NClob valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNClob(int coluna, Reader valor, long tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNClob(int coluna, Reader valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNClob(int coluna, NClob valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNString(String rotulo, String valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNString(int coluna, String valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNull(String rotulo) throws SQLException { throw naoSuportado(); }
+    @Override public void updateNull(int coluna) throws SQLException { throw naoSuportado(); }
+    @Override public void updateObject(String rotulo, Object valor, int tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateObject(String rotulo, Object valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateObject(int coluna, Object valor, int tamanho) throws SQLException { throw naoSuportado(); }
+    @Override public void updateObject(int coluna, Object valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateRef(String rotulo, Ref valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateRef(int coluna, Ref valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateRow() throws SQLException { throw naoSuportado(); }
+    @Override public void updateRowId(String rotulo, RowId valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateRowId(int coluna, RowId valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateSQLXML(String rotulo, SQLXML valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateSQLXML(int coluna, SQLXML valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateShort(String rotulo, short valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateShort(int coluna, short valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateString(String rotulo, String valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateString(int coluna, String valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateTime(String rotulo, Time valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateTime(int coluna, Time valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateTimestamp(String rotulo, Timestamp valor) throws SQLException { throw naoSuportado(); }
+    @Override public void updateTimestamp(int coluna, Timestamp valor) throws SQLException { throw naoSuportado(); }
+}
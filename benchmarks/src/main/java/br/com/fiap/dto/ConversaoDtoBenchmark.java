@@ -0,0 +1,61 @@
+package br.com.fiap.dto;
+
+import br.com.fiap.models.ConsultaOnline;
+import br.com.fiap.models.Exame;
+import br.com.fiap.models.Medico;
+import br.com.fiap.models.Paciente;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Mede os métodos estáticos convertToDto dos DTOs de resposta,
+ * na mesma forma usada pelos serviços (stream + collect)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversaoDtoBenchmark {
+
+    @Param({"1000", "100000"})
+    public int linhas;
+
+    private List<ConsultaOnline> consultas;
+    private List<Medico> medicos;
+    private List<Paciente> pacientes;
+    private List<Exame> exames;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        consultas = DadosBenchmark.consultas(linhas);
+        medicos = consultas.stream().map(ConsultaOnline::getMedico).collect(Collectors.toList());
+        pacientes = consultas.stream().map(ConsultaOnline::getPaciente).collect(Collectors.toList());
+        exames = consultas.stream().map(ConsultaOnline::getExame)
+                .filter(e -> e != null).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ConsultaOnlineResponseDto> consultaOnline() {
+        return consultas.stream().map(ConsultaOnlineResponseDto::convertToDto).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<MedicoResponseDto> medico() {
+        return medicos.stream().map(MedicoResponseDto::convertToDto).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<PacienteResponseDto> paciente() {
+        return pacientes.stream().map(PacienteResponseDto::convertToDto).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ExameResponseDto> exame() {
+        return exames.stream().map(ExameResponseDto::convertToDto).collect(Collectors.toList());
+    }
+}
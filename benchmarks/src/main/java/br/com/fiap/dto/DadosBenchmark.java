@@ -0,0 +1,49 @@
+package br.com.fiap.dto;
+
+import br.com.fiap.models.ConsultaOnline;
+import br.com.fiap.models.Exame;
+import br.com.fiap.models.Medico;
+import br.com.fiap.models.Paciente;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Massa de dados sintética compartilhada pelos benchmarks de DTO e serialização
+ */
+final class DadosBenchmark {
+
+    private DadosBenchmark() {
+    }
+
+    static List<ConsultaOnline> consultas(int quantidade) {
+        List<ConsultaOnline> consultas = new ArrayList<>(quantidade);
+        LocalDate inicio = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < quantidade; i++) {
+            ConsultaOnline consulta = new ConsultaOnline();
+            consulta.setIdConsulta(i + 1);
+            consulta.setDataConsulta(inicio.plusDays(i % 365));
+            consulta.setStatus("Agendada");
+            consulta.setLink("https://meet.hc/" + i);
+            consulta.setPaciente(new Paciente(i % 500 + 1, "Paciente " + i, String.format("%011d", i)));
+            consulta.setMedico(new Medico(i % 40 + 1, "Médico " + (i % 40), "Cardiologia", 100000 + i % 40));
+            if (i % 3 != 0) {
+                Exame exame = new Exame("Hemograma", "Normal", "Concluído");
+                exame.setId_exame(i % 90 + 1);
+                consulta.setExame(exame);
+            }
+            consultas.add(consulta);
+        }
+        return consultas;
+    }
+
+    static List<ConsultaOnlineResponseDto> dtos(int quantidade) {
+        List<ConsultaOnline> consultas = consultas(quantidade);
+        List<ConsultaOnlineResponseDto> dtos = new ArrayList<>(quantidade);
+        for (ConsultaOnline consulta : consultas) {
+            dtos.add(ConsultaOnlineResponseDto.convertToDto(consulta));
+        }
+        return dtos;
+    }
+}
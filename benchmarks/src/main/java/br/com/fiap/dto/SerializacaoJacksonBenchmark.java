@@ -0,0 +1,84 @@
+package br.com.fiap.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a serialização Jackson de listas de ConsultaOnlineResponseDto:
+ * - reflexao: getters por reflexão e data via @JsonFormat (como era antes do caminho rápido)
+ * - rapido: ObjectMapper com os ajustes de JacksonConfig (Blackbird) e DataConsultaSerializer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoJacksonBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int linhas;
+
+    private ObjectMapper reflexao;
+    private ObjectMapper rapido;
+    private List<ConsultaOnlineResponseDto> dtos;
+
+    /**
+     * Descarta os bytes para medir só a serialização, sem custo de buffer crescente
+     */
+    private final OutputStream descarte = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        reflexao = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .addMixIn(ConsultaOnlineResponseDto.class, DataComJsonFormat.class)
+                .build();
+        rapido = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        new JacksonConfig().customize(rapido);
+        dtos = DadosBenchmark.dtos(linhas);
+    }
+
+    @Benchmark
+    public void reflexao() throws IOException {
+        reflexao.writeValue(descarte, dtos);
+    }
+
+    @Benchmark
+    public void rapido() throws IOException {
+        rapido.writeValue(descarte, dtos);
+    }
+
+    /**
+     * Recoloca o @JsonFormat original na data da consulta
+     */
+    abstract static class DataComJsonFormat {
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MMM-yyyy", locale = "pt_BR")
+        @JsonSerialize(using = JsonSerializer.None.class)
+        private LocalDate dataConsulta;
+    }
+}
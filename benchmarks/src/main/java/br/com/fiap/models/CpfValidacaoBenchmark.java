@@ -0,0 +1,41 @@
+package br.com.fiap.models;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a validação de CPF por regex (limpeza + matches repetidos, como era
+ * feito no DTO, no modelo e no DAO) com a passada única de {@link Cpf}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CpfValidacaoBenchmark {
+
+    @Param({"52998224725", "529.982.247-25"})
+    public String entrada;
+
+    @Benchmark
+    public void regex(Blackhole bh) {
+        // cleanData
+        String cpf = entrada.trim().replaceAll("[^\\d]", "");
+        // isCpfValido no DTO, no modelo e as duas checagens do DAO
+        bh.consume(cpf.matches("\\d{11}"));
+        bh.consume(cpf.matches("\\d{11}"));
+        bh.consume(cpf.matches("\\d{11}"));
+        bh.consume(cpf.matches("\\d{11}"));
+        bh.consume(cpf);
+    }
+
+    @Benchmark
+    public void passadaUnica(Blackhole bh) {
+        String cpf = Cpf.normalizar(entrada);
+        bh.consume(Cpf.isValido(cpf));
+        bh.consume(cpf);
+    }
+}
@@ -0,0 +1,10 @@
+-- Gravidade do diagnóstico classificada na gravação (HistoricoService + ClassificadorGravidade).
+-- Registros antigos ficam com NULL até o backfill:
+--   POST /historicoconsulta/gravidade/backfill
+ALTER TABLE TBL_HC_HISTORICOS ADD (
+    gravidade VARCHAR2(10) CONSTRAINT CK_HC_HIST_GRAVIDADE CHECK (gravidade IN ('NORMAL', 'CRITICO'))
+);
+
+-- Atende WHERE gravidade = ? AND id_historico > ? ORDER BY id_historico (listagem de críticos)
+-- e a varredura do backfill por gravidade IS NULL
+CREATE INDEX IDX_HC_HIST_GRAVIDADE ON TBL_HC_HISTORICOS (gravidade, id_historico);
@@ -0,0 +1,10 @@
+-- Horário das consultas online: início em minutos desde a meia-noite e duração em minutos.
+-- Consultas antigas ficam sem horário e não ocupam a agenda (AgendaMedicos).
+ALTER TABLE TBL_HC_CONSULTA_ONLINE ADD (
+    hora_inicio NUMBER(4) CONSTRAINT CK_HC_CONS_HORA_INICIO CHECK (hora_inicio BETWEEN 0 AND 1439),
+    duracao_minutos NUMBER(4) DEFAULT 30 CONSTRAINT CK_HC_CONS_DURACAO CHECK (duracao_minutos BETWEEN 1 AND 1440)
+);
+
+-- Atende a carga da agenda (hora_inicio IS NOT NULL AND data_consulta >= ?)
+-- sem varrer o histórico inteiro de consultas
+CREATE INDEX IDX_HC_CONS_DATA_HORA ON TBL_HC_CONSULTA_ONLINE (data_consulta, hora_inicio);
@@ -0,0 +1,9 @@
+-- Versão da linha para concorrência otimista: cada UPDATE incrementa VERSAO e PUT/DELETE com
+-- If-Match gravam com "WHERE id = ? AND versao = ?". Linhas existentes começam na versão 0.
+ALTER TABLE TBL_HC_CONSULTA_ONLINE ADD (versao NUMBER(10) DEFAULT 0 NOT NULL);
+
+ALTER TABLE TBL_HC_PACIENTES ADD (versao NUMBER(10) DEFAULT 0 NOT NULL);
+
+ALTER TABLE TBL_HC_EXAME ADD (versao NUMBER(10) DEFAULT 0 NOT NULL);
+
+ALTER TABLE TBL_HC_MEDICOS ADD (versao NUMBER(10) DEFAULT 0 NOT NULL);
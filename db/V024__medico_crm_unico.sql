@@ -0,0 +1,5 @@
+-- CRM identifica o médico nos upserts (PUT /medicos/crm/{crm}): o MERGE casa por CRM e a
+-- restrição garante um médico por CRM mesmo com sincronizações concorrentes.
+-- Falha se já houver CRMs repetidos; resolva-os antes de aplicar.
+-- (CPF já é único em TBL_HC_PACIENTES, usado por PUT /pacientes/cpf/{cpf}.)
+ALTER TABLE TBL_HC_MEDICOS ADD CONSTRAINT UK_HC_MEDICOS_CRM UNIQUE (crm);
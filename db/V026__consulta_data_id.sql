@@ -0,0 +1,4 @@
+-- Atende a listagem paginada por keyset de consultas online
+-- (ORDER BY data_consulta DESC, id_consulta DESC a partir do cursor):
+-- cada página lê só as próximas entradas do índice, sem ordenar a tabela inteira.
+CREATE INDEX IDX_HC_CONS_DATA_ID ON TBL_HC_CONSULTA_ONLINE (data_consulta DESC, id_consulta DESC);
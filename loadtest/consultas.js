@@ -0,0 +1,45 @@
+// Teste de carga k6 para localizar o joelho de throughput da API.
+// Uso: k6 run -e BASE_URL=http://localhost:52045 --summary-export=loadtest/resultado.json loadtest/consultas.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:52045';
+const ID_MEDICO_MAX = Number(__ENV.ID_MEDICO_MAX || 20);
+
+export const options = {
+    scenarios: {
+        rampa: {
+            executor: 'ramping-arrival-rate',
+            startRate: 20,
+            timeUnit: '1s',
+            preAllocatedVUs: 100,
+            maxVUs: 1000,
+            stages: [
+                { target: 50, duration: '1m' },
+                { target: 100, duration: '1m' },
+                { target: 200, duration: '1m' },
+                { target: 400, duration: '1m' },
+                { target: 800, duration: '1m' },
+                { target: 1600, duration: '1m' },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        http_req_duration: ['p(99)<1000'],
+    },
+};
+
+export default function () {
+    const sorteio = Math.random();
+    let resposta;
+    if (sorteio < 0.5) {
+        resposta = http.get(`${BASE_URL}/consultaonline?limite=50`, { tags: { rota: '/consultaonline' } });
+    } else if (sorteio < 0.8) {
+        const id = 1 + Math.floor(Math.random() * ID_MEDICO_MAX);
+        resposta = http.get(`${BASE_URL}/medicos/${id}`, { tags: { rota: '/medicos/{id}' } });
+    } else {
+        resposta = http.get(`${BASE_URL}/pacientes`, { tags: { rota: '/pacientes' } });
+    }
+    check(resposta, { 'status 2xx/404': (r) => (r.status >= 200 && r.status < 300) || r.status === 404 });
+}
@@ -1,24 +1,60 @@
 
 package br.com.fiap.dao;
 
+import br.com.fiap.metrics.Medido;
+import br.com.fiap.models.CampoConsulta;
 import br.com.fiap.models.ConsultaOnline;
 import br.com.fiap.models.Exame;
 import br.com.fiap.models.Medico;
 import br.com.fiap.models.Paciente;
+import br.com.fiap.search.AgendaMedicos;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import javax.sql.DataSource;
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.jboss.logging.Logger;
 
 /**
  * DAO para operações com consultas online
  */
+@Medido
 @ApplicationScoped
 public class ConsultaOnlineDao {
 
+    private static final Logger LOG = Logger.getLogger(ConsultaOnlineDao.class);
+
+    /**
+     * Linhas buscadas por round trip na exportação completa (o padrão do driver Oracle é 10)
+     */
+    private static final int FETCH_SIZE_EXPORTACAO = 500;
+
+    /**
+     * ORA-02291: restrição de integridade violada - chave pai não encontrada
+     */
+    private static final int ORA_CHAVE_PAI_NAO_ENCONTRADA = 2291;
+
+    /**
+     * Linhas por bloco PL/SQL no cadastro em lote (9 binds por linha)
+     */
+    private static final int TAMANHO_LOTE_INSERCAO = 100;
+
+    private static final String SQL_INSERIR_CONSULTA = "INSERT INTO TBL_HC_CONSULTA_ONLINE (DATA_CONSULTA, STATUS, " +
+            "LINK, ID_PACIENTE, ID_MEDICO, ID_EXAME, HORA_INICIO, DURACAO_MINUTOS) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * SELECT com todas as colunas e JOINs, montado uma vez
+     */
+    private static final String SELECT_COMPLETO = selecionar(CampoConsulta.TODOS);
+
+    private static final String SQL_EXISTE_CONSULTA = "SELECT 1 FROM TBL_HC_CONSULTA_ONLINE WHERE ID_CONSULTA = ?";
+
     @Inject
     private MedicoDao medicoDao;
 
@@ -28,21 +64,23 @@ public class ConsultaOnlineDao {
     @Inject
     private ExameDao exameDao;
 
-    /**
-     * Cadastra uma nova consulta online - VERSÃO FINAL
-     */
-
     @Inject
     private DataSource dataSource;
 
+    @Inject
+    private AgendaMedicos agenda;
 
-    public void cadastrarConsultaOnline(ConsultaOnline consultaOnline) {
-        String sql = "INSERT INTO TBL_HC_CONSULTA_ONLINE (DATA_CONSULTA, STATUS, " +
-                "LINK, ID_PACIENTE, ID_MEDICO, ID_EXAME) VALUES (?, ?, ?, ?, ?, ?)";
-
+    @Inject
+    private VersoesTabelas versoes;
 
+    /**
+     * Cadastra uma nova consulta online em um único round trip.
+     * A existência de paciente, médico e exame é garantida pelas chaves estrangeiras
+     * da tabela; uma violação (ORA-02291) vira IllegalArgumentException.
+     */
+    public void cadastrarConsultaOnline(ConsultaOnline consultaOnline) {
         try (Connection conexao = dataSource.getConnection();
-             PreparedStatement comandoSQL = conexao.prepareStatement(sql, new String[]{"ID_CONSULTA"})) {
+             PreparedStatement comandoSQL = conexao.prepareStatement(SQL_INSERIR_CONSULTA, new String[]{"ID_CONSULTA"})) {
 
             if (consultaOnline.getDataConsulta() == null) {
                 throw new IllegalArgumentException("Data da consulta não pode ser nula");
@@ -71,38 +109,122 @@ public class ConsultaOnlineDao {
             } else {
                 comandoSQL.setNull(6, Types.INTEGER);
             }
+            definirHorario(comandoSQL, 7, consultaOnline);
 
             int rowsAffected = comandoSQL.executeUpdate();
+            versoes.incrementar(VersoesTabelas.Tabela.CONSULTAS);
             if (rowsAffected > 0) {
                 try (ResultSet generatedKeys = comandoSQL.getGeneratedKeys()) {
                     if (generatedKeys != null && generatedKeys.next()) {
                         int generatedId = generatedKeys.getInt(1);
                         consultaOnline.setIdConsulta(generatedId);
-                        System.out.println("Consulta online inserida com sucesso. ID: " + generatedId);
+                        agenda.registrar(consultaOnline);
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debugf("Consulta online inserida com sucesso. ID: %s", generatedId);
+                        }
                     }
                 }
             }
 
         } catch (SQLException e) {
-            System.out.println("Erro ao cadastrar consulta online: " + e.getMessage());
+            if (e.getErrorCode() == ORA_CHAVE_PAI_NAO_ENCONTRADA) {
+                throw new IllegalArgumentException(descreverReferenciaInvalida(consultaOnline), e);
+            }
+            LOG.error("Erro ao cadastrar consulta online", e);
             throw new RuntimeException("Erro ao cadastrar consulta online", e);
         }
     }
 
+    /**
+     * Cadastra várias consultas online em uma única transação.
+     * Cada bloco de TAMANHO_LOTE_INSERCAO consultas vai em um único bloco PL/SQL (um round trip),
+     * com RETURNING por linha: o driver Oracle não devolve chaves geradas depois de executeBatch.
+     * Os IDs gerados são atribuídos às consultas na mesma ordem da lista;
+     * qualquer falha desfaz o lote inteiro.
+     */
+    public void cadastrarConsultasOnlineEmLote(List<ConsultaOnline> consultas) {
+        if (consultas == null || consultas.isEmpty()) {
+            return;
+        }
+
+        try (Connection conexao = dataSource.getConnection()) {
+            boolean autoCommitOriginal = conexao.getAutoCommit();
+            conexao.setAutoCommit(false);
+
+            try {
+                for (int inicio = 0; inicio < consultas.size(); inicio += TAMANHO_LOTE_INSERCAO) {
+                    inserirBloco(conexao, consultas.subList(inicio,
+                            Math.min(inicio + TAMANHO_LOTE_INSERCAO, consultas.size())));
+                }
+
+                conexao.commit();
+                versoes.incrementar(VersoesTabelas.Tabela.CONSULTAS);
+                consultas.forEach(agenda::registrar);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debugf("Lote de consultas online inserido com sucesso. Total: %s", consultas.size());
+                }
+            } catch (SQLException | RuntimeException e) {
+                conexao.rollback();
+                throw e;
+            } finally {
+                conexao.setAutoCommit(autoCommitOriginal);
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Erro ao cadastrar lote de consultas online", e);
+            throw new RuntimeException("Erro ao cadastrar lote de consultas online", e);
+        }
+    }
+
+    /**
+     * Insere um bloco de consultas e atribui o ID gerado de cada uma, lido por RETURNING
+     */
+    private static void inserirBloco(Connection conexao, List<ConsultaOnline> bloco) throws SQLException {
+        StringBuilder sql = new StringBuilder("BEGIN ");
+        for (int i = 0; i < bloco.size(); i++) {
+            sql.append(SQL_INSERIR_CONSULTA).append(" RETURNING ID_CONSULTA INTO ?; ");
+        }
+        sql.append("END;");
+
+        try (CallableStatement cs = conexao.prepareCall(sql.toString())) {
+            int posicao = 1;
+            for (ConsultaOnline consulta : bloco) {
+                cs.setDate(posicao, Date.valueOf(consulta.getDataConsulta()));
+                cs.setString(posicao + 1, consulta.getStatus());
+                cs.setString(posicao + 2, consulta.getLink());
+                cs.setInt(posicao + 3, consulta.getIdPaciente());
+                cs.setInt(posicao + 4, consulta.getIdMedico());
+                if (consulta.getIdExame() != null && consulta.getIdExame() > 0) {
+                    cs.setInt(posicao + 5, consulta.getIdExame());
+                } else {
+                    cs.setNull(posicao + 5, Types.INTEGER);
+                }
+                definirHorario(cs, posicao + 6, consulta);
+                cs.registerOutParameter(posicao + 8, Types.INTEGER);
+                posicao += 9;
+            }
+            cs.execute();
+
+            for (int i = 0; i < bloco.size(); i++) {
+                bloco.get(i).setIdConsulta(cs.getInt(9 * (i + 1)));
+            }
+        }
+    }
+
     /**
      * Lista todas as consultas online com objetos relacionados
      */
     public List<ConsultaOnline> listarConsultasOnline() {
+        return listarConsultasOnline(CampoConsulta.TODOS);
+    }
+
+    /**
+     * Lista todas as consultas online lendo só as colunas da projeção;
+     * os JOINs de paciente, médico e exame só entram quando pedidos
+     */
+    public List<ConsultaOnline> listarConsultasOnline(Set<CampoConsulta> campos) {
         List<ConsultaOnline> consultas = new ArrayList<>();
-        String sql = "SELECT " +
-                "co.ID_CONSULTA, co.DATA_CONSULTA, co.STATUS, co.LINK, " +
-                "p.ID_PACIENTE, p.NOME_PACIENTE, p.CPF_PACIENTE, " +
-                "m.ID_MEDICO, m.NOME AS NOME_MEDICO, m.ESPECIALIDADE, m.CRM, " +
-                "e.ID_EXAME, e.NOME_EXAME, e.RESULTADO_EXAME " +
-                "FROM TBL_HC_CONSULTA_ONLINE co " +
-                "LEFT JOIN TBL_HC_PACIENTES p ON co.ID_PACIENTE = p.ID_PACIENTE " +
-                "LEFT JOIN TBL_HC_MEDICOS m ON co.ID_MEDICO = m.ID_MEDICO " +
-                "LEFT JOIN TBL_HC_EXAME e ON co.ID_EXAME = e.ID_EXAME " +
+        String sql = selecionar(campos) +
                 "ORDER BY co.DATA_CONSULTA DESC";
 
         try (Connection conexao = dataSource.getConnection();
@@ -110,30 +232,139 @@ public class ConsultaOnlineDao {
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
-                ConsultaOnline consulta = criarConsultaFromResultSet(rs);
+                ConsultaOnline consulta = criarConsultaFromResultSet(rs, campos);
                 consultas.add(consulta);
             }
 
         } catch (SQLException e) {
-            System.out.println("Erro ao listar consultas online: " + e.getMessage());
+            LOG.error("Erro ao listar consultas online", e);
             throw new RuntimeException("Erro ao listar consultas online", e);
         }
         return consultas;
     }
 
+    /**
+     * Percorre todas as consultas online sem materializar a lista,
+     * entregando cada linha ao consumidor assim que é lida do ResultSet
+     */
+    public void percorrerConsultasOnline(Consumer<ConsultaOnline> consumidor) {
+        String sql = SELECT_COMPLETO +
+                "ORDER BY co.DATA_CONSULTA DESC, co.ID_CONSULTA DESC";
+
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            ps.setFetchSize(FETCH_SIZE_EXPORTACAO);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(criarConsultaFromResultSet(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Erro ao exportar consultas online", e);
+            throw new RuntimeException("Erro ao exportar consultas online", e);
+        }
+    }
+
+    /**
+     * Lista uma página de consultas online por paginação keyset (seek).
+     * A ordem é (DATA_CONSULTA DESC, ID_CONSULTA DESC); o cursor é a chave da
+     * última linha da página anterior, ou null para a primeira página.
+     * Retorna até limite + 1 linhas para que o chamador saiba se há próxima página.
+     */
+    public List<ConsultaOnline> listarConsultasOnlinePaginado(LocalDate dataCursor, Integer idCursor, int limite) {
+        return listarConsultasOnlinePaginado(dataCursor, idCursor, limite, CampoConsulta.TODOS);
+    }
+
+    /**
+     * Página keyset lendo só as colunas da projeção (ID e data sempre vêm, pois formam o cursor)
+     */
+    public List<ConsultaOnline> listarConsultasOnlinePaginado(LocalDate dataCursor, Integer idCursor, int limite,
+                                                            Set<CampoConsulta> campos) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("Limite da página deve ser positivo");
+        }
+        if ((dataCursor == null) != (idCursor == null)) {
+            throw new IllegalArgumentException("Cursor deve conter data e ID da consulta");
+        }
+
+        List<ConsultaOnline> consultas = new ArrayList<>(limite + 1);
+        String sql = selecionar(campos) +
+                (dataCursor != null
+                        ? "WHERE (co.DATA_CONSULTA < ? OR (co.DATA_CONSULTA = ? AND co.ID_CONSULTA < ?)) "
+                        : "") +
+                "ORDER BY co.DATA_CONSULTA DESC, co.ID_CONSULTA DESC " +
+                "FETCH FIRST ? ROWS ONLY";
+
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement(sql)) {
+
+            int indice = 1;
+            if (dataCursor != null) {
+                Date data = Date.valueOf(dataCursor);
+                ps.setDate(indice++, data);
+                ps.setDate(indice++, data);
+                ps.setInt(indice++, idCursor);
+            }
+            ps.setInt(indice, limite + 1);
+            ps.setFetchSize(limite + 1);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consultas.add(criarConsultaFromResultSet(rs, campos));
+                }
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Erro ao listar página de consultas online", e);
+            throw new RuntimeException("Erro ao listar página de consultas online", e);
+        }
+        return consultas;
+    }
+
+    /**
+     * Lista só o necessário para a agenda dos médicos: consultas com horário a partir de uma data.
+     * Sem JOINs; atende a carga de AgendaMedicos.
+     */
+    public List<ConsultaOnline> listarHorariosAPartirDe(LocalDate aPartirDe) {
+        List<ConsultaOnline> consultas = new ArrayList<>();
+        String sql = "SELECT ID_CONSULTA, ID_MEDICO, DATA_CONSULTA, HORA_INICIO, DURACAO_MINUTOS, STATUS " +
+                "FROM TBL_HC_CONSULTA_ONLINE " +
+                "WHERE HORA_INICIO IS NOT NULL AND DATA_CONSULTA >= ?";
+
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement(sql)) {
+
+            ps.setFetchSize(FETCH_SIZE_EXPORTACAO);
+            ps.setDate(1, Date.valueOf(aPartirDe));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ConsultaOnline consulta = new ConsultaOnline();
+                    consulta.setIdConsulta(rs.getInt("ID_CONSULTA"));
+                    consulta.setIdMedico(rs.getInt("ID_MEDICO"));
+                    consulta.setDataConsulta(rs.getDate("DATA_CONSULTA").toLocalDate());
+                    consulta.setHoraInicio(LocalTime.ofSecondOfDay(rs.getInt("HORA_INICIO") * 60L));
+                    int duracao = rs.getInt("DURACAO_MINUTOS");
+                    consulta.setDuracaoMinutos(rs.wasNull() ? null : duracao);
+                    consulta.setStatus(rs.getString("STATUS"));
+                    consultas.add(consulta);
+                }
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Erro ao listar horários das consultas online", e);
+            throw new RuntimeException("Erro ao listar horários das consultas online", e);
+        }
+        return consultas;
+    }
+
     /**
      * Busca consulta online por ID
      */
     public ConsultaOnline buscarPorIdConsultaOnline(int id) {
-        String sql = "SELECT " +
-                "co.ID_CONSULTA, co.DATA_CONSULTA, co.STATUS, co.LINK, " +
-                "p.ID_PACIENTE, p.NOME_PACIENTE, p.CPF_PACIENTE, " +
-                "m.ID_MEDICO, m.NOME AS NOME_MEDICO, m.ESPECIALIDADE, m.CRM, " +
-                "e.ID_EXAME, e.NOME_EXAME, e.RESULTADO_EXAME " +
-                "FROM TBL_HC_CONSULTA_ONLINE co " +
-                "LEFT JOIN TBL_HC_PACIENTES p ON co.ID_PACIENTE = p.ID_PACIENTE " +
-                "LEFT JOIN TBL_HC_MEDICOS m ON co.ID_MEDICO = m.ID_MEDICO " +
-                "LEFT JOIN TBL_HC_EXAME e ON co.ID_EXAME = e.ID_EXAME " +
+        String sql = SELECT_COMPLETO +
                 "WHERE co.ID_CONSULTA = ?";
 
         try (Connection conexao = dataSource.getConnection();
@@ -147,7 +378,7 @@ public class ConsultaOnlineDao {
             }
 
         } catch (SQLException e) {
-            System.out.println("Erro ao buscar consulta online por ID: " + e.getMessage());
+            LOG.error("Erro ao buscar consulta online por ID", e);
             throw new RuntimeException("Erro ao buscar consulta online", e);
         }
         return null;
@@ -158,15 +389,7 @@ public class ConsultaOnlineDao {
      */
     public List<ConsultaOnline> buscarPorMedico(int idMedico) {
         List<ConsultaOnline> consultas = new ArrayList<>();
-        String sql = "SELECT " +
-                "co.ID_CONSULTA, co.DATA_CONSULTA, co.STATUS, co.LINK, " +
-                "p.ID_PACIENTE, p.NOME_PACIENTE, p.CPF_PACIENTE, " +
-                "m.ID_MEDICO, m.NOME AS NOME_MEDICO, m.ESPECIALIDADE, m.CRM, " +
-                "e.ID_EXAME, e.NOME_EXAME, e.RESULTADO_EXAME " +
-                "FROM TBL_HC_CONSULTA_ONLINE co " +
-                "LEFT JOIN TBL_HC_PACIENTES p ON co.ID_PACIENTE = p.ID_PACIENTE " +
-                "LEFT JOIN TBL_HC_MEDICOS m ON co.ID_MEDICO = m.ID_MEDICO " +
-                "LEFT JOIN TBL_HC_EXAME e ON co.ID_EXAME = e.ID_EXAME " +
+        String sql = SELECT_COMPLETO +
                 "WHERE co.ID_MEDICO = ? " +
                 "ORDER BY co.DATA_CONSULTA DESC";
 
@@ -182,7 +405,7 @@ public class ConsultaOnlineDao {
             }
 
         } catch (SQLException e) {
-            System.out.println("Erro ao buscar consultas por médico: " + e.getMessage());
+            LOG.error("Erro ao buscar consultas por médico", e);
             throw new RuntimeException("Erro ao buscar consultas por médico", e);
         }
         return consultas;
@@ -193,15 +416,7 @@ public class ConsultaOnlineDao {
      */
     public List<ConsultaOnline> buscarPorPaciente(int idPaciente) {
         List<ConsultaOnline> consultas = new ArrayList<>();
-        String sql = "SELECT " +
-                "co.ID_CONSULTA, co.DATA_CONSULTA, co.STATUS, co.LINK, " +
-                "p.ID_PACIENTE, p.NOME_PACIENTE, p.CPF_PACIENTE, " +
-                "m.ID_MEDICO, m.NOME AS NOME_MEDICO, m.ESPECIALIDADE, m.CRM, " +
-                "e.ID_EXAME, e.NOME_EXAME, e.RESULTADO_EXAME " +
-                "FROM TBL_HC_CONSULTA_ONLINE co " +
-                "LEFT JOIN TBL_HC_PACIENTES p ON co.ID_PACIENTE = p.ID_PACIENTE " +
-                "LEFT JOIN TBL_HC_MEDICOS m ON co.ID_MEDICO = m.ID_MEDICO " +
-                "LEFT JOIN TBL_HC_EXAME e ON co.ID_EXAME = e.ID_EXAME " +
+        String sql = SELECT_COMPLETO +
                 "WHERE co.ID_PACIENTE = ? " +
                 "ORDER BY co.DATA_CONSULTA DESC";
 
@@ -217,16 +432,83 @@ public class ConsultaOnlineDao {
             }
 
         } catch (SQLException e) {
-            System.out.println("Erro ao buscar consultas por paciente: " + e.getMessage());
+            LOG.error("Erro ao buscar consultas por paciente", e);
             throw new RuntimeException("Erro ao buscar consultas por paciente", e);
         }
         return consultas;
     }
 
     /**
-     * Cria objeto ConsultaOnline a partir do ResultSet
+     * Grava HORA_INICIO (minutos desde a meia-noite) e DURACAO_MINUTOS a partir da posição informada
+     */
+    private static void definirHorario(PreparedStatement ps, int posicao, ConsultaOnline consulta) throws SQLException {
+        if (consulta.getHoraInicio() != null) {
+            ps.setInt(posicao, consulta.getHoraInicio().toSecondOfDay() / 60);
+        } else {
+            ps.setNull(posicao, Types.INTEGER);
+        }
+        if (consulta.getDuracaoMinutos() != null) {
+            ps.setInt(posicao + 1, consulta.getDuracaoMinutos());
+        } else {
+            ps.setNull(posicao + 1, Types.INTEGER);
+        }
+    }
+
+    /**
+     * Monta "SELECT ... FROM ... LEFT JOIN ..." com as colunas da projeção.
+     * ID e data da consulta sempre entram, pois são a chave de ordenação e do cursor.
+     */
+    private static String selecionar(Set<CampoConsulta> campos) {
+        StringBuilder sql = new StringBuilder(512).append("SELECT co.ID_CONSULTA, co.DATA_CONSULTA");
+        if (campos.contains(CampoConsulta.HORA_INICIO)) {
+            sql.append(", co.HORA_INICIO");
+        }
+        if (campos.contains(CampoConsulta.DURACAO_MINUTOS)) {
+            sql.append(", co.DURACAO_MINUTOS");
+        }
+        if (campos.contains(CampoConsulta.VERSAO)) {
+            sql.append(", co.VERSAO");
+        }
+        if (campos.contains(CampoConsulta.STATUS)) {
+            sql.append(", co.STATUS");
+        }
+        if (campos.contains(CampoConsulta.LINK)) {
+            sql.append(", co.LINK");
+        }
+        if (campos.contains(CampoConsulta.PACIENTE)) {
+            sql.append(", p.ID_PACIENTE, p.NOME_PACIENTE, p.CPF_PACIENTE");
+        }
+        if (campos.contains(CampoConsulta.MEDICO)) {
+            sql.append(", m.ID_MEDICO, m.NOME AS NOME_MEDICO, m.ESPECIALIDADE, m.CRM");
+        }
+        if (campos.contains(CampoConsulta.EXAME)) {
+            sql.append(", e.ID_EXAME, e.NOME_EXAME, e.RESULTADO_EXAME");
+        }
+        sql.append(" FROM TBL_HC_CONSULTA_ONLINE co ");
+        if (campos.contains(CampoConsulta.PACIENTE)) {
+            sql.append("LEFT JOIN TBL_HC_PACIENTES p ON co.ID_PACIENTE = p.ID_PACIENTE ");
+        }
+        if (campos.contains(CampoConsulta.MEDICO)) {
+            sql.append("LEFT JOIN TBL_HC_MEDICOS m ON co.ID_MEDICO = m.ID_MEDICO ");
+        }
+        if (campos.contains(CampoConsulta.EXAME)) {
+            sql.append("LEFT JOIN TBL_HC_EXAME e ON co.ID_EXAME = e.ID_EXAME ");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Cria objeto ConsultaOnline a partir do ResultSet (visível no pacote para os benchmarks).
+     * Estático para não passar pelo interceptor de @Medido a cada linha lida.
      */
-    private ConsultaOnline criarConsultaFromResultSet(ResultSet rs) throws SQLException {
+    static ConsultaOnline criarConsultaFromResultSet(ResultSet rs) throws SQLException {
+        return criarConsultaFromResultSet(rs, CampoConsulta.TODOS);
+    }
+
+    /**
+     * Cria objeto ConsultaOnline lendo só as colunas da projeção
+     */
+    static ConsultaOnline criarConsultaFromResultSet(ResultSet rs, Set<CampoConsulta> campos) throws SQLException {
         ConsultaOnline consulta = new ConsultaOnline();
 
 
@@ -237,41 +519,76 @@ public class ConsultaOnlineDao {
             consulta.setDataConsulta(dataSql.toLocalDate());
         }
 
-        consulta.setStatus(rs.getString("STATUS"));
-        consulta.setLink(rs.getString("LINK"));
+        if (campos.contains(CampoConsulta.HORA_INICIO)) {
+            int minutos = rs.getInt("HORA_INICIO");
+            if (!rs.wasNull()) {
+                consulta.setHoraInicio(LocalTime.ofSecondOfDay(minutos * 60L));
+            }
+        }
+        if (campos.contains(CampoConsulta.DURACAO_MINUTOS)) {
+            int duracao = rs.getInt("DURACAO_MINUTOS");
+            if (!rs.wasNull()) {
+                consulta.setDuracaoMinutos(duracao);
+            }
+        }
+        if (campos.contains(CampoConsulta.VERSAO)) {
+            consulta.setVersao(rs.getInt("VERSAO"));
+        }
+        if (campos.contains(CampoConsulta.STATUS)) {
+            consulta.setStatus(rs.getString("STATUS"));
+        }
+        if (campos.contains(CampoConsulta.LINK)) {
+            consulta.setLink(rs.getString("LINK"));
+        }
 
 
-        Paciente paciente = new Paciente();
-        paciente.setId(rs.getInt("ID_PACIENTE"));
-        paciente.setNome(rs.getString("NOME_PACIENTE"));
-        paciente.setCpf(rs.getString("CPF_PACIENTE"));
-        consulta.setPaciente(paciente);
+        if (campos.contains(CampoConsulta.PACIENTE)) {
+            Paciente paciente = new Paciente();
+            paciente.setId(rs.getInt("ID_PACIENTE"));
+            paciente.setNome(rs.getString("NOME_PACIENTE"));
+            paciente.setCpf(rs.getString("CPF_PACIENTE"));
+            consulta.setPaciente(paciente);
+        }
 
 
-        Medico medico = new Medico();
-        medico.setIdMedico(rs.getInt("ID_MEDICO"));
-        medico.setNome(rs.getString("NOME_MEDICO"));
-        medico.setEspecialidade(rs.getString("ESPECIALIDADE"));
-        medico.setCrm(rs.getInt("CRM"));
-        consulta.setMedico(medico);
+        if (campos.contains(CampoConsulta.MEDICO)) {
+            Medico medico = new Medico();
+            medico.setIdMedico(rs.getInt("ID_MEDICO"));
+            medico.setNome(rs.getString("NOME_MEDICO"));
+            medico.setEspecialidade(rs.getString("ESPECIALIDADE"));
+            medico.setCrm(rs.getInt("CRM"));
+            consulta.setMedico(medico);
+        }
 
 
-        int idExame = rs.getInt("ID_EXAME");
-        if (!rs.wasNull() && idExame > 0) {
-            Exame exame = new Exame();
-            exame.setId_exame(idExame);
-            exame.setNome_exame(rs.getString("NOME_EXAME"));
-            exame.setResultado_exame(rs.getString("RESULTADO_EXAME"));
-            consulta.setExame(exame);
+        if (campos.contains(CampoConsulta.EXAME)) {
+            int idExame = rs.getInt("ID_EXAME");
+            if (!rs.wasNull() && idExame > 0) {
+                Exame exame = new Exame();
+                exame.setId_exame(idExame);
+                exame.setNome_exame(rs.getString("NOME_EXAME"));
+                exame.setResultado_exame(rs.getString("RESULTADO_EXAME"));
+                consulta.setExame(exame);
+            }
         }
 
         return consulta;
     }
 
     /**
-     * Atualiza uma consulta online existente - VERSÃO COMPATÍVEL
+     * Atualiza uma consulta online existente em um único round trip.
+     * Retorna false quando a consulta não existe; referências inválidas de
+     * paciente, médico ou exame são rejeitadas pelas chaves estrangeiras.
+     */
+    public boolean updateConsultaOnline(ConsultaOnline consultaOnline) {
+        return atualizarConsultaOnline(consultaOnline, null) == ResultadoEscrita.APLICADA;
+    }
+
+    /**
+     * Atualiza uma consulta online em um único UPDATE, incrementando a versão da linha
+     * @param versaoEsperada versão lida pelo cliente (If-Match), ou null para atualizar em qualquer versão
      */
-    public void updateConsultaOnline(ConsultaOnline consultaOnline) {
+    public ResultadoEscrita atualizarConsultaOnline(ConsultaOnline consultaOnline, Integer versaoEsperada) {
         if (consultaOnline.getIdConsulta() <= 0) {
             throw new IllegalArgumentException("ID da consulta deve ser positivo");
         }
@@ -279,7 +596,9 @@ public class ConsultaOnlineDao {
             throw new IllegalArgumentException("Data da consulta não pode ser nula");
         }
 
-        String sql = "UPDATE TBL_HC_CONSULTA_ONLINE SET DATA_CONSULTA = ?, STATUS = ?, LINK = ?, ID_PACIENTE = ?, ID_MEDICO = ?, ID_EXAME = ? WHERE ID_CONSULTA = ?";
+        String sql = "UPDATE TBL_HC_CONSULTA_ONLINE SET DATA_CONSULTA = ?, STATUS = ?, LINK = ?, ID_PACIENTE = ?, ID_MEDICO = ?, ID_EXAME = ?, " +
+                "HORA_INICIO = ?, DURACAO_MINUTOS = ?, VERSAO = VERSAO + 1 WHERE ID_CONSULTA = ?" +
+                (versaoEsperada != null ? " AND VERSAO = ?" : "");
 
         try (Connection conexao = dataSource.getConnection();
              PreparedStatement ps = conexao.prepareStatement(sql)) {
@@ -307,16 +626,25 @@ public class ConsultaOnlineDao {
             } else {
                 ps.setNull(6, Types.INTEGER);
             }
+            definirHorario(ps, 7, consultaOnline);
 
-            ps.setInt(7, consultaOnline.getIdConsulta());
+            ps.setInt(9, consultaOnline.getIdConsulta());
+            if (versaoEsperada != null) {
+                ps.setInt(10, versaoEsperada);
+            }
 
-            int rowsAffected = ps.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new RuntimeException("Consulta não encontrada para atualização");
+            if (ps.executeUpdate() == 0) {
+                return ResultadoEscrita.semLinhasAfetadas(conexao, SQL_EXISTE_CONSULTA, consultaOnline.getIdConsulta(), versaoEsperada);
             }
+            versoes.incrementar(VersoesTabelas.Tabela.CONSULTAS);
+            agenda.registrar(consultaOnline);
+            return ResultadoEscrita.APLICADA;
 
         } catch (SQLException e) {
-            System.out.println("Erro ao atualizar consulta online: " + e.getMessage());
+            if (e.getErrorCode() == ORA_CHAVE_PAI_NAO_ENCONTRADA) {
+                throw new IllegalArgumentException(descreverReferenciaInvalida(consultaOnline), e);
+            }
+            LOG.error("Erro ao atualizar consulta online", e);
             throw new RuntimeException("Erro ao atualizar consulta online", e);
         }
     }
@@ -325,25 +653,66 @@ public class ConsultaOnlineDao {
      * Exclui uma consulta online por ID
      */
     public void excluirConsultaOnline(int id) {
+        if (excluirConsultaOnline(id, null) == ResultadoEscrita.NAO_ENCONTRADA) {
+            throw new RuntimeException("Consulta não encontrada para exclusão");
+        }
+    }
+
+    /**
+     * Exclui uma consulta online em um único DELETE
+     * @param versaoEsperada versão lida pelo cliente (If-Match), ou null para excluir em qualquer versão
+     */
+    public ResultadoEscrita excluirConsultaOnline(int id, Integer versaoEsperada) {
         if (id <= 0) {
             throw new IllegalArgumentException("ID da consulta deve ser positivo");
         }
 
-        String sql = "DELETE FROM TBL_HC_CONSULTA_ONLINE WHERE ID_CONSULTA = ?";
+        String sql = "DELETE FROM TBL_HC_CONSULTA_ONLINE WHERE ID_CONSULTA = ?" +
+                (versaoEsperada != null ? " AND VERSAO = ?" : "");
 
         try (Connection conexao = dataSource.getConnection();
              PreparedStatement ps = conexao.prepareStatement(sql)) {
 
             ps.setInt(1, id);
+            if (versaoEsperada != null) {
+                ps.setInt(2, versaoEsperada);
+            }
             int rowsAffected = ps.executeUpdate();
 
             if (rowsAffected == 0) {
-                throw new RuntimeException("Consulta não encontrada para exclusão");
+                return ResultadoEscrita.semLinhasAfetadas(conexao, SQL_EXISTE_CONSULTA, id, versaoEsperada);
             }
+            versoes.incrementar(VersoesTabelas.Tabela.CONSULTAS);
+            agenda.remover(id);
+            return ResultadoEscrita.APLICADA;
 
         } catch (SQLException e) {
-            System.out.println("Erro ao excluir consulta online: " + e.getMessage());
+            LOG.error("Erro ao excluir consulta online", e);
             throw new RuntimeException("Erro ao excluir consulta online", e);
         }
     }
-}
+
+    /**
+     * Identifica qual referência da consulta não existe após uma violação de chave estrangeira.
+     * Só é executado no caminho de erro, mantendo o caminho feliz em um round trip.
+     */
+    private String descreverReferenciaInvalida(ConsultaOnline consulta) {
+        try {
+            Integer idPaciente = consulta.getIdPaciente();
+            if (pacienteDao.buscarIdsExistentes(Set.of(idPaciente)).isEmpty()) {
+                return "Paciente com ID " + idPaciente + " não encontrado";
+            }
+            Integer idMedico = consulta.getIdMedico();
+            if (medicoDao.buscarIdsExistentes(Set.of(idMedico)).isEmpty()) {
+                return "Médico com ID " + idMedico + " não encontrado";
+            }
+            Integer idExame = consulta.getIdExame();
+            if (idExame != null && idExame > 0 && exameDao.buscarIdsExistentes(Set.of(idExame)).isEmpty()) {
+                return "Exame com ID " + idExame + " não encontrado";
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Erro ao identificar referência inválida", e);
+        }
+        return "Paciente, médico ou exame informado não encontrado";
+    }
+}
\ No newline at end of file
@@ -1,24 +1,37 @@
 package br.com.fiap.dao;
 
+import br.com.fiap.metrics.Medido;
 import br.com.fiap.models.Exame;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import javax.sql.DataSource;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jboss.logging.Logger;
 
 /**
  * DAO (Data Access Object) para operações com exames no banco de dados
  * Responsável pelo CRUD de exames médicos
  */
+@Medido
 @ApplicationScoped
 public class ExameDao {
 
+    private static final Logger LOG = Logger.getLogger(ExameDao.class);
+
+    private static final String SQL_EXISTE_EXAME = "SELECT 1 FROM TBL_HC_EXAME WHERE id_exame = ?";
 
     /**
      * Cadastra um novo exame no sistema
@@ -28,6 +41,9 @@ public class ExameDao {
     @Inject
     private DataSource dataSource;
 
+    @Inject
+    private VersoesTabelas versoes;
+
     @ApplicationScoped
     public void cadastrarExame(Exame exame) throws SQLException {
         Connection conexao = dataSource.getConnection();
@@ -44,6 +60,7 @@ public class ExameDao {
             comandoSQL.setString(3, exame.getStatus_resultado());
 
             comandoSQL.executeUpdate();
+            versoes.incrementar(VersoesTabelas.Tabela.EXAMES);
 
 
             ResultSet generatedKeys = comandoSQL.getGeneratedKeys();
@@ -55,7 +72,7 @@ public class ExameDao {
             conexao.close();
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Erro ao cadastrar exame", e);
             throw new RuntimeException("Erro ao cadastrar exame: " + e.getMessage());
         }
     }
@@ -135,7 +152,9 @@ public class ExameDao {
      * @return Objeto Exame encontrado ou null se não existir
      */
     public Exame buscarPorIdExame(int id) throws SQLException {
-        System.out.println("Chamando buscarPorIdExame com ID: " + id);
+        if (LOG.isTraceEnabled()) {
+            LOG.tracef("Chamando buscarPorIdExame com ID: %s", id);
+        }
 
         Connection conexao = dataSource.getConnection();
         PreparedStatement ps = null;
@@ -145,28 +164,37 @@ public class ExameDao {
             String sql = "SELECT * FROM TBL_HC_EXAME WHERE id_exame = ?";
             ps = conexao.prepareStatement(sql);
             ps.setInt(1, id);
-            System.out.println("Executando consulta SQL: " + sql + " com id_exame: " + id);
+            if (LOG.isTraceEnabled()) {
+                LOG.tracef("Executando consulta SQL: %s com id_exame: %s", sql, id);
+            }
 
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
-                System.out.println("Exame encontrado no banco com ID: " + id);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debugf("Exame encontrado no banco com ID: %s", id);
+                }
                 exame = new Exame();
                 exame.setId_exame(rs.getInt("id_exame"));
                 exame.setNome_exame(rs.getString("nome_exame"));
                 exame.setResultado_exame(rs.getString("resultado_exame"));
                 exame.setStatus_resultado(rs.getString("status_resultado"));
+                exame.setVersao(rs.getInt("versao"));
             } else {
-                System.out.println("Nenhum exame encontrado no banco com ID: " + id);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debugf("Nenhum exame encontrado no banco com ID: %s", id);
+                }
             }
 
             rs.close();
             ps.close();
             conexao.close();
         } catch (SQLException e) {
-            System.out.println("Erro ao buscar exame por ID: " + e.getMessage());
+            LOG.error("Erro ao buscar exame por ID", e);
             throw new RuntimeException("Erro ao buscar exame por ID: " + e.getMessage());
         }
-        System.out.println("Resultado do método buscarPorIdExame: " + exame);
+        if (LOG.isTraceEnabled()) {
+            LOG.tracef("Resultado do método buscarPorIdExame: %s", exame);
+        }
         return exame;
     }
 
@@ -175,23 +203,42 @@ public class ExameDao {
      * @param exame Objeto Exame com os dados atualizados
      */
     public void updateExame(Exame exame) throws SQLException {
-        Connection conexao = dataSource.getConnection();
-        PreparedStatement ps = null;
-        try {
-            String sql = "UPDATE TBL_HC_EXAME SET nome_exame = ?, resultado_exame = ?, status_resultado = ? WHERE id_exame = ?";
-            ps = conexao.prepareStatement(sql);
-            ps.setString(1, exame.getNome_exame());
-            ps.setString(2, exame.getResultado_exame());
-            ps.setString(3, exame.getStatus_resultado());
-            ps.setInt(4, exame.getId_exame());
+        if (atualizarExame(exame, null) == ResultadoEscrita.NAO_ENCONTRADA) {
+            throw new RuntimeException("Exame não encontrado para atualização");
+        }
+    }
 
-            int rowsAffected = ps.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new RuntimeException("Exame não encontrado para atualização");
+    /**
+     * Atualiza um exame em um único UPDATE, incrementando a versão da linha. O UPDATE roda em um
+     * bloco PL/SQL com RETURNING, e a versão gravada é atribuída ao exame sem nova leitura.
+     * @param exame Objeto Exame com os dados atualizados
+     * @param versaoEsperada versão lida pelo cliente (If-Match), ou null para atualizar em qualquer versão
+     */
+    public ResultadoEscrita atualizarExame(Exame exame, Integer versaoEsperada) {
+        String sql = "BEGIN UPDATE TBL_HC_EXAME SET nome_exame = ?, resultado_exame = ?, status_resultado = ?, versao = versao + 1 WHERE id_exame = ?"
+                + (versaoEsperada != null ? " AND versao = ?" : "")
+                + " RETURNING versao INTO ?; ? := SQL%ROWCOUNT; END;";
+
+        try (Connection conexao = dataSource.getConnection();
+             CallableStatement cs = conexao.prepareCall(sql)) {
+            cs.setString(1, exame.getNome_exame());
+            cs.setString(2, exame.getResultado_exame());
+            cs.setString(3, exame.getStatus_resultado());
+            cs.setInt(4, exame.getId_exame());
+            int saida = 5;
+            if (versaoEsperada != null) {
+                cs.setInt(saida++, versaoEsperada);
             }
+            cs.registerOutParameter(saida, Types.INTEGER);
+            cs.registerOutParameter(saida + 1, Types.INTEGER);
 
-            ps.close();
-            conexao.close();
+            cs.execute();
+            versoes.incrementar(VersoesTabelas.Tabela.EXAMES);
+            if (cs.getInt(saida + 1) == 0) {
+                return ResultadoEscrita.semLinhasAfetadas(conexao, SQL_EXISTE_EXAME, exame.getId_exame(), versaoEsperada);
+            }
+            exame.setVersao(cs.getInt(saida));
+            return ResultadoEscrita.APLICADA;
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao atualizar exame: " + e.getMessage());
         }
@@ -202,22 +249,100 @@ public class ExameDao {
      * @param id ID do exame a ser excluído
      */
     public void excluirExame(int id) throws SQLException {
-        Connection conexao = dataSource.getConnection();
-        PreparedStatement ps = null;
+        if (excluirExame(id, null) == ResultadoEscrita.NAO_ENCONTRADA) {
+            throw new RuntimeException("Exame não encontrado para exclusão");
+        }
+    }
 
-        try {
-            ps = conexao.prepareStatement("DELETE FROM TBL_HC_EXAME WHERE id_exame = ?");
+    /**
+     * Exclui um exame em um único DELETE
+     * @param id ID do exame a ser excluído
+     * @param versaoEsperada versão lida pelo cliente (If-Match), ou null para excluir em qualquer versão
+     */
+    public ResultadoEscrita excluirExame(int id, Integer versaoEsperada) {
+        String sql = "DELETE FROM TBL_HC_EXAME WHERE id_exame = ?"
+                + (versaoEsperada != null ? " AND versao = ?" : "");
+
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement(sql)) {
             ps.setInt(1, id);
+            if (versaoEsperada != null) {
+                ps.setInt(2, versaoEsperada);
+            }
 
             int rowsAffected = ps.executeUpdate();
+            versoes.incrementar(VersoesTabelas.Tabela.EXAMES);
             if (rowsAffected == 0) {
-                throw new RuntimeException("Exame não encontrado para exclusão");
+                return ResultadoEscrita.semLinhasAfetadas(conexao, SQL_EXISTE_EXAME, id, versaoEsperada);
             }
-
-            ps.close();
-            conexao.close();
+            return ResultadoEscrita.APLICADA;
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao excluir exame: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Retorna quais dos IDs informados existem em TBL_HC_EXAME, com uma consulta por bloco de até 1000 IDs
+     */
+    public Set<Integer> buscarIdsExistentes(Collection<Integer> ids) {
+        Set<Integer> existentes = new HashSet<>();
+        if (ids == null || ids.isEmpty()) {
+            return existentes;
+        }
+
+        for (List<Integer> bloco : ListaIn.blocos(new ArrayList<>(new HashSet<>(ids)))) {
+            String sql = "SELECT id_exame FROM TBL_HC_EXAME WHERE id_exame IN (" + ListaIn.parametros(bloco.size()) + ")";
+
+            try (Connection conexao = dataSource.getConnection();
+                 PreparedStatement ps = conexao.prepareStatement(sql)) {
+
+                ListaIn.vincularInts(ps, bloco);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        existentes.add(rs.getInt(1));
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao verificar exames existentes", e);
+            }
+        }
+        return existentes;
+    }
+
+    /**
+     * Busca vários exames por ID, com uma consulta por bloco de até 1000 IDs
+     * @param ids IDs dos exames
+     * @return Exames encontrados indexados por ID (IDs inexistentes ficam fora do mapa)
+     */
+    public Map<Integer, Exame> buscarPorIds(Collection<Integer> ids) {
+        Map<Integer, Exame> exames = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return exames;
+        }
+
+        for (List<Integer> bloco : ListaIn.blocos(new ArrayList<>(new HashSet<>(ids)))) {
+            String sql = "SELECT id_exame, nome_exame, resultado_exame, status_resultado FROM TBL_HC_EXAME WHERE id_exame IN (" + ListaIn.parametros(bloco.size()) + ")";
+
+            try (Connection conexao = dataSource.getConnection();
+                 PreparedStatement ps = conexao.prepareStatement(sql)) {
+
+                ListaIn.vincularInts(ps, bloco);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Exame exame = new Exame();
+                        exame.setId_exame(rs.getInt("id_exame"));
+                        exame.setNome_exame(rs.getString("nome_exame"));
+                        exame.setResultado_exame(rs.getString("resultado_exame"));
+                        exame.setStatus_resultado(rs.getString("status_resultado"));
+                        exames.put(exame.getId_exame(), exame);
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao buscar exames por ID", e);
+            }
+        }
+        return exames;
+    }
+}
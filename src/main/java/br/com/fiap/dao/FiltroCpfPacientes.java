@@ -0,0 +1,113 @@
+package br.com.fiap.dao;
+
+import br.com.fiap.search.FiltroBloom;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Filtro de Bloom com os CPFs já cadastrados em TBL_HC_PACIENTES.
+ *
+ * Permite pular a leitura prévia por CPF no cadastro quando o CPF certamente não existe.
+ * É carregado na inicialização com uma varredura em streaming e recebe os CPFs gravados
+ * pelo PacienteDao; exclusões não são removidas (geram no máximo um falso positivo).
+ * A constraint UNIQUE do banco continua sendo a palavra final.
+ */
+@ApplicationScoped
+public class FiltroCpfPacientes {
+
+    private static final Logger LOG = Logger.getLogger(FiltroCpfPacientes.class);
+
+    @Inject
+    PacienteDao pacienteDao;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "hc.pacientes.cpf-bloom.capacidade", defaultValue = "1000000")
+    long capacidade;
+
+    @ConfigProperty(name = "hc.pacientes.cpf-bloom.taxa-falso-positivo", defaultValue = "0.01")
+    double taxaFalsoPositivo;
+
+    private FiltroBloom filtro;
+    private volatile boolean pronto;
+    private Counter ausentes;
+    private Counter talvezPresentes;
+
+    @PostConstruct
+    void iniciar() {
+        filtro = new FiltroBloom(capacidade, taxaFalsoPositivo);
+        ausentes = Counter.builder("hc.pacientes.cpf.bloom")
+                .description("Consultas ao filtro de CPFs por resultado")
+                .tag("resultado", "ausente")
+                .register(registry);
+        talvezPresentes = Counter.builder("hc.pacientes.cpf.bloom")
+                .description("Consultas ao filtro de CPFs por resultado")
+                .tag("resultado", "talvez")
+                .register(registry);
+    }
+
+    void aoIniciar(@Observes StartupEvent evento) {
+        try {
+            long total = pacienteDao.percorrerCpfs(this::adicionar);
+            pronto = true;
+            LOG.infof("Filtro de CPFs carregado: %d CPFs, %d bits, %d funções de hash",
+                    total, filtro.getTotalBits(), filtro.getFuncoesHash());
+        } catch (RuntimeException e) {
+            LOG.warn("Não foi possível carregar o filtro de CPFs; o cadastro fará a leitura prévia por CPF", e);
+        }
+    }
+
+    /**
+     * Registra um CPF gravado no banco (chamado também durante a carga)
+     */
+    public void adicionar(String cpf) {
+        long chave = chave(cpf);
+        if (chave >= 0) {
+            filtro.adicionar(chave);
+        }
+    }
+
+    /**
+     * @return false somente se o CPF certamente não está cadastrado;
+     *         true enquanto o filtro não foi carregado
+     */
+    public boolean podeExistir(String cpf) {
+        long chave = chave(cpf);
+        if (!pronto || chave < 0) {
+            return true;
+        }
+        boolean talvez = filtro.podeConter(chave);
+        (talvez ? talvezPresentes : ausentes).increment();
+        return talvez;
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * CPF de 11 dígitos como número, ou -1 se não for numérico
+     */
+    private static long chave(String cpf) {
+        if (cpf == null || cpf.length() != 11) {
+            return -1;
+        }
+        long valor = 0;
+        for (int i = 0; i < 11; i++) {
+            char c = cpf.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+}
@@ -1,29 +1,43 @@
 package br.com.fiap.dao;
 
+import br.com.fiap.metrics.Medido;
+import br.com.fiap.models.GravidadeDiagnostico;
 import br.com.fiap.models.HistoricoConsulta;
+import br.com.fiap.search.IndiceHistorico;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO para operações com histórico de consultas
  */
+@Medido
 @ApplicationScoped
 public class HistoricoConsultaDao {
 
+    private static final String COLUNAS =
+            "id_historico, sintomas_historico, diagnostico, observacoes, gravidade";
+
     /**
      * Cadastra um novo histórico de consulta
      */
     @Inject
     private DataSource dataSource;
 
+    @Inject
+    private IndiceHistorico indice;
+
     @ApplicationScoped
     public void cadastrarHistoricoConsulta(HistoricoConsulta historicoconsulta) {
-        String sql = "INSERT INTO TBL_HC_HISTORICOS (sintomas_historico, diagnostico, observacoes) VALUES (?, ?, ?)";
+        String sql = "INSERT INTO TBL_HC_HISTORICOS (sintomas_historico, diagnostico, observacoes, gravidade) VALUES (?, ?, ?, ?)";
 
         try (Connection conexao = dataSource.getConnection();
              PreparedStatement comandoSQL = conexao.prepareStatement(sql, new String[]{"id_historico"})) {
@@ -31,6 +45,7 @@ public class HistoricoConsultaDao {
             comandoSQL.setString(1, historicoconsulta.getSintomasHistorico());
             comandoSQL.setString(2, historicoconsulta.getDiagnostico());
             comandoSQL.setString(3, historicoconsulta.getObservacao());
+            comandoSQL.setString(4, nomeGravidade(historicoconsulta.getGravidade()));
 
             int rowsAffected = comandoSQL.executeUpdate();
 
@@ -38,6 +53,7 @@ public class HistoricoConsultaDao {
             if (generatedKeys.next()) {
                 int idGerado = generatedKeys.getInt(1);
                 historicoconsulta.setIdHistorico(idGerado);
+                indice.indexar(historicoconsulta);
             }
 
         } catch (SQLException e) {
@@ -50,19 +66,14 @@ public class HistoricoConsultaDao {
      */
     public List<HistoricoConsulta> listarTodosHistoricos() {
         List<HistoricoConsulta> historicos = new ArrayList<>();
-        String sql = "SELECT id_historico, sintomas_historico, diagnostico, observacoes FROM TBL_HC_HISTORICOS ORDER BY id_historico";
+        String sql = "SELECT " + COLUNAS + " FROM TBL_HC_HISTORICOS ORDER BY id_historico";
 
         try (Connection conexao = dataSource.getConnection();
              PreparedStatement stmt = conexao.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
-                HistoricoConsulta historicoconsulta = new HistoricoConsulta();
-                historicoconsulta.setIdHistorico(rs.getInt("id_historico"));
-                historicoconsulta.setSintomasHistorico(rs.getString("sintomas_historico"));
-                historicoconsulta.setDiagnostico(rs.getString("diagnostico"));
-                historicoconsulta.setObservacao(rs.getString("observacoes"));
-                historicos.add(historicoconsulta);
+                historicos.add(criarHistoricoFromResultSet(rs));
             }
             return historicos;
 
@@ -79,7 +90,7 @@ public class HistoricoConsultaDao {
             throw new IllegalArgumentException("ID deve ser positivo");
         }
 
-        String sql = "SELECT id_historico, sintomas_historico, diagnostico, observacoes FROM TBL_HC_HISTORICOS WHERE id_historico = ?";
+        String sql = "SELECT " + COLUNAS + " FROM TBL_HC_HISTORICOS WHERE id_historico = ?";
         HistoricoConsulta historicoconsulta = null;
 
         try (Connection conexao = dataSource.getConnection();
@@ -88,11 +99,7 @@ public class HistoricoConsultaDao {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    historicoconsulta = new HistoricoConsulta();
-                    historicoconsulta.setIdHistorico(rs.getInt("id_historico"));
-                    historicoconsulta.setSintomasHistorico(rs.getString("sintomas_historico"));
-                    historicoconsulta.setDiagnostico(rs.getString("diagnostico"));
-                    historicoconsulta.setObservacao(rs.getString("observacoes"));
+                    historicoconsulta = criarHistoricoFromResultSet(rs);
                 }
             }
         } catch (SQLException e) {
@@ -109,7 +116,7 @@ public class HistoricoConsultaDao {
             throw new IllegalArgumentException("ID do histórico deve ser positivo");
         }
 
-        String sql = "UPDATE TBL_HC_HISTORICOS SET sintomas_historico = ?, diagnostico = ?, observacoes = ? WHERE id_historico = ?";
+        String sql = "UPDATE TBL_HC_HISTORICOS SET sintomas_historico = ?, diagnostico = ?, observacoes = ?, gravidade = ? WHERE id_historico = ?";
 
         try (Connection conexao = dataSource.getConnection();
              PreparedStatement ps = conexao.prepareStatement(sql)) {
@@ -117,12 +124,14 @@ public class HistoricoConsultaDao {
             ps.setString(1, historicoconsulta.getSintomasHistorico());
             ps.setString(2, historicoconsulta.getDiagnostico());
             ps.setString(3, historicoconsulta.getObservacao());
-            ps.setInt(4, historicoconsulta.getIdHistorico());
+            ps.setString(4, nomeGravidade(historicoconsulta.getGravidade()));
+            ps.setInt(5, historicoconsulta.getIdHistorico());
 
             int rowsAffected = ps.executeUpdate();
             if (rowsAffected == 0) {
                 throw new SQLException("Histórico não encontrado para atualização");
             }
+            indice.indexar(historicoconsulta);
 
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao atualizar histórico", e);
@@ -147,9 +156,163 @@ public class HistoricoConsultaDao {
             if (rowsAffected == 0) {
                 throw new SQLException("Histórico não encontrado para exclusão");
             }
+            indice.remover(id);
 
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao excluir histórico", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Lista históricos de uma gravidade em ordem de ID, paginando por keyset
+     * (usa o índice IDX_HC_HIST_GRAVIDADE em (gravidade, id_historico)).
+     * Retorna até limite + 1 linhas para o chamador saber se há próxima página.
+     * @param idCursor último ID da página anterior (null para a primeira página)
+     */
+    public List<HistoricoConsulta> listarPorGravidade(GravidadeDiagnostico gravidade, Integer idCursor, int limite) {
+        String sql = "SELECT " + COLUNAS + " FROM TBL_HC_HISTORICOS " +
+                "WHERE gravidade = ? AND id_historico > ? " +
+                "ORDER BY id_historico FETCH FIRST ? ROWS ONLY";
+        List<HistoricoConsulta> historicos = new ArrayList<>();
+
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement(sql)) {
+
+            ps.setString(1, gravidade.name());
+            ps.setInt(2, idCursor == null ? 0 : idCursor);
+            ps.setInt(3, limite + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    historicos.add(criarHistoricoFromResultSet(rs));
+                }
+            }
+            return historicos;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar históricos por gravidade", e);
+        }
+    }
+
+    /**
+     * Lê um bloco de históricos a classificar, em ordem de ID a partir do cursor
+     * @param somentePendentes true para trazer apenas registros com gravidade nula
+     */
+    public List<HistoricoConsulta> listarBlocoParaClassificacao(int idCursor, int tamanhoBloco, boolean somentePendentes) {
+        String sql = "SELECT " + COLUNAS + " FROM TBL_HC_HISTORICOS " +
+                "WHERE id_historico > ?" + (somentePendentes ? " AND gravidade IS NULL" : "") +
+                " ORDER BY id_historico FETCH FIRST ? ROWS ONLY";
+        List<HistoricoConsulta> historicos = new ArrayList<>();
+
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement(sql)) {
+
+            ps.setInt(1, idCursor);
+            ps.setInt(2, tamanhoBloco);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    historicos.add(criarHistoricoFromResultSet(rs));
+                }
+            }
+            return historicos;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar históricos para classificação", e);
+        }
+    }
+
+    /**
+     * Grava a gravidade já definida em cada histórico, em um único batch/transação.
+     * Cada UPDATE só vale se a linha ainda estiver como foi lida: sem gravidade, ou com o mesmo
+     * diagnóstico ao reclassificar; uma edição concorrente não é sobrescrita com a classificação
+     * de um diagnóstico antigo. Só as linhas realmente alteradas são relidas e reindexadas.
+     * @param somentePendentes true se o bloco foi lido só com registros de gravidade nula
+     * @return número de linhas atualizadas
+     */
+    public int atualizarGravidades(List<HistoricoConsulta> historicos, boolean somentePendentes) {
+        if (historicos.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE TBL_HC_HISTORICOS SET gravidade = ? WHERE id_historico = ?"
+                + (somentePendentes ? " AND gravidade IS NULL" : " AND DECODE(diagnostico, ?, 0, 1) = 0");
+
+        List<Integer> alterados = new ArrayList<>(historicos.size());
+        try (Connection conexao = dataSource.getConnection()) {
+            boolean autoCommit = conexao.getAutoCommit();
+            conexao.setAutoCommit(false);
+            try (PreparedStatement ps = conexao.prepareStatement(sql)) {
+                for (HistoricoConsulta historico : historicos) {
+                    ps.setString(1, nomeGravidade(historico.getGravidade()));
+                    ps.setInt(2, historico.getIdHistorico());
+                    if (!somentePendentes) {
+                        ps.setString(3, historico.getDiagnostico());
+                    }
+                    ps.addBatch();
+                }
+                int[] linhas = ps.executeBatch();
+                conexao.commit();
+
+                // SUCCESS_NO_INFO (-2) conta como alterado: a releitura traz o estado real
+                for (int i = 0; i < linhas.length; i++) {
+                    if (linhas[i] > 0 || linhas[i] == Statement.SUCCESS_NO_INFO) {
+                        alterados.add(historicos.get(i).getIdHistorico());
+                    }
+                }
+            } catch (SQLException e) {
+                conexao.rollback();
+                throw e;
+            } finally {
+                conexao.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao atualizar gravidade dos históricos", e);
+        }
+
+        buscarPorIds(alterados).values().forEach(indice::indexar);
+        return alterados.size();
+    }
+
+    /**
+     * Busca vários históricos por ID, com uma consulta por bloco de até 1000 IDs.
+     * IDs inexistentes ficam fora do mapa.
+     */
+    public Map<Integer, HistoricoConsulta> buscarPorIds(Collection<Integer> ids) {
+        Map<Integer, HistoricoConsulta> historicos = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return historicos;
+        }
+
+        for (List<Integer> bloco : ListaIn.blocos(new ArrayList<>(new HashSet<>(ids)))) {
+            String sql = "SELECT " + COLUNAS + " FROM TBL_HC_HISTORICOS WHERE id_historico IN (" + ListaIn.parametros(bloco.size()) + ")";
+
+            try (Connection conexao = dataSource.getConnection();
+                 PreparedStatement ps = conexao.prepareStatement(sql)) {
+
+                ListaIn.vincularInts(ps, bloco);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        HistoricoConsulta historico = criarHistoricoFromResultSet(rs);
+                        historicos.put(historico.getIdHistorico(), historico);
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao buscar históricos por ID", e);
+            }
+        }
+        return historicos;
+    }
+
+    private HistoricoConsulta criarHistoricoFromResultSet(ResultSet rs) throws SQLException {
+        HistoricoConsulta historicoconsulta = new HistoricoConsulta();
+        historicoconsulta.setIdHistorico(rs.getInt("id_historico"));
+        historicoconsulta.setSintomasHistorico(rs.getString("sintomas_historico"));
+        historicoconsulta.setDiagnostico(rs.getString("diagnostico"));
+        historicoconsulta.setObservacao(rs.getString("observacoes"));
+        historicoconsulta.setGravidade(GravidadeDiagnostico.deColuna(rs.getString("gravidade")));
+        return historicoconsulta;
+    }
+
+    private static String nomeGravidade(GravidadeDiagnostico gravidade) {
+        return gravidade == null ? null : gravidade.name();
+    }
+}
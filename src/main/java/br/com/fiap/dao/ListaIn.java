@@ -0,0 +1,91 @@
+package br.com.fiap.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Utilitário para montar cláusulas IN com lista de parâmetros.
+ * O Oracle aceita no máximo 1000 expressões por lista IN, então listas maiores
+ * são divididas em blocos consultados separadamente.
+ *
+ * A quantidade de parâmetros é arredondada para uma das FAIXAS, repetindo o último valor
+ * (o IN ignora repetidos). Assim há no máximo cinco textos de SQL por consulta, em vez de um
+ * por tamanho de lista: menos hard parses no Oracle e menos despejos no cache de statements.
+ */
+final class ListaIn {
+
+    static final int TAMANHO_MAXIMO = 1000;
+
+    private ListaIn() {
+    }
+
+    /** Quantidades de parâmetros usadas nas listas IN */
+    private static final int[] FAIXAS = {10, 50, 100, 500, TAMANHO_MAXIMO};
+
+    /**
+     * Monta "?, ?, ..., ?" para a quantidade informada, arredondada para cima até a próxima faixa
+     */
+    static String parametros(int quantidade) {
+        int total = faixa(quantidade);
+        StringBuilder sb = new StringBuilder(total * 3);
+        for (int i = 0; i < total; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Vincula os IDs a partir do primeiro parâmetro e completa a faixa repetindo o último
+     */
+    static void vincularInts(PreparedStatement ps, List<Integer> valores) throws SQLException {
+        int total = faixa(valores.size());
+        for (int i = 0; i < total; i++) {
+            ps.setInt(i + 1, valores.get(Math.min(i, valores.size() - 1)));
+        }
+    }
+
+    /**
+     * Vincula os textos a partir do primeiro parâmetro e completa a faixa repetindo o último
+     */
+    static void vincularStrings(PreparedStatement ps, List<String> valores) throws SQLException {
+        int total = faixa(valores.size());
+        for (int i = 0; i < total; i++) {
+            ps.setString(i + 1, valores.get(Math.min(i, valores.size() - 1)));
+        }
+    }
+
+    /**
+     * Menor faixa que comporta a quantidade
+     */
+    static int faixa(int quantidade) {
+        if (quantidade <= 0) {
+            throw new IllegalArgumentException("Lista IN deve ter ao menos um parâmetro");
+        }
+        for (int faixa : FAIXAS) {
+            if (quantidade <= faixa) {
+                return faixa;
+            }
+        }
+        throw new IllegalArgumentException("Lista IN aceita no máximo " + TAMANHO_MAXIMO + " parâmetros");
+    }
+
+    /**
+     * Divide a lista em blocos de até TAMANHO_MAXIMO elementos
+     */
+    static <T> List<List<T>> blocos(List<T> valores) {
+        if (valores.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<List<T>> blocos = new ArrayList<>((valores.size() + TAMANHO_MAXIMO - 1) / TAMANHO_MAXIMO);
+        for (int inicio = 0; inicio < valores.size(); inicio += TAMANHO_MAXIMO) {
+            blocos.add(valores.subList(inicio, Math.min(inicio + TAMANHO_MAXIMO, valores.size())));
+        }
+        return blocos;
+    }
+}
@@ -1,32 +1,112 @@
 package br.com.fiap.dao;
 
+import br.com.fiap.metrics.Medido;
 import br.com.fiap.models.Medico;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.quarkus.arc.NoClassInterceptors;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import javax.sql.DataSource;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jboss.logging.Logger;
 
 /**
  * DAO para operações com médicos
  */
+@Medido
 @ApplicationScoped
 public class MedicoDao {
 
+    private static final Logger LOG = Logger.getLogger(MedicoDao.class);
+
     /**
-     * Cadastra um novo médico
+     * ORA-00001: restrição exclusiva violada (CRM duplicado, db/V024)
      */
+    private static final int ORA_RESTRICAO_EXCLUSIVA = 1;
+
     /**
-     * Cadastra um novo médico
+     * Linhas enviadas por executeBatch (e confirmadas por commit) no upsert em lote
+     */
+    private static final int TAMANHO_LOTE_UPSERT = 500;
+
+    /**
+     * Dois MERGEs simultâneos do mesmo CRM novo tentam inserir os dois e um viola a UNIQUE;
+     * repetido, ele encontra a linha e atualiza
+     */
+    private static final int TENTATIVAS_UPSERT = 2;
+
+    /**
+     * Upsert por CRM. Médico com os mesmos dados não é tocado.
+     */
+    private static final String SQL_MERGE_MEDICO =
+            "MERGE INTO TBL_HC_MEDICOS m " +
+            "USING (SELECT ? AS crm, ? AS nome, ? AS especialidade FROM DUAL) s " +
+            "ON (m.crm = s.crm) " +
+            "WHEN MATCHED THEN UPDATE SET m.nome = s.nome, m.especialidade = s.especialidade, m.versao = m.versao + 1 " +
+            "WHERE DECODE(m.nome, s.nome, 0, 1) = 1 OR DECODE(m.especialidade, s.especialidade, 0, 1) = 1 " +
+            "WHEN NOT MATCHED THEN INSERT (nome, especialidade, crm) VALUES (s.nome, s.especialidade, s.crm)";
+
+    /**
+     * O MERGE e a leitura do ID e da versão em um único bloco PL/SQL (um round trip): o Oracle
+     * não aceita RETURNING em MERGE. Versão 0 depois de uma linha afetada indica médico criado.
+     */
+    private static final String SQL_UPSERT_MEDICO =
+            "BEGIN " + SQL_MERGE_MEDICO + "; ? := SQL%ROWCOUNT; " +
+            "SELECT id_medico, versao INTO ?, ? FROM TBL_HC_MEDICOS WHERE crm = ?; END;";
+
+    /**
+     * Existência do médico, para distinguir "não encontrado" de "versão divergente"
      */
+    private static final String SQL_EXISTE_MEDICO = "SELECT 1 FROM TBL_HC_MEDICOS WHERE id_medico = ?";
+
     @Inject
     DataSource dataSource;
 
+    @Inject
+    VersoesTabelas versoes;
+
+    @ConfigProperty(name = "hc.cache.medicos.tamanho-maximo", defaultValue = "1000")
+    long tamanhoMaximoCache;
+
+    @ConfigProperty(name = "hc.cache.medicos.ttl", defaultValue = "10m")
+    Duration ttlCache;
+
+    /**
+     * Cache de médicos por ID (Caffeine, eviction W-TinyLFU limitada por tamanho e TTL)
+     */
+    private Cache<Integer, Medico> cache;
+
+    @PostConstruct
+    void iniciarCache() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximoCache)
+                .expireAfterWrite(ttlCache)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Cadastra um novo médico
+     */
     @ApplicationScoped
     public void cadastrarMedico(Medico medico) throws SQLException {
         Connection conexao = dataSource.getConnection();
@@ -49,6 +129,7 @@ public class MedicoDao {
             comandoSQL.setInt(3, medico.getCrm());
 
             int affectedRows = comandoSQL.executeUpdate();
+            versoes.incrementar(VersoesTabelas.Tabela.MEDICOS);
 
 
             if (affectedRows > 0) {
@@ -56,6 +137,7 @@ public class MedicoDao {
                 if (generatedKeys.next()) {
                     int generatedId = generatedKeys.getInt(1);
                     medico.setIdMedico(generatedId);
+                    medico.setVersao(0);
                 }
             }
 
@@ -67,7 +149,7 @@ public class MedicoDao {
                 if (comandoSQL != null) comandoSQL.close();
                 if (conexao != null) conexao.close();
             } catch (SQLException e) {
-                e.printStackTrace();
+                LOG.warn("Erro ao fechar recursos", e);
             }
         }
     }
@@ -98,10 +180,11 @@ public class MedicoDao {
 
                 medicos.add(medico);
             }
-            System.out.println("DAO.listarMedicos: Retornou " + medicos.size() + " médicos");
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("DAO.listarMedicos: Retornou %s médicos", medicos.size());
+            }
         } catch (SQLException e) {
-            System.err.println("SQLException no listarMedicos: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("SQLException no listarMedicos", e);
             throw new RuntimeException("Erro ao listar médicos: " + e.getMessage(), e);
         } finally {
             try {
@@ -109,7 +192,7 @@ public class MedicoDao {
                 if (ps != null) ps.close();
                 if (conexao != null) conexao.close();
             } catch (SQLException e) {
-                e.printStackTrace();
+                LOG.warn("Erro ao fechar recursos", e);
             }
         }
         return medicos;
@@ -118,102 +201,299 @@ public class MedicoDao {
     /**
      * Atualiza um médico existente
      */
-    public void updateMedico(Medico medico) throws SQLException {
-        Connection conexao = dataSource.getConnection();
-        if (conexao == null) {
-            throw new RuntimeException("Falha ao obter conexão no updateMedico");
+    public void updateMedico(Medico medico) {
+        if (atualizarMedico(medico, null) == ResultadoEscrita.NAO_ENCONTRADA) {
+            throw new RuntimeException("Nenhum médico atualizado (ID não encontrado): " + medico.getIdMedico());
         }
-        PreparedStatement ps = null;
-        try {
-            String sql = "UPDATE TBL_HC_MEDICOS SET nome = ?, especialidade = ?, crm = ? WHERE id_medico = ?";
-            ps = conexao.prepareStatement(sql);
-            ps.setString(1, medico.getNome());
-            ps.setString(2, medico.getEspecialidade());
-            ps.setInt(3, medico.getCrm());
-            ps.setInt(4, medico.getIdMedico());
+    }
 
-            int rowsAffected = ps.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new RuntimeException("Nenhum médico atualizado (ID não encontrado): " + medico.getIdMedico());
+    /**
+     * Atualiza um médico em um único UPDATE, que incrementa a versão e a devolve (RETURNING)
+     * @param versaoEsperada versão lida pelo cliente (If-Match), ou null para atualizar em qualquer versão
+     */
+    public ResultadoEscrita atualizarMedico(Medico medico, Integer versaoEsperada) {
+        String sql = "BEGIN UPDATE TBL_HC_MEDICOS SET nome = ?, especialidade = ?, crm = ?, versao = versao + 1 WHERE id_medico = ?"
+                + (versaoEsperada != null ? " AND versao = ?" : "")
+                + " RETURNING versao INTO ?; ? := SQL%ROWCOUNT; END;";
+
+        try (Connection conexao = dataSource.getConnection();
+             CallableStatement cs = conexao.prepareCall(sql)) {
+
+            cs.setString(1, medico.getNome());
+            cs.setString(2, medico.getEspecialidade());
+            cs.setInt(3, medico.getCrm());
+            cs.setInt(4, medico.getIdMedico());
+            int saida = 5;
+            if (versaoEsperada != null) {
+                cs.setInt(saida++, versaoEsperada);
             }
+            cs.registerOutParameter(saida, Types.INTEGER);
+            cs.registerOutParameter(saida + 1, Types.INTEGER);
+
+            cs.execute();
+            invalidarCache(medico.getIdMedico());
+            versoes.incrementar(VersoesTabelas.Tabela.MEDICOS);
+            if (cs.getInt(saida + 1) == 0) {
+                return ResultadoEscrita.semLinhasAfetadas(conexao, SQL_EXISTE_MEDICO, medico.getIdMedico(), versaoEsperada);
+            }
+
+            medico.setVersao(cs.getInt(saida));
+            return ResultadoEscrita.APLICADA;
+
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao atualizar médico: " + medico.getIdMedico(), e);
-        } finally {
-            try {
-                if (ps != null) ps.close();
-                if (conexao != null) conexao.close();
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
         }
     }
 
     /**
      * Exclui um médico por ID
      */
-    public void excluirMedico(int id) throws SQLException {
-        Connection conexao = dataSource.getConnection();
-        if (conexao == null) {
-            throw new RuntimeException("Falha ao obter conexão no excluirMedico");
+    public void excluirMedico(int id) {
+        if (excluirMedico(id, null) == ResultadoEscrita.NAO_ENCONTRADA) {
+            throw new RuntimeException("Nenhum médico excluído (ID não encontrado): " + id);
         }
-        PreparedStatement ps = null;
-        try {
-            ps = conexao.prepareStatement("DELETE FROM TBL_HC_MEDICOS WHERE id_medico = ?");
+    }
+
+    /**
+     * Exclui um médico em um único DELETE
+     * @param versaoEsperada versão lida pelo cliente (If-Match), ou null para excluir em qualquer versão
+     */
+    public ResultadoEscrita excluirMedico(int id, Integer versaoEsperada) {
+        String sql = "DELETE FROM TBL_HC_MEDICOS WHERE id_medico = ?"
+                + (versaoEsperada != null ? " AND versao = ?" : "");
+
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement(sql)) {
+
             ps.setInt(1, id);
+            if (versaoEsperada != null) {
+                ps.setInt(2, versaoEsperada);
+            }
+
             int rowsAffected = ps.executeUpdate();
+            invalidarCache(id);
+            versoes.incrementar(VersoesTabelas.Tabela.MEDICOS);
             if (rowsAffected == 0) {
-                throw new RuntimeException("Nenhum médico excluído (ID não encontrado): " + id);
+                return ResultadoEscrita.semLinhasAfetadas(conexao, SQL_EXISTE_MEDICO, id, versaoEsperada);
             }
+            return ResultadoEscrita.APLICADA;
+
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao excluir médico: " + id, e);
-        } finally {
-            try {
-                if (ps != null) ps.close();
-                if (conexao != null) conexao.close();
+        }
+    }
+
+    /**
+     * Cadastra ou atualiza o médico pelo CRM em um único MERGE. O ID resultante é atribuído ao médico.
+     */
+    public ResultadoUpsert upsertMedico(Medico medico) {
+        for (int tentativa = 1; ; tentativa++) {
+            try (Connection conexao = dataSource.getConnection();
+                 CallableStatement cs = conexao.prepareCall(SQL_UPSERT_MEDICO)) {
+
+                cs.setInt(1, medico.getCrm());
+                cs.setString(2, medico.getNome());
+                cs.setString(3, medico.getEspecialidade());
+                cs.registerOutParameter(4, Types.INTEGER);
+                cs.registerOutParameter(5, Types.INTEGER);
+                cs.registerOutParameter(6, Types.INTEGER);
+                cs.setInt(7, medico.getCrm());
+                cs.execute();
+
+                medico.setIdMedico(cs.getInt(5));
+                medico.setVersao(cs.getInt(6));
+                ResultadoUpsert resultado = ResultadoUpsert.porVersao(cs.getInt(4), medico.getVersao());
+                if (resultado != ResultadoUpsert.INALTERADO) {
+                    versoes.incrementar(VersoesTabelas.Tabela.MEDICOS);
+                    invalidarCache(medico.getIdMedico());
+                }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debugf("Upsert de médico por CRM: ID=%s, resultado=%s", medico.getIdMedico(), resultado);
+                }
+                return resultado;
+
             } catch (SQLException e) {
-                e.printStackTrace();
+                if (e.getErrorCode() == ORA_RESTRICAO_EXCLUSIVA && tentativa < TENTATIVAS_UPSERT) {
+                    continue;
+                }
+                throw new RuntimeException("Erro ao gravar médico por CRM: " + medico.getCrm(), e);
             }
         }
     }
 
     /**
-     * Busca médico por ID
+     * Upsert por CRM de muitos médicos: MERGE em JDBC batch, com commit a cada bloco de
+     * TAMANHO_LOTE_UPSERT. O MERGE é idempotente, então um lote interrompido pode ser reenviado
+     * inteiro. Os CRMs já existentes de cada bloco são lidos com uma única consulta antes do
+     * MERGE, só para a contagem de criados; o cache de médicos é esvaziado se algo mudou.
+     * @param medicos CRMs sem repetição
+     * @return quantidade de médicos por resultado
      */
-    public Medico buscarPorIdMedico(int id) throws SQLException {
-        Connection conexao = dataSource.getConnection();
-        if (conexao == null) {
-            throw new RuntimeException("Falha ao obter conexão no buscarPorIdMedico");
+    public Map<ResultadoUpsert, Integer> upsertMedicosEmLote(List<Medico> medicos) {
+        EnumMap<ResultadoUpsert, Integer> totais = ResultadoUpsert.contadores();
+        if (medicos == null || medicos.isEmpty()) {
+            return totais;
         }
-        PreparedStatement ps = null;
-        ResultSet rs = null;
-        Medico medico = null;
 
-        try {
-            String sql = "SELECT id_medico, nome, especialidade, crm FROM TBL_HC_MEDICOS WHERE id_medico = ?";
+        try (Connection conexao = dataSource.getConnection()) {
+            boolean autoCommitOriginal = conexao.getAutoCommit();
+            conexao.setAutoCommit(false);
 
-            ps = conexao.prepareStatement(sql);
-            ps.setInt(1, id);
-            rs = ps.executeQuery();
+            try (PreparedStatement merge = conexao.prepareStatement(SQL_MERGE_MEDICO)) {
+                for (int inicio = 0; inicio < medicos.size(); inicio += TAMANHO_LOTE_UPSERT) {
+                    List<Medico> bloco = medicos.subList(inicio,
+                            Math.min(inicio + TAMANHO_LOTE_UPSERT, medicos.size()));
 
-            if (rs.next()) {
-                medico = new Medico();
-                medico.setIdMedico(rs.getInt("id_medico"));
-                medico.setNome(rs.getString("nome"));
-                medico.setEspecialidade(rs.getString("especialidade"));
-                medico.setCrm(rs.getInt("crm"));
+                    boolean alterou = false;
+                    for (ResultadoUpsert resultado : mesclarBloco(conexao, merge, bloco)) {
+                        totais.merge(resultado, 1, Integer::sum);
+                        alterou |= resultado != ResultadoUpsert.INALTERADO;
+                    }
+                    if (alterou) {
+                        versoes.incrementar(VersoesTabelas.Tabela.MEDICOS);
+                        cache.invalidateAll();
+                    }
+                }
+            } finally {
+                conexao.setAutoCommit(autoCommitOriginal);
+            }
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Upsert em lote de médicos: %s", totais);
             }
+            return totais;
+
         } catch (SQLException e) {
-            throw new RuntimeException("Erro ao buscar médico por ID: " + id, e);
-        } finally {
+            throw new RuntimeException("Erro ao gravar lote de médicos por CRM", e);
+        }
+    }
+
+    /**
+     * Executa o MERGE de um bloco e confirma. Com CRM novo inserido ao mesmo tempo por outra
+     * transação (ORA-00001) o bloco é desfeito e repetido.
+     * @return resultado de cada médico, na ordem do bloco
+     */
+    private static List<ResultadoUpsert> mesclarBloco(Connection conexao, PreparedStatement merge, List<Medico> bloco)
+            throws SQLException {
+        for (int tentativa = 1; ; tentativa++) {
             try {
-                if (rs != null) rs.close();
-                if (ps != null) ps.close();
-                if (conexao != null) conexao.close();
+                Set<Integer> existentes = buscarCrmsExistentes(conexao, bloco);
+                for (Medico medico : bloco) {
+                    merge.setInt(1, medico.getCrm());
+                    merge.setString(2, medico.getNome());
+                    merge.setString(3, medico.getEspecialidade());
+                    merge.addBatch();
+                }
+                int[] linhas = merge.executeBatch();
+                conexao.commit();
+
+                // SUCCESS_NO_INFO (-2) conta como alterado
+                List<ResultadoUpsert> resultados = new ArrayList<>(bloco.size());
+                for (int i = 0; i < linhas.length; i++) {
+                    resultados.add(ResultadoUpsert.porExistencia(linhas[i],
+                            existentes.contains(bloco.get(i).getCrm())));
+                }
+                return resultados;
+
             } catch (SQLException e) {
-                e.printStackTrace();
+                merge.clearBatch();
+                conexao.rollback();
+                if (e.getErrorCode() == ORA_RESTRICAO_EXCLUSIVA && tentativa < TENTATIVAS_UPSERT) {
+                    continue;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * CRMs do bloco (até 1000) que já existem, lidos na conexão (e transação) informada
+     */
+    private static Set<Integer> buscarCrmsExistentes(Connection conexao, List<Medico> medicos) throws SQLException {
+        Set<Integer> existentes = new HashSet<>();
+        List<Integer> crms = new ArrayList<>(medicos.size());
+        for (Medico medico : medicos) {
+            crms.add(medico.getCrm());
+        }
+        String sql = "SELECT crm FROM TBL_HC_MEDICOS WHERE crm IN (" + ListaIn.parametros(crms.size()) + ")";
+        try (PreparedStatement ps = conexao.prepareStatement(sql)) {
+            ListaIn.vincularInts(ps, crms);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    existentes.add(rs.getInt(1));
+                }
+            }
+        }
+        return existentes;
+    }
+
+    /**
+     * Busca médico por ID (read-through no cache de médicos).
+     * Médicos inexistentes não são mantidos em cache.
+     */
+    public Medico buscarPorIdMedico(int id) throws SQLException {
+        Medico medico = cache.get(id, this::carregarMedico);
+        return medico == null ? null : copiar(medico);
+    }
+
+    /**
+     * Remove um médico do cache, forçando nova leitura do banco na próxima busca
+     */
+    @NoClassInterceptors
+    public void invalidarCache(int id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Estatísticas acumuladas do cache de médicos (acertos, faltas e remoções)
+     */
+    @NoClassInterceptors
+    public CacheStats estatisticasCache() {
+        return cache.stats();
+    }
+
+    /**
+     * Quantidade aproximada de médicos em cache
+     */
+    @NoClassInterceptors
+    public long tamanhoCache() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Carrega médico do banco para o cache
+     */
+    private Medico carregarMedico(int id) {
+        String sql = "SELECT id_medico, nome, especialidade, crm, versao FROM TBL_HC_MEDICOS WHERE id_medico = ?";
+
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement(sql)) {
+
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    Medico medico = new Medico();
+                    medico.setIdMedico(rs.getInt("id_medico"));
+                    medico.setNome(rs.getString("nome"));
+                    medico.setEspecialidade(rs.getString("especialidade"));
+                    medico.setCrm(rs.getInt("crm"));
+                    medico.setVersao(rs.getInt("versao"));
+                    return medico;
+                }
             }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar médico por ID: " + id, e);
         }
-        return medico;
+        return null;
+    }
+
+    /**
+     * Cópia defensiva para que alterações do chamador não contaminem o cache
+     */
+    private static Medico copiar(Medico medico) {
+        Medico copia = new Medico(medico.getIdMedico(), medico.getNome(), medico.getEspecialidade(), medico.getCrm());
+        copia.setVersao(medico.getVersao());
+        return copia;
     }
 
     /**
@@ -250,9 +530,84 @@ public class MedicoDao {
                 if (ps != null) ps.close();
                 if (conexao != null) conexao.close();
             } catch (SQLException e) {
-                e.printStackTrace();
+                LOG.warn("Erro ao fechar recursos", e);
+            }
+        }
+        return medicos;
+    }
+
+    /**
+     * Retorna quais dos IDs informados existem em TBL_HC_MEDICOS, com uma consulta por bloco de até 1000 IDs
+     */
+    public Set<Integer> buscarIdsExistentes(Collection<Integer> ids) {
+        Set<Integer> existentes = new HashSet<>();
+        if (ids == null || ids.isEmpty()) {
+            return existentes;
+        }
+
+        for (List<Integer> bloco : ListaIn.blocos(new ArrayList<>(new HashSet<>(ids)))) {
+            String sql = "SELECT id_medico FROM TBL_HC_MEDICOS WHERE id_medico IN (" + ListaIn.parametros(bloco.size()) + ")";
+
+            try (Connection conexao = dataSource.getConnection();
+                 PreparedStatement ps = conexao.prepareStatement(sql)) {
+
+                ListaIn.vincularInts(ps, bloco);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        existentes.add(rs.getInt(1));
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao verificar médicos existentes", e);
+            }
+        }
+        return existentes;
+    }
+
+    /**
+     * Busca vários médicos por ID. Os que estão em cache saem dele; os demais são lidos
+     * com uma consulta por bloco de até 1000 IDs e passam a ficar em cache.
+     * IDs inexistentes ficam fora do mapa.
+     */
+    public Map<Integer, Medico> buscarPorIds(Collection<Integer> ids) {
+        Map<Integer, Medico> medicos = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return medicos;
+        }
+        cache.getAll(ids, this::carregarMedicos).forEach((id, medico) -> medicos.put(id, copiar(medico)));
+        return medicos;
+    }
+
+    /**
+     * Carrega do banco os médicos que faltaram no cache
+     */
+    private Map<Integer, Medico> carregarMedicos(Set<? extends Integer> ids) {
+        Map<Integer, Medico> medicos = new HashMap<>();
+
+        for (List<Integer> bloco : ListaIn.blocos(new ArrayList<Integer>(ids))) {
+            String sql = "SELECT id_medico, nome, especialidade, crm, versao FROM TBL_HC_MEDICOS WHERE id_medico IN (" + ListaIn.parametros(bloco.size()) + ")";
+
+            try (Connection conexao = dataSource.getConnection();
+                 PreparedStatement ps = conexao.prepareStatement(sql)) {
+
+                ListaIn.vincularInts(ps, bloco);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Medico medico = new Medico();
+                        medico.setIdMedico(rs.getInt("id_medico"));
+                        medico.setNome(rs.getString("nome"));
+                        medico.setEspecialidade(rs.getString("especialidade"));
+                        medico.setCrm(rs.getInt("crm"));
+                        medico.setVersao(rs.getInt("versao"));
+                        medicos.put(medico.getIdMedico(), medico);
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao buscar médicos por ID", e);
             }
         }
         return medicos;
     }
-}
\ No newline at end of file
+}
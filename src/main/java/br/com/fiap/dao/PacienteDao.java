@@ -1,28 +1,95 @@
 package br.com.fiap.dao;
 
+import br.com.fiap.metrics.Medido;
+import br.com.fiap.models.Cpf;
 import br.com.fiap.models.Paciente;
+import br.com.fiap.search.IndiceNomesPacientes;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import javax.sql.DataSource;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.jboss.logging.Logger;
+@Medido
 @ApplicationScoped
 public class PacienteDao {
 
+    private static final Logger LOG = Logger.getLogger(PacienteDao.class);
+
+    /**
+     * ORA-00001: restrição exclusiva violada (CPF duplicado)
+     */
+    private static final int ORA_RESTRICAO_EXCLUSIVA = 1;
+
+    /**
+     * Linhas buscadas por round trip na varredura de CPFs
+     */
+    private static final int FETCH_SIZE_VARREDURA = 1000;
+
+    private static final String SQL_EXISTE_PACIENTE = "SELECT 1 FROM TBL_HC_PACIENTES WHERE id_paciente = ?";
+
+    /**
+     * Linhas enviadas por executeBatch (e confirmadas por commit) no upsert em lote
+     */
+    private static final int TAMANHO_LOTE_UPSERT = 500;
+
+    /**
+     * Dois MERGEs simultâneos do mesmo CPF novo tentam inserir os dois e um viola a UNIQUE;
+     * repetido, ele encontra a linha e atualiza
+     */
+    private static final int TENTATIVAS_UPSERT = 2;
+
+    /**
+     * Upsert por CPF. Paciente com o mesmo nome não é tocado, nem a versão.
+     */
+    private static final String SQL_MERGE_PACIENTE =
+            "MERGE INTO TBL_HC_PACIENTES p " +
+            "USING (SELECT ? AS cpf_paciente, ? AS nome_paciente FROM DUAL) s " +
+            "ON (p.cpf_paciente = s.cpf_paciente) " +
+            "WHEN MATCHED THEN UPDATE SET p.nome_paciente = s.nome_paciente, p.versao = p.versao + 1 " +
+            "WHERE DECODE(p.nome_paciente, s.nome_paciente, 0, 1) = 1 " +
+            "WHEN NOT MATCHED THEN INSERT (nome_paciente, cpf_paciente) VALUES (s.nome_paciente, s.cpf_paciente)";
+
+    /**
+     * O MERGE e a leitura do ID e da versão resultantes em um único bloco PL/SQL
+     * (um round trip): o Oracle não aceita RETURNING em MERGE
+     */
+    private static final String SQL_UPSERT_PACIENTE =
+            "BEGIN " + SQL_MERGE_PACIENTE + "; ? := SQL%ROWCOUNT; " +
+            "SELECT id_paciente, versao INTO ?, ? FROM TBL_HC_PACIENTES WHERE cpf_paciente = ?; END;";
+
     /**
      * Cadastra um novo paciente (ID gerado automaticamente) - VERSÃO FINAL CORRIGIDA
      */
     @Inject
     DataSource dataSource;
 
+    @Inject
+    IndiceNomesPacientes indiceNomes;
+
+    @Inject
+    FiltroCpfPacientes filtroCpfs;
+
+    @Inject
+    VersoesTabelas versoes;
+
     public void cadastrarPaciente(Paciente paciente) {
         if (!paciente.isCpfValido()) {
-            throw new IllegalArgumentException("CPF inválido: deve ter exatamente 11 dígitos");
+            throw new IllegalArgumentException("CPF inválido: " + paciente.getCpf());
         }
 
         Connection conexao = null;
@@ -38,16 +105,16 @@ public class PacienteDao {
                     generatedColumns);
 
             String cpf = paciente.getCpf();
-            if (cpf == null || !cpf.matches("\\d{11}")) {
-                throw new IllegalArgumentException("CPF deve conter exatamente 11 dígitos numéricos: " + cpf);
-            }
 
-            System.out.println("Cadastrando paciente: Nome=" + paciente.getNome() + ", CPF=" + cpf);
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Cadastrando paciente: Nome=%s, CPF=%s", paciente.getNome(), cpf);
+            }
 
             comandoSQL.setString(1, paciente.getNome());
             comandoSQL.setString(2, cpf);
 
             int affectedRows = comandoSQL.executeUpdate();
+            versoes.incrementar(VersoesTabelas.Tabela.PACIENTES);
 
             if (affectedRows == 0) {
                 throw new SQLException("Falha ao cadastrar paciente, nenhuma linha afetada.");
@@ -59,7 +126,11 @@ public class PacienteDao {
 
                     int generatedId = generatedKeys.getInt(1);
                     paciente.setId(generatedId);
-                    System.out.println("Paciente cadastrado com sucesso. ID gerado: " + generatedId);
+                    indiceNomes.indexar(paciente);
+                    filtroCpfs.adicionar(cpf);
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debugf("Paciente cadastrado com sucesso. ID gerado: %s", generatedId);
+                    }
                 } catch (SQLException e) {
 
                     try {
@@ -67,10 +138,14 @@ public class PacienteDao {
                         if (generatedIdStr != null) {
                             int generatedId = Integer.parseInt(generatedIdStr);
                             paciente.setId(generatedId);
-                            System.out.println("Paciente cadastrado com sucesso. ID gerado (string): " + generatedId);
+                            indiceNomes.indexar(paciente);
+                            filtroCpfs.adicionar(cpf);
+                            if (LOG.isDebugEnabled()) {
+                                LOG.debugf("Paciente cadastrado com sucesso. ID gerado (string): %s", generatedId);
+                            }
                         }
                     } catch (NumberFormatException nfe) {
-                        System.err.println("Falha ao converter ID gerado: " + generatedKeys.getString(1));
+                        LOG.warnf("Falha ao converter ID gerado: %s", generatedKeys.getString(1));
                         throw new SQLException("Falha ao obter ID gerado para o paciente");
                     }
                 }
@@ -79,7 +154,10 @@ public class PacienteDao {
             }
 
         } catch (SQLException e) {
-            System.out.println("Erro SQL ao cadastrar paciente: " + e.getMessage());
+            if (e.getErrorCode() == ORA_RESTRICAO_EXCLUSIVA) {
+                throw new IllegalArgumentException("CPF já cadastrado: " + paciente.getCpf());
+            }
+            LOG.error("Erro SQL ao cadastrar paciente", e);
             throw new RuntimeException("Erro ao cadastrar paciente: " + paciente.getNome(), e);
         } finally {
 
@@ -88,8 +166,74 @@ public class PacienteDao {
                 if (comandoSQL != null) comandoSQL.close();
                 if (conexao != null) conexao.close();
             } catch (SQLException e) {
-                System.err.println("Erro ao fechar recursos: " + e.getMessage());
+                LOG.warn("Erro ao fechar recursos", e);
+            }
+        }
+    }
+
+    /**
+     * Cadastra vários pacientes em uma única transação com JDBC batch (importação).
+     * O driver Oracle não devolve chaves geradas depois de executeBatch, então os IDs são
+     * relidos pelo CPF (único) antes do commit e atribuídos depois dele; qualquer falha
+     * desfaz a chamada inteira.
+     * @throws IllegalArgumentException se algum CPF já estiver cadastrado (ORA-00001)
+     */
+    public void cadastrarPacientesEmLote(List<Paciente> pacientes) {
+        if (pacientes == null || pacientes.isEmpty()) {
+            return;
+        }
+
+        try (Connection conexao = dataSource.getConnection()) {
+            boolean autoCommitOriginal = conexao.getAutoCommit();
+            conexao.setAutoCommit(false);
+
+            Map<String, Integer> idsPorCpf = new HashMap<>();
+            try (PreparedStatement comandoSQL = conexao.prepareStatement(
+                    "INSERT INTO TBL_HC_PACIENTES(nome_paciente, cpf_paciente) VALUES (?, ?)")) {
+
+                List<String> cpfs = new ArrayList<>(pacientes.size());
+                for (Paciente paciente : pacientes) {
+                    comandoSQL.setString(1, paciente.getNome());
+                    comandoSQL.setString(2, paciente.getCpf());
+                    comandoSQL.addBatch();
+                    cpfs.add(paciente.getCpf());
+                }
+                comandoSQL.executeBatch();
+
+                for (List<String> bloco : ListaIn.blocos(cpfs)) {
+                    for (Paciente inserido : buscarPorCpfs(conexao, bloco)) {
+                        idsPorCpf.put(inserido.getCpf(), inserido.getId());
+                    }
+                }
+                if (idsPorCpf.size() != pacientes.size()) {
+                    throw new SQLException("Pacientes inseridos no lote não encontrados pelo CPF");
+                }
+
+                conexao.commit();
+            } catch (SQLException | RuntimeException e) {
+                conexao.rollback();
+                throw e;
+            } finally {
+                conexao.setAutoCommit(autoCommitOriginal);
+            }
+
+            versoes.incrementar(VersoesTabelas.Tabela.PACIENTES);
+            for (Paciente paciente : pacientes) {
+                paciente.setId(idsPorCpf.get(paciente.getCpf()));
+                paciente.setVersao(0);
+                indiceNomes.indexar(paciente);
+                filtroCpfs.adicionar(paciente.getCpf());
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Lote de pacientes inserido com sucesso. Total: %s", pacientes.size());
+            }
+
+        } catch (SQLException e) {
+            if (e.getErrorCode() == ORA_RESTRICAO_EXCLUSIVA) {
+                throw new IllegalArgumentException("CPF já cadastrado em lote de pacientes", e);
             }
+            LOG.error("Erro ao cadastrar lote de pacientes", e);
+            throw new RuntimeException("Erro ao cadastrar lote de pacientes", e);
         }
     }
 
@@ -112,10 +256,12 @@ public class PacienteDao {
                 pacientes.add(paciente);
             }
 
-            System.out.println("Listados " + pacientes.size() + " pacientes");
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Listados %s pacientes", pacientes.size());
+            }
 
         } catch (SQLException e) {
-            System.out.println("Erro ao listar pacientes: " + e.getMessage());
+            LOG.error("Erro ao listar pacientes", e);
             throw new RuntimeException("Erro ao listar pacientes", e);
         }
         return pacientes;
@@ -138,15 +284,20 @@ public class PacienteDao {
                     paciente.setId(rs.getInt("id_paciente"));
                     paciente.setNome(rs.getString("nome_paciente"));
                     paciente.setCpf(rs.getString("cpf_paciente"));
+                    paciente.setVersao(rs.getInt("versao"));
 
-                    System.out.println("Paciente encontrado: ID=" + id + ", Nome=" + paciente.getNome());
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debugf("Paciente encontrado: ID=%s, Nome=%s", id, paciente.getNome());
+                    }
                 } else {
-                    System.out.println("Paciente não encontrado com ID: " + id);
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debugf("Paciente não encontrado com ID: %s", id);
+                    }
                 }
             }
 
         } catch (SQLException e) {
-            System.out.println("Erro ao buscar paciente por ID: " + e.getMessage());
+            LOG.error("Erro ao buscar paciente por ID", e);
             throw new RuntimeException("Erro ao buscar paciente por ID: " + id, e);
         }
         return paciente;
@@ -156,36 +307,63 @@ public class PacienteDao {
      * Atualiza um paciente existente
      */
     public void updatePaciente(Paciente paciente) {
+        if (atualizarPaciente(paciente, null) == ResultadoEscrita.NAO_ENCONTRADA) {
+            throw new RuntimeException("Nenhum paciente atualizado (ID não encontrado): " + paciente.getId());
+        }
+    }
+
+    /**
+     * Atualiza um paciente em um único UPDATE, incrementando a versão da linha. O UPDATE roda em um
+     * bloco PL/SQL com RETURNING, e a versão gravada é atribuída ao paciente sem nova leitura.
+     * @param versaoEsperada versão lida pelo cliente (If-Match), ou null para atualizar em qualquer versão
+     */
+    public ResultadoEscrita atualizarPaciente(Paciente paciente, Integer versaoEsperada) {
         if (paciente.getId() <= 0) {
             throw new IllegalArgumentException("ID do paciente deve ser positivo");
         }
         if (!paciente.isCpfValido()) {
-            throw new IllegalArgumentException("CPF inválido: deve ter exatamente 11 dígitos");
+            throw new IllegalArgumentException("CPF inválido: " + paciente.getCpf());
         }
 
+        String sql = "BEGIN UPDATE TBL_HC_PACIENTES SET nome_paciente = ?, cpf_paciente = ?, versao = versao + 1 WHERE id_paciente = ?"
+                + (versaoEsperada != null ? " AND versao = ?" : "")
+                + " RETURNING versao INTO ?; ? := SQL%ROWCOUNT; END;";
+
         try (Connection conexao = dataSource.getConnection();
-             PreparedStatement ps = conexao.prepareStatement(
-                     "UPDATE TBL_HC_PACIENTES SET nome_paciente = ?, cpf_paciente = ? WHERE id_paciente = ?")) {
+             CallableStatement cs = conexao.prepareCall(sql)) {
 
 
             String cpf = paciente.getCpf();
-            if (cpf == null || !cpf.matches("\\d{11}")) {
-                throw new IllegalArgumentException("CPF deve conter exatamente 11 dígitos numéricos: " + cpf);
+
+            cs.setString(1, paciente.getNome());
+            cs.setString(2, cpf);
+            cs.setInt(3, paciente.getId());
+            int saida = 4;
+            if (versaoEsperada != null) {
+                cs.setInt(saida++, versaoEsperada);
             }
+            cs.registerOutParameter(saida, Types.INTEGER);
+            cs.registerOutParameter(saida + 1, Types.INTEGER);
 
-            ps.setString(1, paciente.getNome());
-            ps.setString(2, cpf);
-            ps.setInt(3, paciente.getId());
+            cs.execute();
+            versoes.incrementar(VersoesTabelas.Tabela.PACIENTES);
+            if (cs.getInt(saida + 1) == 0) {
+                return ResultadoEscrita.semLinhasAfetadas(conexao, SQL_EXISTE_PACIENTE, paciente.getId(), versaoEsperada);
+            }
 
-            int rowsAffected = ps.executeUpdate();
-            if (rowsAffected > 0) {
-                System.out.println("Paciente atualizado com sucesso. ID: " + paciente.getId());
-            } else {
-                throw new RuntimeException("Nenhum paciente atualizado (ID não encontrado): " + paciente.getId());
+            paciente.setVersao(cs.getInt(saida));
+            indiceNomes.indexar(paciente);
+            filtroCpfs.adicionar(cpf);
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Paciente atualizado com sucesso. ID: %s, versão: %s", paciente.getId(), paciente.getVersao());
             }
+            return ResultadoEscrita.APLICADA;
 
         } catch (SQLException e) {
-            System.out.println("Erro ao atualizar paciente: " + e.getMessage());
+            if (e.getErrorCode() == ORA_RESTRICAO_EXCLUSIVA) {
+                throw new IllegalArgumentException("CPF já cadastrado para outro paciente: " + paciente.getCpf());
+            }
+            LOG.error("Erro ao atualizar paciente", e);
             throw new RuntimeException("Erro ao atualizar paciente: " + paciente.getId(), e);
         }
     }
@@ -194,38 +372,220 @@ public class PacienteDao {
      * Exclui um paciente por ID
      */
     public void excluirPaciente(int id) {
+        if (excluirPaciente(id, null) == ResultadoEscrita.NAO_ENCONTRADA) {
+            throw new RuntimeException("Nenhum paciente excluído (ID não encontrado): " + id);
+        }
+    }
+
+    /**
+     * Exclui um paciente em um único DELETE
+     * @param versaoEsperada versão lida pelo cliente (If-Match), ou null para excluir em qualquer versão
+     */
+    public ResultadoEscrita excluirPaciente(int id, Integer versaoEsperada) {
         if (id <= 0) {
             throw new IllegalArgumentException("ID do paciente deve ser positivo");
         }
 
+        String sql = "DELETE FROM TBL_HC_PACIENTES WHERE id_paciente = ?"
+                + (versaoEsperada != null ? " AND versao = ?" : "");
+
         try (Connection conexao =dataSource.getConnection();
-             PreparedStatement ps = conexao.prepareStatement("DELETE FROM TBL_HC_PACIENTES WHERE id_paciente = ?")) {
+             PreparedStatement ps = conexao.prepareStatement(sql)) {
 
             ps.setInt(1, id);
+            if (versaoEsperada != null) {
+                ps.setInt(2, versaoEsperada);
+            }
 
             int rowsAffected = ps.executeUpdate();
-            if (rowsAffected > 0) {
-                System.out.println("Paciente excluído com sucesso. ID: " + id);
-            } else {
-                throw new RuntimeException("Nenhum paciente excluído (ID não encontrado): " + id);
+            versoes.incrementar(VersoesTabelas.Tabela.PACIENTES);
+            if (rowsAffected == 0) {
+                return ResultadoEscrita.semLinhasAfetadas(conexao, SQL_EXISTE_PACIENTE, id, versaoEsperada);
             }
 
+            indiceNomes.remover(id);
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Paciente excluído com sucesso. ID: %s", id);
+            }
+            return ResultadoEscrita.APLICADA;
+
         } catch (SQLException e) {
-            System.out.println("Erro ao excluir paciente: " + e.getMessage());
+            LOG.error("Erro ao excluir paciente", e);
             throw new RuntimeException("Erro ao excluir paciente: " + id, e);
         }
     }
 
     /**
-     * Busca paciente por CPF
+     * Cadastra ou atualiza o paciente pelo CPF em um único MERGE, sem leitura prévia.
+     * O ID e a versão resultantes são atribuídos ao paciente.
      */
-    public Paciente buscarPorCpf(String cpf) {
-        if (cpf == null || cpf.trim().isEmpty() || cpf.length() != 11) {
-            throw new IllegalArgumentException("CPF inválido");
+    public ResultadoUpsert upsertPaciente(Paciente paciente) {
+        if (!paciente.isCpfValido()) {
+            throw new IllegalArgumentException("CPF inválido: " + paciente.getCpf());
         }
 
-        if (!cpf.matches("\\d{11}")) {
-            throw new IllegalArgumentException("CPF deve conter apenas números: " + cpf);
+        for (int tentativa = 1; ; tentativa++) {
+            try (Connection conexao = dataSource.getConnection();
+                 CallableStatement cs = conexao.prepareCall(SQL_UPSERT_PACIENTE)) {
+
+                cs.setString(1, paciente.getCpf());
+                cs.setString(2, paciente.getNome());
+                cs.registerOutParameter(3, Types.INTEGER);
+                cs.registerOutParameter(4, Types.INTEGER);
+                cs.registerOutParameter(5, Types.INTEGER);
+                cs.setString(6, paciente.getCpf());
+                cs.execute();
+
+                paciente.setId(cs.getInt(4));
+                paciente.setVersao(cs.getInt(5));
+                ResultadoUpsert resultado = ResultadoUpsert.porVersao(cs.getInt(3), paciente.getVersao());
+                if (resultado != ResultadoUpsert.INALTERADO) {
+                    versoes.incrementar(VersoesTabelas.Tabela.PACIENTES);
+                    indiceNomes.indexar(paciente);
+                    filtroCpfs.adicionar(paciente.getCpf());
+                }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debugf("Upsert de paciente por CPF: ID=%s, resultado=%s", paciente.getId(), resultado);
+                }
+                return resultado;
+
+            } catch (SQLException e) {
+                if (e.getErrorCode() == ORA_RESTRICAO_EXCLUSIVA && tentativa < TENTATIVAS_UPSERT) {
+                    continue;
+                }
+                LOG.error("Erro ao gravar paciente por CPF", e);
+                throw new RuntimeException("Erro ao gravar paciente por CPF: " + paciente.getCpf(), e);
+            }
+        }
+    }
+
+    /**
+     * Upsert por CPF de muitos pacientes: MERGE em JDBC batch, com commit a cada bloco de
+     * TAMANHO_LOTE_UPSERT. O MERGE é idempotente, então um lote interrompido pode ser reenviado
+     * inteiro. Os pacientes alterados de cada bloco são relidos com uma única consulta para
+     * obter ID e versão (índice de nomes e contagem de criados).
+     * @param pacientes CPFs sem repetição
+     * @return quantidade de pacientes por resultado
+     */
+    public Map<ResultadoUpsert, Integer> upsertPacientesEmLote(List<Paciente> pacientes) {
+        EnumMap<ResultadoUpsert, Integer> totais = ResultadoUpsert.contadores();
+        if (pacientes == null || pacientes.isEmpty()) {
+            return totais;
+        }
+        for (Paciente paciente : pacientes) {
+            if (!paciente.isCpfValido()) {
+                throw new IllegalArgumentException("CPF inválido: " + paciente.getCpf());
+            }
+        }
+
+        try (Connection conexao = dataSource.getConnection()) {
+            boolean autoCommitOriginal = conexao.getAutoCommit();
+            conexao.setAutoCommit(false);
+
+            try (PreparedStatement merge = conexao.prepareStatement(SQL_MERGE_PACIENTE)) {
+                for (int inicio = 0; inicio < pacientes.size(); inicio += TAMANHO_LOTE_UPSERT) {
+                    List<Paciente> bloco = pacientes.subList(inicio,
+                            Math.min(inicio + TAMANHO_LOTE_UPSERT, pacientes.size()));
+
+                    List<Paciente> alterados = mesclarBloco(conexao, merge, bloco);
+                    totais.merge(ResultadoUpsert.INALTERADO, bloco.size() - alterados.size(), Integer::sum);
+                    if (alterados.isEmpty()) {
+                        continue;
+                    }
+
+                    versoes.incrementar(VersoesTabelas.Tabela.PACIENTES);
+                    for (Paciente paciente : alterados) {
+                        totais.merge(ResultadoUpsert.porVersao(1, paciente.getVersao()), 1, Integer::sum);
+                        indiceNomes.indexar(paciente);
+                        filtroCpfs.adicionar(paciente.getCpf());
+                    }
+                }
+            } finally {
+                conexao.setAutoCommit(autoCommitOriginal);
+            }
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Upsert em lote de pacientes: %s", totais);
+            }
+            return totais;
+
+        } catch (SQLException e) {
+            LOG.error("Erro ao gravar lote de pacientes por CPF", e);
+            throw new RuntimeException("Erro ao gravar lote de pacientes por CPF", e);
+        }
+    }
+
+    /**
+     * Executa o MERGE de um bloco e confirma. Com CPF novo inserido ao mesmo tempo por outra
+     * transação (ORA-00001) o bloco é desfeito e repetido.
+     * @return pacientes que o MERGE inseriu ou atualizou, com ID e versão atuais
+     */
+    private List<Paciente> mesclarBloco(Connection conexao, PreparedStatement merge, List<Paciente> bloco)
+            throws SQLException {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                for (Paciente paciente : bloco) {
+                    merge.setString(1, paciente.getCpf());
+                    merge.setString(2, paciente.getNome());
+                    merge.addBatch();
+                }
+                int[] linhas = merge.executeBatch();
+
+                // SUCCESS_NO_INFO (-2) conta como alterado: a releitura decide
+                List<String> cpfsAlterados = new ArrayList<>();
+                for (int i = 0; i < linhas.length; i++) {
+                    if (linhas[i] != 0) {
+                        cpfsAlterados.add(bloco.get(i).getCpf());
+                    }
+                }
+                List<Paciente> alterados = buscarPorCpfs(conexao, cpfsAlterados);
+                conexao.commit();
+                return alterados;
+
+            } catch (SQLException e) {
+                merge.clearBatch();
+                conexao.rollback();
+                if (e.getErrorCode() == ORA_RESTRICAO_EXCLUSIVA && tentativa < TENTATIVAS_UPSERT) {
+                    continue;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Lê ID, nome, CPF e versão de até 1000 CPFs na conexão (e transação) informada
+     */
+    private static List<Paciente> buscarPorCpfs(Connection conexao, List<String> cpfs) throws SQLException {
+        List<Paciente> pacientes = new ArrayList<>(cpfs.size());
+        if (cpfs.isEmpty()) {
+            return pacientes;
+        }
+
+        String sql = "SELECT id_paciente, nome_paciente, cpf_paciente, versao FROM TBL_HC_PACIENTES " +
+                "WHERE cpf_paciente IN (" + ListaIn.parametros(cpfs.size()) + ")";
+        try (PreparedStatement ps = conexao.prepareStatement(sql)) {
+            ListaIn.vincularStrings(ps, cpfs);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Paciente paciente = new Paciente();
+                    paciente.setId(rs.getInt("id_paciente"));
+                    paciente.setNome(rs.getString("nome_paciente"));
+                    paciente.setCpf(rs.getString("cpf_paciente"));
+                    paciente.setVersao(rs.getInt("versao"));
+                    pacientes.add(paciente);
+                }
+            }
+        }
+        return pacientes;
+    }
+
+    /**
+     * Busca paciente por CPF
+     */
+    public Paciente buscarPorCpf(String cpf) {
+        if (!Cpf.isFormatoValido(cpf)) {
+            throw new IllegalArgumentException("CPF deve conter exatamente 11 dígitos numéricos: " + cpf);
         }
 
         Paciente paciente = null;
@@ -243,15 +603,134 @@ public class PacienteDao {
                     paciente.setNome(rs.getString("nome_paciente"));
                     paciente.setCpf(rs.getString("cpf_paciente"));
 
-                    System.out.println("Paciente encontrado por CPF: " + cpf);
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debugf("Paciente encontrado por CPF: %s", cpf);
+                    }
                 }
             }
 
         } catch (SQLException e) {
-            System.out.println("Erro ao buscar paciente por CPF: " + e.getMessage());
+            LOG.error("Erro ao buscar paciente por CPF", e);
             throw new RuntimeException("Erro ao buscar paciente por CPF: " + cpf, e);
         }
         return paciente;
     }
-}
 
+    /**
+     * Percorre todos os CPFs cadastrados sem materializar a tabela em memória
+     * @param consumidor recebe cada CPF lido
+     * @return quantidade de CPFs lidos
+     */
+    public long percorrerCpfs(Consumer<String> consumidor) {
+        long total = 0;
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement ps = conexao.prepareStatement(
+                     "SELECT cpf_paciente FROM TBL_HC_PACIENTES",
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            ps.setFetchSize(FETCH_SIZE_VARREDURA);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(rs.getString(1));
+                    total++;
+                }
+            }
+            return total;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao percorrer CPFs de pacientes", e);
+        }
+    }
+
+    /**
+     * Retorna quais dos CPFs informados já estão cadastrados, com uma consulta por bloco de até 1000 CPFs
+     */
+    public Set<String> buscarCpfsExistentes(Collection<String> cpfs) {
+        Set<String> existentes = new HashSet<>();
+        if (cpfs == null || cpfs.isEmpty()) {
+            return existentes;
+        }
+
+        for (List<String> bloco : ListaIn.blocos(new ArrayList<>(new HashSet<>(cpfs)))) {
+            String sql = "SELECT cpf_paciente FROM TBL_HC_PACIENTES WHERE cpf_paciente IN (" + ListaIn.parametros(bloco.size()) + ")";
+
+            try (Connection conexao = dataSource.getConnection();
+                 PreparedStatement ps = conexao.prepareStatement(sql)) {
+
+                ListaIn.vincularStrings(ps, bloco);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        existentes.add(rs.getString(1));
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao verificar CPFs existentes", e);
+            }
+        }
+        return existentes;
+    }
+
+    /**
+     * Retorna quais dos IDs informados existem em TBL_HC_PACIENTES, com uma consulta por bloco de até 1000 IDs
+     */
+    public Set<Integer> buscarIdsExistentes(Collection<Integer> ids) {
+        Set<Integer> existentes = new HashSet<>();
+        if (ids == null || ids.isEmpty()) {
+            return existentes;
+        }
+
+        for (List<Integer> bloco : ListaIn.blocos(new ArrayList<>(new HashSet<>(ids)))) {
+            String sql = "SELECT id_paciente FROM TBL_HC_PACIENTES WHERE id_paciente IN (" + ListaIn.parametros(bloco.size()) + ")";
+
+            try (Connection conexao = dataSource.getConnection();
+                 PreparedStatement ps = conexao.prepareStatement(sql)) {
+
+                ListaIn.vincularInts(ps, bloco);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        existentes.add(rs.getInt(1));
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao verificar pacientes existentes", e);
+            }
+        }
+        return existentes;
+    }
+
+    /**
+     * Busca vários pacientes por ID, com uma consulta por bloco de até 1000 IDs.
+     * IDs inexistentes ficam fora do mapa.
+     */
+    public Map<Integer, Paciente> buscarPorIds(Collection<Integer> ids) {
+        Map<Integer, Paciente> pacientes = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return pacientes;
+        }
+
+        for (List<Integer> bloco : ListaIn.blocos(new ArrayList<>(new HashSet<>(ids)))) {
+            String sql = "SELECT id_paciente, nome_paciente, cpf_paciente FROM TBL_HC_PACIENTES WHERE id_paciente IN (" + ListaIn.parametros(bloco.size()) + ")";
+
+            try (Connection conexao = dataSource.getConnection();
+                 PreparedStatement ps = conexao.prepareStatement(sql)) {
+
+                ListaIn.vincularInts(ps, bloco);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Paciente paciente = new Paciente();
+                        paciente.setId(rs.getInt("id_paciente"));
+                        paciente.setNome(rs.getString("nome_paciente"));
+                        paciente.setCpf(rs.getString("cpf_paciente"));
+                        pacientes.put(paciente.getId(), paciente);
+                    }
+                }
+
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao buscar pacientes por ID", e);
+            }
+        }
+        return pacientes;
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.fiap.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Resultado de um UPDATE ou DELETE condicionado à versão da linha (coluna VERSAO).
+ * A escrita é um único comando "... WHERE id = ? AND versao = ?"; só quando nenhuma linha
+ * é afetada uma leitura da chave distingue linha inexistente de versão divergente.
+ */
+public enum ResultadoEscrita {
+
+    /** A linha foi alterada (ou excluída) */
+    APLICADA,
+
+    /** Não existe linha com o ID */
+    NAO_ENCONTRADA,
+
+    /** A linha existe, mas está em outra versão: alguém a alterou depois da leitura do cliente */
+    VERSAO_DIVERGENTE;
+
+    /**
+     * Classifica uma escrita sem linhas afetadas. Só é executado no caminho de erro.
+     * @param sqlExistencia "SELECT 1 FROM tabela WHERE id = ?"
+     * @param versaoEsperada versão exigida pela escrita, ou null se ela era incondicional
+     */
+    static ResultadoEscrita semLinhasAfetadas(Connection conexao, String sqlExistencia, int id,
+                                              Integer versaoEsperada) throws SQLException {
+        if (versaoEsperada == null) {
+            return NAO_ENCONTRADA;
+        }
+        try (PreparedStatement ps = conexao.prepareStatement(sqlExistencia)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? VERSAO_DIVERGENTE : NAO_ENCONTRADA;
+            }
+        }
+    }
+}
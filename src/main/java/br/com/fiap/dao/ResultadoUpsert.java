@@ -0,0 +1,51 @@
+package br.com.fiap.dao;
+
+import java.util.EnumMap;
+
+/**
+ * Resultado de um upsert (MERGE por chave natural: CPF do paciente, CRM do médico).
+ * O MERGE só atualiza linhas cujos dados mudaram, então reenviar o mesmo cadastro é INALTERADO.
+ */
+public enum ResultadoUpsert {
+
+    /** A linha não existia e foi inserida */
+    CRIADO,
+
+    /** A linha existia e teve dados alterados */
+    ATUALIZADO,
+
+    /** A linha existia com os mesmos dados; nada foi escrito */
+    INALTERADO;
+
+    /**
+     * Classifica pelo número de linhas do MERGE e pela versão resultante: o UPDATE do MERGE
+     * sempre incrementa a versão, então versão 0 depois de uma escrita só pode ser inserção
+     */
+    static ResultadoUpsert porVersao(int linhasAfetadas, int versao) {
+        if (linhasAfetadas == 0) {
+            return INALTERADO;
+        }
+        return versao == 0 ? CRIADO : ATUALIZADO;
+    }
+
+    /**
+     * Classifica pelo número de linhas do MERGE e pela existência da chave antes dele
+     */
+    static ResultadoUpsert porExistencia(int linhasAfetadas, boolean existia) {
+        if (linhasAfetadas == 0) {
+            return INALTERADO;
+        }
+        return existia ? ATUALIZADO : CRIADO;
+    }
+
+    /**
+     * Contadores zerados para todos os resultados, na ordem do enum
+     */
+    static EnumMap<ResultadoUpsert, Integer> contadores() {
+        EnumMap<ResultadoUpsert, Integer> totais = new EnumMap<>(ResultadoUpsert.class);
+        for (ResultadoUpsert resultado : values()) {
+            totais.put(resultado, 0);
+        }
+        return totais;
+    }
+}
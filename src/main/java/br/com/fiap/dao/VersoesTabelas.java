@@ -0,0 +1,66 @@
+package br.com.fiap.dao;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de versão por tabela, incrementados pelos métodos de escrita dos DAOs.
+ * Servem de base para os ETags dos recursos de catálogo: enquanto a versão não muda,
+ * o conteúdo da tabela também não mudou (escritas feitas por esta aplicação).
+ * Também entram na chave das leituras compartilhadas (ChamadaUnica), para que uma leitura
+ * nunca aproveite uma consulta iniciada antes de uma escrita que ela já deveria ver.
+ *
+ * Os contadores vivem em memória, por instância. A época de inicialização entra no
+ * token para que um ETag emitido antes de um restart nunca seja aceito depois dele.
+ */
+@ApplicationScoped
+public class VersoesTabelas {
+
+    public enum Tabela {
+        MEDICOS, EXAMES, PACIENTES, CONSULTAS;
+
+        /**
+         * Nome no início do token, ex.: "medicos"
+         */
+        public String nome() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final String epoca = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Tabela, AtomicLong> versoes = new EnumMap<>(Tabela.class);
+
+    public VersoesTabelas() {
+        for (Tabela tabela : Tabela.values()) {
+            versoes.put(tabela, new AtomicLong());
+        }
+    }
+
+    /**
+     * Registra uma escrita na tabela. Deve ser chamado depois do executeUpdate,
+     * mesmo que nenhuma linha tenha sido afetada (incremento a mais só custa um 200).
+     */
+    public void incrementar(Tabela tabela) {
+        versoes.get(tabela).incrementAndGet();
+    }
+
+    /**
+     * Versão atual da tabela
+     */
+    public long versao(Tabela tabela) {
+        return versoes.get(tabela).get();
+    }
+
+    /**
+     * Token opaco que identifica o estado atual da tabela, ex.: "medicos-mgx1a2b3-42".
+     * Deve ser lido antes da consulta ao banco: se uma escrita ocorrer durante a leitura,
+     * a resposta sai com o token antigo e o cliente revalida na próxima requisição.
+     */
+    public String token(Tabela tabela) {
+        return tabela.nome() + "-" + epoca + "-" + versao(tabela);
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDate;
+import java.time.LocalTime;
 
 /**
  * DTO para requisição de consulta online
@@ -17,6 +18,13 @@ public class ConsultaOnlineRequestDto {
     @JsonFormat(pattern = "dd-MMM-yyyy", locale = "pt_BR")
     private LocalDate dataConsulta;
 
+    @JsonProperty("hora_inicio")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime horaInicio;
+
+    @JsonProperty("duracao_minutos")
+    private Integer duracaoMinutos;
+
     private String status;
     private String link;
 
@@ -52,6 +60,22 @@ public class ConsultaOnlineRequestDto {
         this.dataConsulta = dataConsulta;
     }
 
+    public LocalTime getHoraInicio() {
+        return horaInicio;
+    }
+
+    public void setHoraInicio(LocalTime horaInicio) {
+        this.horaInicio = horaInicio;
+    }
+
+    public Integer getDuracaoMinutos() {
+        return duracaoMinutos;
+    }
+
+    public void setDuracaoMinutos(Integer duracaoMinutos) {
+        this.duracaoMinutos = duracaoMinutos;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -3,13 +3,17 @@ package br.com.fiap.dto;
 import br.com.fiap.models.Exame;
 import br.com.fiap.models.Medico;
 import br.com.fiap.models.Paciente;
+import br.com.fiap.models.CampoConsulta;
 import br.com.fiap.models.ConsultaOnline;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * DTO para resposta de consulta online
@@ -19,14 +23,20 @@ public class ConsultaOnlineResponseDto {
 
     private Integer idConsulta;
 
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MMM-yyyy", locale = "pt_BR")
+    @JsonSerialize(using = DataConsultaSerializer.class)
     private LocalDate dataConsulta;
 
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm")
+    private LocalTime horaInicio;
+
+    private Integer duracaoMinutos;
+
     private String status;
     private String link;
     private Exame exame;
     private Medico medico;
     private Paciente paciente;
+    private Integer versao;
 
     @JsonIgnore
     private List<Exame> listaExame = new ArrayList<>();
@@ -48,16 +58,62 @@ public class ConsultaOnlineResponseDto {
         ConsultaOnlineResponseDto dto = new ConsultaOnlineResponseDto();
         dto.setIdConsulta(consultaOnline.getIdConsulta());
         dto.setDataConsulta(consultaOnline.getDataConsulta());
+        dto.setHoraInicio(consultaOnline.getHoraInicio());
+        dto.setDuracaoMinutos(consultaOnline.getDuracaoMinutos());
         dto.setStatus(consultaOnline.getStatus());
         dto.setLink(consultaOnline.getLink());
         dto.setExame(consultaOnline.getExame());
         dto.setMedico(consultaOnline.getMedico());
         dto.setPaciente(consultaOnline.getPaciente());
         dto.setListaExame(consultaOnline.getListaExame());
+        dto.setVersao(consultaOnline.getVersao());
 
         return dto;
     }
 
+    /**
+     * Converte ConsultaOnline para DTO preenchendo só os campos da projeção;
+     * os demais ficam nulos e não aparecem no JSON (NON_NULL)
+     */
+    public static ConsultaOnlineResponseDto convertToDto(ConsultaOnline consultaOnline, Set<CampoConsulta> campos) {
+        if (consultaOnline == null || campos == CampoConsulta.TODOS) {
+            return convertToDto(consultaOnline);
+        }
+
+        ConsultaOnlineResponseDto dto = new ConsultaOnlineResponseDto();
+        if (campos.contains(CampoConsulta.ID_CONSULTA)) {
+            dto.setIdConsulta(consultaOnline.getIdConsulta());
+        }
+        if (campos.contains(CampoConsulta.DATA_CONSULTA)) {
+            dto.setDataConsulta(consultaOnline.getDataConsulta());
+        }
+        if (campos.contains(CampoConsulta.HORA_INICIO)) {
+            dto.setHoraInicio(consultaOnline.getHoraInicio());
+        }
+        if (campos.contains(CampoConsulta.DURACAO_MINUTOS)) {
+            dto.setDuracaoMinutos(consultaOnline.getDuracaoMinutos());
+        }
+        if (campos.contains(CampoConsulta.VERSAO)) {
+            dto.setVersao(consultaOnline.getVersao());
+        }
+        if (campos.contains(CampoConsulta.STATUS)) {
+            dto.setStatus(consultaOnline.getStatus());
+        }
+        if (campos.contains(CampoConsulta.LINK)) {
+            dto.setLink(consultaOnline.getLink());
+        }
+        if (campos.contains(CampoConsulta.EXAME)) {
+            dto.setExame(consultaOnline.getExame());
+        }
+        if (campos.contains(CampoConsulta.MEDICO)) {
+            dto.setMedico(consultaOnline.getMedico());
+        }
+        if (campos.contains(CampoConsulta.PACIENTE)) {
+            dto.setPaciente(consultaOnline.getPaciente());
+        }
+        return dto;
+    }
+
     /**
      * Obtém ID da consulta
      */
@@ -87,8 +143,49 @@ public class ConsultaOnlineResponseDto {
     }
 
     /**
-     * Obtém status
+     * Obtém hora de início
      */
+    public LocalTime getHoraInicio() {
+        return horaInicio;
+    }
+
+    /**
+     * Define hora de início
+     */
+    public void setHoraInicio(LocalTime horaInicio) {
+        this.horaInicio = horaInicio;
+    }
+
+    /**
+     * Obtém duração em minutos
+     */
+    public Integer getDuracaoMinutos() {
+        return duracaoMinutos;
+    }
+
+    /**
+     * Define duração em minutos
+     */
+    public void setDuracaoMinutos(Integer duracaoMinutos) {
+        this.duracaoMinutos = duracaoMinutos;
+    }
+
+    /**
+     * Obtém versão da linha, a mesma do ETag usado em If-Match
+     */
+    public Integer getVersao() {
+        return versao;
+    }
+
+    /**
+     * Define versão da linha
+     */
+    public void setVersao(Integer versao) {
+        this.versao = versao;
+    }
+
+    /**
+     * Obtém status
     public String getStatus() {
         return status;
     }
@@ -0,0 +1,71 @@
+package br.com.fiap.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco da paginação keyset de consultas online.
+ * Codifica a chave (DATA_CONSULTA, ID_CONSULTA) da última consulta de uma página.
+ */
+public class CursorConsulta {
+
+    private final LocalDate dataConsulta;
+    private final int idConsulta;
+
+    /**
+     * Construtor com parâmetros
+     */
+    public CursorConsulta(LocalDate dataConsulta, int idConsulta) {
+        this.dataConsulta = dataConsulta;
+        this.idConsulta = idConsulta;
+    }
+
+    /**
+     * Codifica o cursor em Base64 URL-safe
+     */
+    public String codificar() {
+        String chave = dataConsulta + "|" + idConsulta;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(chave.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um cursor recebido do cliente
+     */
+    public static CursorConsulta decodificar(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            throw new IllegalArgumentException("Cursor não pode ser vazio");
+        }
+        try {
+            String chave = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separador = chave.indexOf('|');
+            if (separador <= 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + token);
+            }
+            LocalDate data = LocalDate.parse(chave.substring(0, separador));
+            int id = Integer.parseInt(chave.substring(separador + 1));
+            if (id <= 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + token);
+            }
+            return new CursorConsulta(data, id);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + token);
+        }
+    }
+
+    /**
+     * Obtém data da consulta do cursor
+     */
+    public LocalDate getDataConsulta() {
+        return dataConsulta;
+    }
+
+    /**
+     * Obtém ID da consulta do cursor
+     */
+    public int getIdConsulta() {
+        return idConsulta;
+    }
+}
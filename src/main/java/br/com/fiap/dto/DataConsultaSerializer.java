@@ -0,0 +1,57 @@
+package br.com.fiap.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Serializa a data da consulta como "dd-MMM-yyyy" (ex.: "05-Jan-2024") sem passar pelo
+ * DateTimeFormatter a cada valor: dia, mês e ano são escritos direto em um char[11].
+ *
+ * Mantém exatamente o formato que o @JsonFormat(pattern = "dd-MMM-yyyy", locale = "pt_BR")
+ * produzia: o Jackson interpreta "pt_BR" como um idioma desconhecido e cai no locale raiz,
+ * então os meses sempre saíram abreviados em inglês. Anos fora de 0000-9999 usam o formatter.
+ */
+public class DataConsultaSerializer extends StdSerializer<LocalDate> {
+
+    static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("dd-MMM-yyyy", Locale.ROOT);
+
+    private static final char[][] MESES = {
+            "Jan".toCharArray(), "Feb".toCharArray(), "Mar".toCharArray(), "Apr".toCharArray(),
+            "May".toCharArray(), "Jun".toCharArray(), "Jul".toCharArray(), "Aug".toCharArray(),
+            "Sep".toCharArray(), "Oct".toCharArray(), "Nov".toCharArray(), "Dec".toCharArray()
+    };
+
+    public DataConsultaSerializer() {
+        super(LocalDate.class);
+    }
+
+    @Override
+    public void serialize(LocalDate data, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+        int ano = data.getYear();
+        if (ano < 0 || ano > 9999) {
+            gerador.writeString(FORMATO.format(data));
+            return;
+        }
+
+        char[] texto = new char[11];
+        int dia = data.getDayOfMonth();
+        texto[0] = (char) ('0' + dia / 10);
+        texto[1] = (char) ('0' + dia % 10);
+        texto[2] = '-';
+        char[] mes = MESES[data.getMonthValue() - 1];
+        texto[3] = mes[0];
+        texto[4] = mes[1];
+        texto[5] = mes[2];
+        texto[6] = '-';
+        texto[7] = (char) ('0' + ano / 1000);
+        texto[8] = (char) ('0' + ano / 100 % 10);
+        texto[9] = (char) ('0' + ano / 10 % 10);
+        texto[10] = (char) ('0' + ano % 10);
+        gerador.writeString(texto, 0, texto.length);
+    }
+}
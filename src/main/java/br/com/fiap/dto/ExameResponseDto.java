@@ -1,6 +1,7 @@
 package br.com.fiap.dto;
 
 import br.com.fiap.models.Exame;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 /**
  * DTO (Data Transfer Object) para resposta de exame
@@ -13,6 +14,9 @@ public class ExameResponseDto {
     private String resultado_exame;
     private String status_resultado;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer versao;
+
     /**
      * Converte entidade Exame para DTO de resposta
      * @param exame Entidade Exame a ser convertida
@@ -24,6 +28,7 @@ public class ExameResponseDto {
         dto.setNome_exame(exame.getNome_exame());
         dto.setResultado_exame(exame.getResultado_exame());
         dto.setStatus_resultado(exame.getStatus_resultado());
+        dto.setVersao(exame.getVersao());
         return dto;
     }
 
@@ -91,6 +96,22 @@ public class ExameResponseDto {
         this.status_resultado = status_resultado;
     }
 
+    /**
+     * Obtém versão da linha, a mesma do ETag usado em If-Match
+     * @return Versão do exame (só nas leituras por ID)
+     */
+    public Integer getVersao() {
+        return versao;
+    }
+
+    /**
+     * Define versão da linha
+     * @param versao Versão lida da coluna VERSAO
+     */
+    public void setVersao(Integer versao) {
+        this.versao = versao;
+    }
+
     /**
      * Representação em string do objeto para debugging
      * @return String formatada com todos os dados do exame
@@ -42,7 +42,9 @@ public class HistoricoConsultaResponseDto {
         dto.setObservacao(historicoConsulta.getObservacao());
 
 
-        dto.setStatusDiagnostico(dto.verificarStatusDiagnostico());
+        dto.setStatusDiagnostico(historicoConsulta.getGravidade() != null
+                ? historicoConsulta.getGravidade().getDescricao()
+                : dto.verificarStatusDiagnostico());
 
         return dto;
     }
@@ -128,7 +130,7 @@ public class HistoricoConsultaResponseDto {
     }
 
     /**
-     * Verifica o status do diagnóstico baseado no conteúdo
+     * Verifica o status do diagnóstico baseado no conteúdo (registros ainda sem gravidade gravada)
      * @return Status do diagnóstico ("Diagnóstico crítico" ou "Diagnóstico normal")
      */
     private String verificarStatusDiagnostico() {
@@ -0,0 +1,107 @@
+package br.com.fiap.dto;
+
+import br.com.fiap.models.Medico;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDateTime;
+
+/**
+ * DTO de um horário livre na agenda de um médico
+ */
+public class HorarioDisponivelDto {
+    private int id_medico;
+    private String nome;
+    private String especialidade;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime inicio;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime fim;
+
+    /**
+     * Construtor padrão
+     */
+    public HorarioDisponivelDto() {
+    }
+
+    /**
+     * Monta o horário livre de um médico com a duração pedida
+     */
+    public HorarioDisponivelDto(Medico medico, LocalDateTime inicio, int duracaoMinutos) {
+        this.id_medico = medico.getIdMedico();
+        this.nome = medico.getNome();
+        this.especialidade = medico.getEspecialidade();
+        this.inicio = inicio;
+        this.fim = inicio.plusMinutes(duracaoMinutos);
+    }
+
+    /**
+     * Obtém ID do médico
+     */
+    public int getId_medico() {
+        return id_medico;
+    }
+
+    /**
+     * Define ID do médico
+     */
+    public void setId_medico(int id_medico) {
+        this.id_medico = id_medico;
+    }
+
+    /**
+     * Obtém nome do médico
+     */
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Define nome do médico
+     */
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
+    /**
+     * Obtém especialidade do médico
+     */
+    public String getEspecialidade() {
+        return especialidade;
+    }
+
+    /**
+     * Define especialidade do médico
+     */
+    public void setEspecialidade(String especialidade) {
+        this.especialidade = especialidade;
+    }
+
+    /**
+     * Obtém início do horário
+     */
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    /**
+     * Define início do horário
+     */
+    public void setInicio(LocalDateTime inicio) {
+        this.inicio = inicio;
+    }
+
+    /**
+     * Obtém fim do horário
+     */
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    /**
+     * Define fim do horário
+     */
+    public void setFim(LocalDateTime fim) {
+        this.fim = fim;
+    }
+}
@@ -0,0 +1,23 @@
+package br.com.fiap.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.quarkus.jackson.ObjectMapperCustomizer;
+import jakarta.inject.Singleton;
+
+/**
+ * Ajustes do ObjectMapper único da aplicação (o mesmo usado pelo Quarkus REST
+ * e injetado nos recursos que escrevem JSON direto, como o export NDJSON)
+ */
+@Singleton
+public class JacksonConfig implements ObjectMapperCustomizer {
+
+    /**
+     * Blackbird troca a reflexão dos getters/setters por acessores gerados
+     * com LambdaMetafactory, que o JIT consegue inlinear
+     */
+    @Override
+    public void customize(ObjectMapper objectMapper) {
+        objectMapper.registerModule(new BlackbirdModule());
+    }
+}
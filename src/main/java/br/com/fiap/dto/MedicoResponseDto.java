@@ -1,6 +1,7 @@
 package br.com.fiap.dto;
 
 import br.com.fiap.models.Medico;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 /**
  * DTO para resposta de médico
@@ -11,6 +12,12 @@ public class MedicoResponseDto {
     private String especialidade;
     private int crm;
 
+    /**
+     * Versão da linha, a mesma do ETag usado em If-Match
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer versao;
+
     /**
      * Converte Medico para DTO
      */
@@ -20,6 +27,7 @@ public class MedicoResponseDto {
         dto.setNome(medico.getNome());
         dto.setCrm(medico.getCrm());
         dto.setEspecialidade(medico.getEspecialidade());
+        dto.setVersao(medico.getVersao());
         return dto;
     }
 
@@ -95,6 +103,20 @@ public class MedicoResponseDto {
         this.crm = crm;
     }
 
+    /**
+     * Obtém versão da linha
+     */
+    public Integer getVersao() {
+        return versao;
+    }
+
+    /**
+     * Define versão da linha
+     */
+    public void setVersao(Integer versao) {
+        this.versao = versao;
+    }
+
     /**
      * Representação em string do objeto
      */
@@ -1,5 +1,6 @@
 package br.com.fiap.dto;
 
+import br.com.fiap.models.Cpf;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.xml.bind.annotation.XmlRootElement;
 import jakarta.validation.constraints.NotNull;
@@ -85,10 +86,10 @@ public class PacienteRequestDto {
     }
 
     /**
-     * Verifica se CPF é válido
+     * Verifica se CPF é válido (11 dígitos e dígitos verificadores)
      */
     public boolean isCpfValido() {
-        return cpfPaciente != null && cpfPaciente.matches("\\d{11}");
+        return Cpf.isValido(cpfPaciente);
     }
 
     /**
@@ -107,7 +108,8 @@ public class PacienteRequestDto {
             nomePaciente = nomePaciente.trim();
         }
         if (cpfPaciente != null) {
-            cpfPaciente = cpfPaciente.trim().replaceAll("[^\\d]", "");
+            String normalizado = Cpf.normalizar(cpfPaciente);
+            cpfPaciente = normalizado != null ? normalizado : cpfPaciente.trim();
         }
     }
 
@@ -1,6 +1,7 @@
 package br.com.fiap.dto;
 
 import br.com.fiap.models.Paciente;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.xml.bind.annotation.XmlRootElement;
 
@@ -19,6 +20,12 @@ public class PacienteResponseDto {
     @JsonProperty("cpf_paciente")
     private String cpfPaciente;
 
+    /**
+     * Versão da linha, a mesma do ETag usado em If-Match (só nas leituras por ID)
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer versao;
+
     public PacienteResponseDto() {
     }
 
@@ -36,11 +43,13 @@ public class PacienteResponseDto {
             return null;
         }
 
-        return new PacienteResponseDto(
+        PacienteResponseDto dto = new PacienteResponseDto(
                 paciente.getId(),
                 paciente.getNome(),
                 paciente.getCpf()
         );
+        dto.setVersao(paciente.getVersao());
+        return dto;
     }
 
     /**
@@ -59,6 +68,14 @@ public class PacienteResponseDto {
     }
 
 
+    public Integer getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Integer versao) {
+        this.versao = versao;
+    }
+
     public Integer getIdPaciente() {
         return idPaciente;
     }
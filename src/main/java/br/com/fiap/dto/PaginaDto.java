@@ -0,0 +1,77 @@
+package br.com.fiap.dto;
+
+import java.util.List;
+
+/**
+ * DTO para uma página de resultados paginados por cursor
+ */
+public class PaginaDto<T> {
+
+    private List<T> itens;
+    private String proximoCursor;
+    private int limite;
+
+    /**
+     * Construtor padrão
+     */
+    public PaginaDto() {
+    }
+
+    /**
+     * Construtor com parâmetros
+     */
+    public PaginaDto(List<T> itens, String proximoCursor, int limite) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+        this.limite = limite;
+    }
+
+    /**
+     * Obtém itens da página
+     */
+    public List<T> getItens() {
+        return itens;
+    }
+
+    /**
+     * Define itens da página
+     */
+    public void setItens(List<T> itens) {
+        this.itens = itens;
+    }
+
+    /**
+     * Obtém cursor da próxima página (null quando esta é a última)
+     */
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    /**
+     * Define cursor da próxima página
+     */
+    public void setProximoCursor(String proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+
+    /**
+     * Obtém limite de itens da página
+     */
+    public int getLimite() {
+        return limite;
+    }
+
+    /**
+     * Define limite de itens da página
+     */
+    public void setLimite(int limite) {
+        this.limite = limite;
+    }
+
+    /**
+     * Indica se existe próxima página
+     */
+    public boolean possuiProximaPagina() {
+        return proximoCursor != null;
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.fiap.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interceptor que publica as métricas dos DAOs:
+ * - hc.dao.operacao: timer por classe e método, separado por resultado (sucesso/erro)
+ * - hc.dao.itens: distribuição do tamanho das coleções retornadas
+ * Os medidores ficam em cache por método para não montar builders a cada chamada.
+ */
+@Medido
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 200)
+public class MedicaoInterceptor {
+
+    static final String TIMER_OPERACAO = "hc.dao.operacao";
+    static final String RESUMO_ITENS = "hc.dao.itens";
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<Method, Medidores> medidores = new ConcurrentHashMap<>();
+
+    @AroundInvoke
+    public Object medir(InvocationContext contexto) throws Exception {
+        Medidores m = medidores.computeIfAbsent(contexto.getMethod(), this::criarMedidores);
+        long inicio = System.nanoTime();
+        try {
+            Object resultado = contexto.proceed();
+            m.sucesso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            if (resultado instanceof Collection<?> colecao) {
+                m.itens.record(colecao.size());
+            }
+            return resultado;
+        } catch (Exception e) {
+            m.erro.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Medidores criarMedidores(Method metodo) {
+        String classe = metodo.getDeclaringClass().getSimpleName();
+        String nome = metodo.getName();
+        return new Medidores(
+                timer(classe, nome, "sucesso"),
+                timer(classe, nome, "erro"),
+                DistributionSummary.builder(RESUMO_ITENS)
+                        .description("Itens retornados por operação de DAO")
+                        .tag("classe", classe)
+                        .tag("metodo", nome)
+                        .publishPercentileHistogram()
+                        .register(registry));
+    }
+
+    private Timer timer(String classe, String metodo, String resultado) {
+        return Timer.builder(TIMER_OPERACAO)
+                .description("Tempo de execução das operações de DAO")
+                .tag("classe", classe)
+                .tag("metodo", metodo)
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private record Medidores(Timer sucesso, Timer erro, DistributionSummary itens) {
+    }
+}
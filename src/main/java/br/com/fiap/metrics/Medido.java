@@ -0,0 +1,19 @@
+package br.com.fiap.metrics;
+
+import jakarta.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um bean cujos métodos públicos devem ser medidos pelo {@link MedicaoInterceptor}:
+ * tempo de execução por método e, quando o retorno é uma coleção, o número de itens devolvidos.
+ * Métodos estáticos não são interceptados; por isso os mapeadores de linha dos DAOs são estáticos,
+ * e métodos do bean que não vão ao banco usam @NoClassInterceptors.
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Medido {
+}
@@ -0,0 +1,46 @@
+package br.com.fiap.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+
+/**
+ * Configuração dos histogramas publicados no endpoint Prometheus
+ */
+@Singleton
+public class MetricasConfig {
+
+    private static final String HTTP_SERVER = "http.server.requests";
+
+    /**
+     * Publica as requisições HTTP como histograma, com buckets alinhados aos SLOs
+     * (a tag uri já vem com o template do recurso, ex.: /pacientes/{id})
+     */
+    @Produces
+    @Singleton
+    public MeterFilter histogramaHttp() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().startsWith(HTTP_SERVER) && !id.getName().startsWith(MedicaoInterceptor.TIMER_OPERACAO)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .serviceLevelObjectives(
+                                Duration.ofMillis(50).toNanos(),
+                                Duration.ofMillis(100).toNanos(),
+                                Duration.ofMillis(250).toNanos(),
+                                Duration.ofMillis(500).toNanos(),
+                                Duration.ofSeconds(1).toNanos())
+                        .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(10).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package br.com.fiap.models;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Campos de uma consulta online que podem ser pedidos em ?fields=
+ * (os nomes são os mesmos do JSON de resposta)
+ */
+public enum CampoConsulta {
+    ID_CONSULTA("idConsulta"),
+    DATA_CONSULTA("dataConsulta"),
+    HORA_INICIO("horaInicio"),
+    DURACAO_MINUTOS("duracaoMinutos"),
+    STATUS("status"),
+    LINK("link"),
+    EXAME("exame"),
+    MEDICO("medico"),
+    PACIENTE("paciente"),
+    VERSAO("versao");
+
+    /**
+     * Projeção completa, usada quando fields não é informado
+     */
+    public static final Set<CampoConsulta> TODOS = Collections.unmodifiableSet(EnumSet.allOf(CampoConsulta.class));
+
+    private final String nomeJson;
+
+    CampoConsulta(String nomeJson) {
+        this.nomeJson = nomeJson;
+    }
+
+    public String getNomeJson() {
+        return nomeJson;
+    }
+
+    /**
+     * Converte "idConsulta,dataConsulta,status" na projeção correspondente
+     * @return TODOS quando fields é nulo ou vazio
+     * @throws IllegalArgumentException para campos desconhecidos
+     */
+    public static Set<CampoConsulta> interpretar(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return TODOS;
+        }
+
+        EnumSet<CampoConsulta> campos = EnumSet.noneOf(CampoConsulta.class);
+        for (String parte : fields.split(",")) {
+            String nome = parte.trim();
+            if (nome.isEmpty()) {
+                continue;
+            }
+            campos.add(deNomeJson(nome));
+        }
+        if (campos.isEmpty()) {
+            return TODOS;
+        }
+        return campos.size() == values().length ? TODOS : campos;
+    }
+
+    private static CampoConsulta deNomeJson(String nome) {
+        for (CampoConsulta campo : values()) {
+            if (campo.nomeJson.equals(nome)) {
+                return campo;
+            }
+        }
+        throw new IllegalArgumentException("Campo desconhecido em fields: " + nome + ". Campos válidos: "
+                + Arrays.stream(values()).map(CampoConsulta::getNomeJson).collect(Collectors.joining(", ")));
+    }
+}
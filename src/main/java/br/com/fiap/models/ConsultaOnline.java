@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.xml.bind.annotation.XmlRootElement;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,6 +16,8 @@ public class ConsultaOnline {
     private Integer idConsulta;
 
     private LocalDate dataConsulta;
+    private LocalTime horaInicio;
+    private Integer duracaoMinutos;
     private String status;
     private String link;
     private Exame exame;
@@ -23,6 +26,7 @@ public class ConsultaOnline {
     private Integer idPaciente;
     private Integer idMedico;
     private Integer idExame;
+    private Integer versao;
 
     @JsonIgnore
     private List<Exame> listaExame = new ArrayList<>();
@@ -48,6 +52,8 @@ public class ConsultaOnline {
         return "ConsultaOnline{" +
                 "idConsulta=" + idConsulta +
                 ", dataConsulta=" + dataConsulta +
+                ", horaInicio=" + horaInicio +
+                ", duracaoMinutos=" + duracaoMinutos +
                 ", status='" + status + '\'' +
                 ", link='" + link + '\'' +
                 ", exame=" + (exame != null ? exame.toString() : "null") +
@@ -88,6 +94,48 @@ public class ConsultaOnline {
         this.dataConsulta = dataConsulta;
     }
 
+    /**
+     * Obtém hora de início (nula em consultas antigas, sem horário)
+     */
+    public LocalTime getHoraInicio() {
+        return horaInicio;
+    }
+
+    /**
+     * Define hora de início
+     */
+    public void setHoraInicio(LocalTime horaInicio) {
+        this.horaInicio = horaInicio;
+    }
+
+    /**
+     * Obtém duração em minutos
+     */
+    public Integer getDuracaoMinutos() {
+        return duracaoMinutos;
+    }
+
+    /**
+     * Define duração em minutos
+     */
+    public void setDuracaoMinutos(Integer duracaoMinutos) {
+        this.duracaoMinutos = duracaoMinutos;
+    }
+
+    /**
+     * Obtém versão da linha (coluna VERSAO)
+     */
+    public Integer getVersao() {
+        return versao;
+    }
+
+    /**
+     * Define versão da linha
+     */
+    public void setVersao(Integer versao) {
+        this.versao = versao;
+    }
+
     /**
      * Obtém status
      */
@@ -0,0 +1,101 @@
+package br.com.fiap.models;
+
+/**
+ * Validação e normalização de CPF sem expressões regulares.
+ *
+ * Todas as verificações percorrem os caracteres uma única vez e não alocam objetos;
+ * {@link #normalizar(String)} só cria uma String nova quando a entrada vem com máscara.
+ */
+public final class Cpf {
+
+    public static final int TAMANHO = 11;
+
+    private Cpf() {
+    }
+
+    /**
+     * Verifica se o CPF tem 11 dígitos, não é uma sequência repetida (ex.: 111.111.111-11)
+     * e se os dois dígitos verificadores (módulo 11) conferem
+     * @param cpf CPF somente com dígitos
+     */
+    public static boolean isValido(CharSequence cpf) {
+        if (cpf == null || cpf.length() != TAMANHO) {
+            return false;
+        }
+        int soma1 = 0;
+        int soma2 = 0;
+        boolean todosIguais = true;
+        char primeiro = cpf.charAt(0);
+        for (int i = 0; i < TAMANHO; i++) {
+            char c = cpf.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            int digito = c - '0';
+            todosIguais &= c == primeiro;
+            if (i < 9) {
+                soma1 += digito * (10 - i);
+            }
+            if (i < 10) {
+                soma2 += digito * (11 - i);
+            }
+        }
+        if (todosIguais) {
+            return false;
+        }
+        int dv1 = digitoVerificador(soma1);
+        return cpf.charAt(9) - '0' == dv1
+                && cpf.charAt(10) - '0' == digitoVerificador(soma2);
+    }
+
+    /**
+     * Verifica apenas o formato: exatamente 11 dígitos.
+     * Usado em consultas, para não esconder registros antigos com dígito verificador inválido.
+     */
+    public static boolean isFormatoValido(CharSequence cpf) {
+        if (cpf == null || cpf.length() != TAMANHO) {
+            return false;
+        }
+        for (int i = 0; i < TAMANHO; i++) {
+            char c = cpf.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove máscara e espaços (ex.: " 123.456.789-09 " vira "12345678909")
+     * @return os 11 dígitos, a própria entrada se ela já estiver limpa,
+     *         ou null se a entrada não tiver exatamente 11 dígitos
+     */
+    public static String normalizar(String cpf) {
+        if (cpf == null) {
+            return null;
+        }
+        if (isFormatoValido(cpf)) {
+            return cpf;
+        }
+        char[] digitos = new char[TAMANHO];
+        int quantidade = 0;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (quantidade == TAMANHO) {
+                    return null;
+                }
+                digitos[quantidade++] = c;
+            }
+        }
+        return quantidade == TAMANHO ? new String(digitos) : null;
+    }
+
+    /**
+     * Regra do módulo 11: resto menor que 2 gera 0, senão 11 - resto
+     */
+    private static int digitoVerificador(int soma) {
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+}
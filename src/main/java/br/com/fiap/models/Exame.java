@@ -1,5 +1,6 @@
 package br.com.fiap.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.xml.bind.annotation.XmlRootElement;
 import jakarta.validation.constraints.NotNull;
@@ -25,6 +26,12 @@ public class Exame {
     @NotNull(message = "Status do resultado é obrigatório")
     private String status_resultado;
 
+    /**
+     * Versão da linha (coluna VERSAO), usada no If-Match; fica fora do JSON aninhado em consultas
+     */
+    @JsonIgnore
+    private Integer versao;
+
     /**
      * Construtor padrão
      */
@@ -59,6 +66,14 @@ public class Exame {
         this.id_exame = id_exame;
     }
 
+    public Integer getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Integer versao) {
+        this.versao = versao;
+    }
+
     public boolean possuiId() {
         return id_exame != null && id_exame > 0;
     }
@@ -0,0 +1,29 @@
+package br.com.fiap.models;
+
+/**
+ * Gravidade do diagnóstico de um histórico, persistida na coluna GRAVIDADE de TBL_HC_HISTORICOS
+ */
+public enum GravidadeDiagnostico {
+    NORMAL("Diagnóstico normal"),
+    CRITICO("Diagnóstico crítico");
+
+    private final String descricao;
+
+    GravidadeDiagnostico(String descricao) {
+        this.descricao = descricao;
+    }
+
+    /**
+     * Texto exibido no campo status_diagnostico da API
+     */
+    public String getDescricao() {
+        return descricao;
+    }
+
+    /**
+     * Converte o valor da coluna; null para registros ainda não classificados
+     */
+    public static GravidadeDiagnostico deColuna(String valor) {
+        return valor == null ? null : valueOf(valor.trim());
+    }
+}
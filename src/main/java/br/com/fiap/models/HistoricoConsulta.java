@@ -11,6 +11,7 @@ public class HistoricoConsulta {
     private String sintomasHistorico;
     private String diagnostico;
     private String observacao;
+    private GravidadeDiagnostico gravidade;
 
     public HistoricoConsulta() {
     }
@@ -25,7 +26,14 @@ public class HistoricoConsulta {
         return idHistorico != null;
     }
 
+    /**
+     * Usa a gravidade gravada no banco; registros ainda não classificados
+     * caem na regra antiga de palavra-chave
+     */
     public boolean isDiagnosticoCritical() {
+        if (gravidade != null) {
+            return gravidade == GravidadeDiagnostico.CRITICO;
+        }
         return diagnostico != null && diagnostico.toLowerCase().contains("grave");
     }
 
@@ -65,6 +73,14 @@ public class HistoricoConsulta {
         this.observacao = observacao;
     }
 
+    public GravidadeDiagnostico getGravidade() {
+        return gravidade;
+    }
+
+    public void setGravidade(GravidadeDiagnostico gravidade) {
+        this.gravidade = gravidade;
+    }
+
     public boolean isValid() {
         return sintomasHistorico != null && !sintomasHistorico.trim().isEmpty() &&
                 diagnostico != null && !diagnostico.trim().isEmpty() &&
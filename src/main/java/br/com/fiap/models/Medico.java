@@ -1,5 +1,6 @@
 package br.com.fiap.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -26,6 +27,12 @@ public class Medico {
     @Positive(message = "CRM deve ser positivo")
     private int crm;
 
+    /**
+     * Versão da linha (coluna VERSAO), usada no If-Match
+     */
+    @JsonIgnore
+    private Integer versao;
+
     /**
      * Construtor padrão
      */
@@ -119,4 +126,18 @@ public class Medico {
     public void setCrm(int crm) {
         this.crm = crm;
     }
+
+    /**
+     * Obtém versão da linha
+     */
+    public Integer getVersao() {
+        return versao;
+    }
+
+    /**
+     * Define versão da linha
+     */
+    public void setVersao(Integer versao) {
+        this.versao = versao;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package br.com.fiap.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.xml.bind.annotation.XmlRootElement;
 import jakarta.validation.constraints.NotNull;
@@ -26,6 +27,12 @@ public class Paciente {
     @Pattern(regexp = "\\d{11}", message = "CPF deve conter apenas números")
     private String cpf;
 
+    /**
+     * Versão da linha (coluna VERSAO), usada no If-Match; fica fora do JSON aninhado em consultas
+     */
+    @JsonIgnore
+    private Integer versao;
+
     public Paciente() {
     }
 
@@ -57,6 +64,14 @@ public class Paciente {
         this.nome = nome;
     }
 
+    public Integer getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Integer versao) {
+        this.versao = versao;
+    }
+
     public String getCpf() {
         return cpf;
     }
@@ -67,7 +82,7 @@ public class Paciente {
 
 
     public boolean isCpfValido() {
-        return cpf != null && cpf.matches("\\d{11}");
+        return Cpf.isValido(cpf);
     }
 
     public boolean isValid() {
@@ -80,7 +95,8 @@ public class Paciente {
             nome = nome.trim();
         }
         if (cpf != null) {
-            cpf = cpf.trim().replaceAll("[^\\d]", "");
+            String normalizado = Cpf.normalizar(cpf);
+            cpf = normalizado != null ? normalizado : cpf.trim();
         }
     }
 
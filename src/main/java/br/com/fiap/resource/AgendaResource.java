@@ -0,0 +1,50 @@
+package br.com.fiap.resource;
+
+import br.com.fiap.dto.HorarioDisponivelDto;
+import br.com.fiap.service.AgendaService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.*;
+
+import java.util.List;
+import org.jboss.logging.Logger;
+
+/**
+ * Recurso REST para a agenda dos médicos
+ */
+@RunOnVirtualThread
+@Path("/agenda")
+public class AgendaResource {
+
+    private static final Logger LOG = Logger.getLogger(AgendaResource.class);
+
+    @Inject
+    private AgendaService agendaService;
+
+    /**
+     * Primeiros horários livres entre os médicos de uma especialidade,
+     * ex.: /agenda/disponibilidade?especialidade=cardiologia&de=2025-03-10&ate=2025-03-14
+     * Opcionais: duracao (minutos, padrão hc.agenda.duracao-padrao-minutos) e limite (padrão 10).
+     */
+    @GET
+    @Path("/disponibilidade")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response disponibilidade(@QueryParam("especialidade") String especialidade,
+                                    @QueryParam("de") String de, @QueryParam("ate") String ate,
+                                    @QueryParam("duracao") Integer duracao, @QueryParam("limite") Integer limite) {
+        try {
+            List<HorarioDisponivelDto> horarios = agendaService.buscarDisponibilidade(especialidade, de, ate, duracao, limite);
+            return Response.ok(horarios).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Parâmetros inválidos: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.error("Erro interno ao buscar disponibilidade", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno ao buscar disponibilidade")
+                    .build();
+        }
+    }
+}
@@ -2,36 +2,83 @@ package br.com.fiap.resource;
 
 import br.com.fiap.dto.ConsultaOnlineRequestDto;
 import br.com.fiap.dto.ConsultaOnlineResponseDto;
+import br.com.fiap.dto.PaginaDto;
+import br.com.fiap.models.CampoConsulta;
 import br.com.fiap.models.ConsultaOnline;
 import br.com.fiap.service.ConsultaOnlineService;
+import br.com.fiap.service.HorarioIndisponivelException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.*;
 import jakarta.ws.rs.NotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
+import org.jboss.logging.Logger;
 
 /**
  * Recurso REST para consultas online
  */
+@RunOnVirtualThread
 @Path("/consultaonline")
 public class ConsultaOnlineResource {
 
+    private static final Logger LOG = Logger.getLogger(ConsultaOnlineResource.class);
+
+    private static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+
+    private static final String RECURSO_ETAG = "consulta";
+    private static final String PREFIXO_ETAG = RECURSO_ETAG + "-";
+
     @Inject
     private ConsultaOnlineService consultaOnlineService;
 
+    @Inject
+    private ObjectMapper objectMapper;
+
     /**
-     * Lista todas as consultas online
+     * Lista consultas online.
+     * Sem cursor/limite retorna todas; com cursor ou limite retorna uma página keyset
+     * e informa a próxima página nos headers Link (rel="next") e X-Next-Cursor.
+     * Com ?fields=idConsulta,dataConsulta,status devolve só esses campos e o SELECT
+     * deixa de ler (e de juntar) as tabelas que não foram pedidas.
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response listar() {
+    public Response listar(@QueryParam("cursor") String cursor, @QueryParam("limite") Integer limite,
+                           @QueryParam("fields") String fields, @Context UriInfo uriInfo) {
         try {
-            List<ConsultaOnlineResponseDto> consultas = consultaOnlineService.listar();
-            return Response.ok(consultas).build();
+            Set<CampoConsulta> campos = CampoConsulta.interpretar(fields);
+            if (cursor == null && limite == null) {
+                List<ConsultaOnlineResponseDto> consultas = consultaOnlineService.listar(campos);
+                return Response.ok(consultas).build();
+            }
+
+            PaginaDto<ConsultaOnlineResponseDto> pagina = consultaOnlineService.listarPagina(cursor, limite, campos);
+            Response.ResponseBuilder builder = Response.ok(pagina.getItens());
+            if (pagina.possuiProximaPagina()) {
+                URI proxima = uriInfo.getRequestUriBuilder()
+                        .replaceQueryParam("cursor", pagina.getProximoCursor())
+                        .replaceQueryParam("limite", pagina.getLimite())
+                        .build();
+                builder.header("Link", "<" + proxima + ">; rel=\"next\"")
+                        .header("X-Next-Cursor", pagina.getProximoCursor());
+            }
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Parâmetros de paginação inválidos: " + e.getMessage())
+                    .build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao listar consultas online", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao listar consultas online")
                     .build();
@@ -39,15 +86,51 @@ public class ConsultaOnlineResource {
     }
 
     /**
-     * Busca consulta online por ID
+     * Exporta todas as consultas online em NDJSON (um objeto JSON por linha),
+     * escrevendo cada linha direto na resposta à medida que é lida do banco
+     */
+    @GET
+    @Path("/stream")
+    @Produces(MEDIA_TYPE_NDJSON)
+    public Response exportar() {
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingOutput stream = output -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                // Sem o separador padrão (espaço) entre valores raiz: cada linha começa no '{'
+                generator.setRootValueSeparator(null);
+                consultaOnlineService.exportar(dto -> {
+                    try {
+                        writer.writeValue(generator, dto);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return Response.ok(stream, MEDIA_TYPE_NDJSON).build();
+    }
+
+    /**
+     * Busca consulta online por ID. O ETag termina na versão da linha e serve de If-Match
+     * para PUT e DELETE; com If-None-Match igual responde 304 sem corpo.
      */
     @GET
     @Path("/{id}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response buscarPorId(@PathParam("id") int id) {
+    public Response buscarPorId(@PathParam("id") int id, @Context Request request) {
         try {
             ConsultaOnlineResponseDto consulta = consultaOnlineService.buscarPorId(id);
-            return Response.ok(consulta).build();
+            EntityTag etag = EtagVersao.etag(PREFIXO_ETAG + id, consulta.getVersao());
+            Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+            if (naoModificado != null) {
+                return naoModificado.build();
+            }
+            return Response.ok(consulta).tag(etag).build();
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Consulta online não encontrada com ID: " + id)
@@ -57,7 +140,7 @@ public class ConsultaOnlineResource {
                     .entity("ID inválido: " + e.getMessage())
                     .build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao buscar consulta online", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao buscar consulta online")
                     .build();
@@ -65,7 +148,8 @@ public class ConsultaOnlineResource {
     }
 
     /**
-     * Cadastra nova consulta online
+     * Cadastra nova consulta online.
+     * Com hora_inicio, um horário que se sobrepõe a outra consulta do médico retorna 409.
      */
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
@@ -85,18 +169,22 @@ public class ConsultaOnlineResource {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("Dados inválidos: " + e.getMessage())
                     .build();
+        } catch (HorarioIndisponivelException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity("Horário indisponível: " + e.getMessage())
+                    .build();
         } catch (RuntimeException e) {
             if (e.getMessage() != null && (e.getMessage().contains("constraint") || e.getMessage().contains("duplicate"))) {
                 return Response.status(Response.Status.CONFLICT)
                         .entity("Conflito de dados: " + e.getMessage())
                         .build();
             }
-            e.printStackTrace();
+            LOG.error("Erro interno ao cadastrar consulta online", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao cadastrar consulta online")
                     .build();
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Erro de banco de dados ao cadastrar consulta online", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro de banco de dados ao cadastrar consulta online")
                     .build();
@@ -104,28 +192,71 @@ public class ConsultaOnlineResource {
     }
 
     /**
-     * Atualiza consulta online existente
+     * Cadastra um lote de consultas online em uma única transação
+     * e retorna os IDs gerados na ordem do lote
+     */
+    @POST
+    @Path("/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response cadastrarEmLote(List<ConsultaOnlineRequestDto> lote) {
+        try {
+            List<Integer> ids = consultaOnlineService.cadastrarEmLote(lote);
+            return Response.status(Response.Status.CREATED).entity(ids).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Dados inválidos: " + e.getMessage())
+                    .build();
+        } catch (HorarioIndisponivelException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity("Horário indisponível: " + e.getMessage())
+                    .build();
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && (e.getMessage().contains("constraint") || e.getMessage().contains("duplicate"))) {
+                return Response.status(Response.Status.CONFLICT)
+                        .entity("Conflito de dados: " + e.getMessage())
+                        .build();
+            }
+            LOG.error("Erro interno ao cadastrar lote de consultas online", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno ao cadastrar lote de consultas online")
+                    .build();
+        }
+    }
+
+    /**
+     * Atualiza consulta online existente. Com If-Match (ETag de GET /{id}) só grava se a consulta
+     * ainda estiver naquela versão; caso contrário responde 412.
      */
     @PUT
     @Path("/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response updateConsultaOnline(ConsultaOnlineRequestDto consultaDto, @PathParam("id") int id) {
+    public Response updateConsultaOnline(ConsultaOnlineRequestDto consultaDto, @PathParam("id") int id,
+                                         @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
-            consultaOnlineService.atualizar(consultaDto, id);
+            consultaOnlineService.atualizar(consultaDto, id, EtagVersao.versaoEsperada(ifMatch, RECURSO_ETAG, id));
 
-            ConsultaOnlineResponseDto updated = consultaOnlineService.buscarPorId(id);
-            return Response.ok(updated).build();
+            ConsultaOnlineResponseDto updated = consultaOnlineService.buscarAposEscrita(id);
+            return Response.ok(updated).tag(EtagVersao.etag(PREFIXO_ETAG + id, updated.getVersao())).build();
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Consulta online não encontrada com ID: " + id + " para atualização")
                     .build();
+        } catch (ClientErrorException e) {
+            return Response.status(e.getResponse().getStatus())
+                    .entity(e.getMessage())
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("Dados inválidos: " + e.getMessage())
                     .build();
+        } catch (HorarioIndisponivelException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity("Horário indisponível: " + e.getMessage())
+                    .build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao atualizar consulta online", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao atualizar consulta online")
                     .build();
@@ -133,24 +264,28 @@ public class ConsultaOnlineResource {
     }
 
     /**
-     * Exclui consulta online por ID
+     * Exclui consulta online por ID; com If-Match, só se ela ainda estiver naquela versão (senão 412)
      */
     @DELETE
     @Path("/{id}")
-    public Response excluir(@PathParam("id") int id) {
+    public Response excluir(@PathParam("id") int id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
-            consultaOnlineService.excluir(id);
+            consultaOnlineService.excluir(id, EtagVersao.versaoEsperada(ifMatch, RECURSO_ETAG, id));
             return Response.noContent().build();
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Consulta online não encontrada com ID: " + id + " para exclusão")
                     .build();
+        } catch (ClientErrorException e) {
+            return Response.status(e.getResponse().getStatus())
+                    .entity(e.getMessage())
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("ID inválido: " + e.getMessage())
                     .build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao excluir consulta online", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao excluir consulta online")
                     .build();
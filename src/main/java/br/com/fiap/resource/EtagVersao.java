@@ -0,0 +1,108 @@
+package br.com.fiap.resource;
+
+import jakarta.ws.rs.core.EntityTag;
+
+/**
+ * ETags por linha para concorrência otimista: o ETag de GET /{id} termina no ID e na versão da
+ * linha (coluna VERSAO), ex.: "pacientes-mgx1a2b3-42-7-v3", e PUT/DELETE com If-Match gravam só
+ * se essa versão ainda for a atual.
+ */
+final class EtagVersao {
+
+    private static final String SEPARADOR_VERSAO = "-v";
+
+    /**
+     * Versão que não existe: um If-Match que não descreve a linha nunca corresponde e resulta em 412
+     */
+    static final int VERSAO_INVALIDA = -1;
+
+    private EtagVersao() {
+    }
+
+    /**
+     * ETag da linha na versão informada
+     * @param prefixo identifica o recurso e termina no ID, ex.: token da tabela + "-" + id
+     */
+    static EntityTag etag(String prefixo, int versao) {
+        return new EntityTag(prefixo + SEPARADOR_VERSAO + versao);
+    }
+
+    /**
+     * Versão exigida pelo cabeçalho If-Match para a linha de um recurso. Só valem ETags fortes do
+     * mesmo recurso e do mesmo ID (o trecho "-{id}-v"): o ETag de outra linha nunca corresponde,
+     * mesmo que as versões coincidam. Todos os ETags da lista são considerados.
+     * @param recurso início do ETag, ex.: "pacientes" ou "consulta"
+     * @return null sem If-Match ou com "*" (grava em qualquer versão); -1 se nenhum ETag descreve
+     *         a linha. Com várias versões da mesma linha vale a maior, a mais recente que o cliente viu.
+     */
+    static Integer versaoEsperada(String ifMatch, String recurso, int id) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String inicio = recurso + "-";
+        String sufixoId = "-" + id + SEPARADOR_VERSAO;
+        int versaoEsperada = VERSAO_INVALIDA;
+        for (String parte : ifMatch.split(",")) {
+            String valor = parte.trim();
+            if (valor.equals("*")) {
+                return null;
+            }
+            // If-Match usa comparação forte: ETag fraco nunca corresponde
+            if (valor.startsWith("W/")) {
+                continue;
+            }
+            valor = semAspas(valor);
+            int separador = valor.lastIndexOf(sufixoId);
+            if (!valor.startsWith(inicio) || separador < 0) {
+                continue;
+            }
+            versaoEsperada = Math.max(versaoEsperada, numero(valor.substring(separador + sufixoId.length())));
+        }
+        return versaoEsperada;
+    }
+
+    /**
+     * Procura no If-None-Match um ETag emitido com o prefixo atual. Como o prefixo inclui a versão
+     * da tabela, um ETag com ele ainda descreve a linha atual e a resposta pode ser 304 sem ler o banco.
+     * @return o ETag correspondente, ou null
+     */
+    static EntityTag naoModificado(String ifNoneMatch, String prefixo) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return null;
+        }
+        String procurado = prefixo + SEPARADOR_VERSAO;
+        for (String parte : ifNoneMatch.split(",")) {
+            String valor = parte.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            valor = semAspas(valor);
+            if (valor.startsWith(procurado)) {
+                return new EntityTag(valor);
+            }
+        }
+        return null;
+    }
+
+    private static String semAspas(String valor) {
+        if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            return valor.substring(1, valor.length() - 1);
+        }
+        return valor;
+    }
+
+    /**
+     * Versão não negativa em decimal, ou -1
+     */
+    private static int numero(String texto) {
+        if (texto.isEmpty() || texto.length() > 9) {
+            return VERSAO_INVALIDA;
+        }
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) < '0' || texto.charAt(i) > '9') {
+                return VERSAO_INVALIDA;
+            }
+        }
+        return Integer.parseInt(texto);
+    }
+}
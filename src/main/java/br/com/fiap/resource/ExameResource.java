@@ -1,61 +1,108 @@
 package br.com.fiap.resource;
 
+import br.com.fiap.dao.VersoesTabelas;
 import br.com.fiap.dto.ExameRequestDto;
 import br.com.fiap.dto.ExameResponseDto;
 import br.com.fiap.models.Exame;
 import br.com.fiap.service.ExameService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.*;
 import java.net.URI;
 import java.sql.SQLException;
 import java.util.List;
+import org.jboss.logging.Logger;
 
 /**
  * Recurso REST para operações com exames médicos
  * Expõe endpoints para CRUD de exames com IDs gerados automaticamente
  */
+@RunOnVirtualThread
 @Path("/exames")
 public class ExameResource {
+
+    private static final Logger LOG = Logger.getLogger(ExameResource.class);
+
     @Inject
     private ExameService exameService;
 
+    @Inject
+    private VersoesTabelas versoes;
+
     /**
      * Lista todos os exames cadastrados no sistema
+     * Responde 304 sem consultar o banco quando o If-None-Match bate com a versão atual da tabela
+     * @param ids opcional, ex.: 1,2,3 para buscar só esses exames em uma única consulta
      * @return Response com lista de exames em formato JSON
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response listar() {
+    public Response listar(@QueryParam("ids") String ids, @Context Request request) {
+        if (ids != null) {
+            return buscarPorIds(ids);
+        }
         try {
+            EntityTag etag = new EntityTag(versoes.token(VersoesTabelas.Tabela.EXAMES));
+            Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+            if (naoModificado != null) {
+                return naoModificado.build();
+            }
+
             List<ExameResponseDto> exames = exameService.listar();
-            return Response.ok(exames).build();
+            return Response.ok(exames).tag(etag).build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao listar exames", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao listar exames: " + e.getMessage())
                     .build();
         }
     }
 
+    /**
+     * Busca em lote para ?ids=1,2,3, na ordem pedida
+     */
+    private Response buscarPorIds(String ids) {
+        try {
+            List<ExameResponseDto> exames = exameService.buscarPorIds(ids);
+            return Response.ok(exames).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Parâmetros inválidos: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.error("Erro interno ao buscar exames por IDs", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno ao buscar exames por IDs")
+                    .build();
+        }
+    }
+
     /**
      * Busca um exame específico pelo ID gerado automaticamente
      * @param id ID do exame gerado pelo banco de dados
-     * @return Response com dados do exame em formato JSON
+     * @return Response com dados do exame em formato JSON; o ETag termina na versão da linha e
+     *         serve de If-Match para PUT e DELETE
      */
     @GET
     @Path("/{id}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response buscarPorId(@PathParam("id") int id) {
+    public Response buscarPorId(@PathParam("id") int id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
         try {
+            String prefixo = prefixoEtag(id);
+            EntityTag naoModificado = EtagVersao.naoModificado(ifNoneMatch, prefixo);
+            if (naoModificado != null) {
+                return Response.notModified(naoModificado).build();
+            }
+
             ExameResponseDto exame = exameService.buscarPorId(id);
-            return Response.ok(exame).build();
+            return Response.ok(exame).tag(EtagVersao.etag(prefixo, exame.getVersao())).build();
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Exame não encontrado com ID: " + id)
                     .build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao buscar exame", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao buscar exame")
                     .build();
@@ -91,7 +138,7 @@ public class ExameResource {
                     .entity("Dados inválidos: " + e.getMessage())
                     .build();
         } catch (RuntimeException e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao cadastrar exame", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao cadastrar exame: " + e.getMessage())
                     .build();
@@ -102,33 +149,35 @@ public class ExameResource {
      * Atualiza um exame existente
      * @param exame Objeto Exame com dados atualizados
      * @param id ID do exame a ser atualizado (gerado automaticamente)
-     * @return Response com status 200 OK em caso de sucesso
+     * @param ifMatch opcional, ETag de GET /{id}: só grava se o exame ainda estiver naquela versão
+     * @return Response com status 200 OK e o ETag da versão gravada, 412 se a versão divergir
      */
     @PUT
     @Path("/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response atualizar(Exame exame, @PathParam("id") int id) {
+    public Response atualizar(Exame exame, @PathParam("id") int id,
+                              @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
-
-            exameService.buscarPorId(id);
-
-
             exame.setId_exame(id);
 
+            String prefixo = prefixoEtag(id);
+            int versao = exameService.atualizar(exame, versaoEsperada(ifMatch, id));
 
-            exameService.atualizar(exame);
-
-            return Response.ok().build();
+            return Response.ok().tag(EtagVersao.etag(prefixo, versao)).build();
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Exame não encontrado com ID: " + id + " para atualização")
                     .build();
+        } catch (ClientErrorException e) {
+            return Response.status(e.getResponse().getStatus())
+                    .entity(e.getMessage())
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("Dados inválidos: " + e.getMessage())
                     .build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao atualizar exame", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao atualizar exame")
                     .build();
@@ -138,30 +187,47 @@ public class ExameResource {
     /**
      * Exclui um exame pelo ID gerado automaticamente
      * @param id ID do exame a ser excluído
-     * @return Response com status 204 No Content em caso de sucesso
+     * @param ifMatch opcional, ETag de GET /{id}: só exclui se o exame ainda estiver naquela versão
+     * @return Response com status 204 No Content em caso de sucesso, 412 se a versão divergir
      */
     @DELETE
     @Path("/{id}")
-    public Response excluir(@PathParam("id") int id) {
+    public Response excluir(@PathParam("id") int id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
-            exameService.excluir(id);
+            exameService.excluir(id, versaoEsperada(ifMatch, id));
             return Response.noContent().build();
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Exame não encontrado com ID: " + id + " para exclusão")
                     .build();
+        } catch (ClientErrorException e) {
+            return Response.status(e.getResponse().getStatus())
+                    .entity(e.getMessage())
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("ID inválido: " + e.getMessage())
                     .build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao excluir exame", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao excluir exame")
                     .build();
         }
     }
 
+    /**
+     * Prefixo do ETag de um exame: muda a cada escrita na tabela, então um If-None-Match com ele
+     * ainda descreve a linha atual
+     */
+    private String prefixoEtag(int id) {
+        return versoes.token(VersoesTabelas.Tabela.EXAMES) + "-" + id;
+    }
+
+    private static Integer versaoEsperada(String ifMatch, int id) {
+        return EtagVersao.versaoEsperada(ifMatch, VersoesTabelas.Tabela.EXAMES.nome(), id);
+    }
+
     /**
      * Endpoint adicional para verificar saúde do recurso
      * @return Response com status de saúde do serviço
@@ -2,42 +2,145 @@ package br.com.fiap.resource;
 
 import br.com.fiap.dto.HistoricoConsultaRequestDto;
 import br.com.fiap.dto.HistoricoConsultaResponseDto;
+import br.com.fiap.dto.PaginaDto;
 import br.com.fiap.models.HistoricoConsulta;
+import br.com.fiap.service.BackfillGravidade;
 import br.com.fiap.service.HistoricoService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.*;
 import jakarta.ws.rs.NotFoundException;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import org.jboss.logging.Logger;
 
 /**
  * Recurso REST para histórico de consultas
  */
+@RunOnVirtualThread
 @Path("/historicoconsulta")
 public class HistoricoConsultaResource {
 
+    private static final Logger LOG = Logger.getLogger(HistoricoConsultaResource.class);
+
     @Inject
     private HistoricoService historicoService;
 
+    @Inject
+    private BackfillGravidade backfillGravidade;
+
 
     /**
-     * Lista todos os históricos
+     * Lista todos os históricos.
+     * Com ?ids=1,2,3 devolve só esses históricos, em uma única consulta.
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response listar() {
+    public Response listar(@QueryParam("ids") String ids) {
+        if (ids != null) {
+            return buscarPorIds(ids);
+        }
         try {
             List<HistoricoConsultaResponseDto> historicos = (List<HistoricoConsultaResponseDto>) historicoService.listar();
             return Response.ok(historicos).build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao listar históricos de consulta", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao listar históricos de consulta")
                     .build();
         }
     }
 
+    /**
+     * Busca em lote para ?ids=1,2,3, na ordem pedida
+     */
+    private Response buscarPorIds(String ids) {
+        try {
+            List<HistoricoConsultaResponseDto> historicos = historicoService.buscarPorIds(ids);
+            return Response.ok(historicos).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Parâmetros inválidos: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.error("Erro interno ao buscar históricos de consulta por IDs", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno ao buscar históricos de consulta por IDs")
+                    .build();
+        }
+    }
+
+    /**
+     * Busca textual nos históricos (sintomas, diagnóstico e observações)
+     * Ex.: /historicoconsulta/search?q=dor cabe*
+     */
+    @GET
+    @Path("/search")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response buscar(@QueryParam("q") String q, @QueryParam("limite") Integer limite) {
+        try {
+            List<HistoricoConsultaResponseDto> historicos = historicoService.buscarTexto(q, limite);
+            return Response.ok(historicos).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Parâmetros de busca inválidos: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.error("Erro interno ao buscar históricos de consulta", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno ao buscar históricos de consulta")
+                    .build();
+        }
+    }
+
+    /**
+     * Lista históricos com diagnóstico crítico, paginados por cursor
+     * Ex.: /historicoconsulta/criticos?limite=50&cursor=120
+     */
+    @GET
+    @Path("/criticos")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response listarCriticos(@QueryParam("cursor") String cursor, @QueryParam("limite") Integer limite) {
+        try {
+            PaginaDto<HistoricoConsultaResponseDto> pagina = historicoService.listarDiagnosticosCriticos(cursor, limite);
+            return Response.ok(pagina).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Parâmetros de paginação inválidos: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.error("Erro interno ao listar diagnósticos críticos", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno ao listar diagnósticos críticos")
+                    .build();
+        }
+    }
+
+    /**
+     * Classifica a gravidade dos históricos existentes em blocos
+     * @param reclassificar true para reavaliar também os já classificados
+     */
+    @POST
+    @Path("/gravidade/backfill")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response backfillGravidade(@QueryParam("reclassificar") boolean reclassificar) {
+        try {
+            int classificados = backfillGravidade.executar(reclassificar);
+            return Response.ok(Map.of("classificados", classificados)).build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.error("Erro interno no backfill de gravidade", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno no backfill de gravidade")
+                    .build();
+        }
+    }
+
     /**
      * Busca histórico por ID
      */
@@ -57,7 +160,7 @@ public class HistoricoConsultaResource {
                     .entity("ID inválido: " + e.getMessage())
                     .build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao buscar histórico de consulta", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao buscar histórico de consulta")
                     .build();
@@ -85,7 +188,7 @@ public class HistoricoConsultaResource {
                     .entity("Dados inválidos: " + e.getMessage())
                     .build();
         } catch (RuntimeException e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao cadastrar histórico de consulta", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao cadastrar histórico de consulta")
                     .build();
@@ -115,7 +218,7 @@ public class HistoricoConsultaResource {
                     .entity("Dados inválidos: " + e.getMessage())
                     .build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao atualizar histórico de consulta", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao atualizar histórico de consulta")
                     .build();
@@ -140,7 +243,7 @@ public class HistoricoConsultaResource {
                     .entity("ID inválido: " + e.getMessage())
                     .build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao excluir histórico de consulta", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao excluir histórico de consulta")
                     .build();
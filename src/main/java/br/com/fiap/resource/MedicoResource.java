@@ -1,9 +1,12 @@
 package br.com.fiap.resource;
 
+import br.com.fiap.dao.VersoesTabelas;
 import br.com.fiap.dto.MedicoRequestDto;
 import br.com.fiap.dto.MedicoResponseDto;
 import br.com.fiap.models.Medico;
 import br.com.fiap.service.MedicoService;
+import br.com.fiap.service.Upsert;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.*;
@@ -11,26 +14,45 @@ import jakarta.ws.rs.core.*;
 import java.net.URI;
 import java.sql.SQLException;
 import java.util.List;
+import org.jboss.logging.Logger;
 
 /**
  * Recurso REST para médicos
  */
+@RunOnVirtualThread
 @Path("/medicos")
 public class MedicoResource {
+
+    private static final Logger LOG = Logger.getLogger(MedicoResource.class);
+
     @Inject
     private MedicoService medicoService;
 
+    @Inject
+    private VersoesTabelas versoes;
+
     /**
-     * Lista todos os médicos
+     * Lista todos os médicos.
+     * Responde 304 sem consultar o banco quando o If-None-Match bate com a versão atual da tabela.
+     * Com ?ids=1,2,3 devolve só esses médicos, em uma única consulta.
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response listar() {
+    public Response listar(@QueryParam("ids") String ids, @Context Request request) {
+        if (ids != null) {
+            return buscarPorIds(ids);
+        }
         try {
+            EntityTag etag = new EntityTag(versoes.token(VersoesTabelas.Tabela.MEDICOS));
+            Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+            if (naoModificado != null) {
+                return naoModificado.build();
+            }
+
             List<MedicoResponseDto> medicos = medicoService.listar();
-            return Response.ok(medicos).build();
+            return Response.ok(medicos).tag(etag).build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao listar médicos", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao listar médicos: " + e.getMessage())
                     .build();
@@ -38,32 +60,63 @@ public class MedicoResource {
     }
 
     /**
-     * Busca médico por ID
+     * Busca em lote para ?ids=1,2,3, na ordem pedida
+     */
+    private Response buscarPorIds(String ids) {
+        try {
+            List<MedicoResponseDto> medicos = medicoService.buscarPorIds(ids);
+            return Response.ok(medicos).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Parâmetros inválidos: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.error("Erro interno ao buscar médicos por IDs", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno ao buscar médicos por IDs")
+                    .build();
+        }
+    }
+
+    /**
+     * Busca médico por ID. O ETag termina na versão da linha e serve de If-Match para PUT e DELETE;
+     * com If-None-Match emitido depois da última escrita na tabela responde 304 sem consultar o banco.
      */
     @GET
     @Path("/{id}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response buscarPorId(@PathParam("id") int id) {
+    public Response buscarPorId(@PathParam("id") int id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
         try {
-            MedicoResponseDto medico = medicoService.buscarPorId(id);
-            if (medico == null) {
-                return Response.status(Response.Status.NOT_FOUND)
-                        .entity("Médico não encontrado com ID: " + id)
-                        .build();
+            String prefixo = prefixoEtag(id);
+            EntityTag naoModificado = EtagVersao.naoModificado(ifNoneMatch, prefixo);
+            if (naoModificado != null) {
+                return Response.notModified(naoModificado).build();
             }
-            return Response.ok(medico).build();
+
+            MedicoResponseDto medico = medicoService.buscarPorId(id);
+            return Response.ok(medico).tag(EtagVersao.etag(prefixo, medico.getVersao())).build();
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Médico não encontrado com ID: " + id)
                     .build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao buscar médico", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao buscar médico: " + e.getMessage())
                     .build();
         }
     }
 
+    /**
+     * Estatísticas do cache de médicos (acertos, faltas e remoções)
+     */
+    @GET
+    @Path("/cache/estatisticas")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response estatisticasCache() {
+        return Response.ok(medicoService.estatisticasCache()).build();
+    }
+
     /**
      * Cadastra novo médico
      */
@@ -95,7 +148,7 @@ public class MedicoResource {
                         .entity("Conflito de dados: " + e.getMessage())
                         .build();
             }
-            e.printStackTrace();
+            LOG.error("Erro interno ao cadastrar médico", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao cadastrar médico: " + e.getMessage())
                     .build();
@@ -103,28 +156,96 @@ public class MedicoResource {
     }
 
     /**
-     * Atualiza médico existente
+     * Cadastra ou atualiza o médico do CRM (upsert) em um único MERGE, para sincronização
+     * com sistemas parceiros. Responde 201 com Location quando o médico é novo e 200 quando
+     * já existia (com ou sem alteração).
+     */
+    @PUT
+    @Path("/crm/{crm}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response upsertPorCrm(@PathParam("crm") int crm, MedicoRequestDto medicoDto, @Context UriInfo uriInfo) {
+        try {
+            // Token lido antes da escrita, como no GET: o ETag nunca descreve mais do que foi gravado
+            String token = versoes.token(VersoesTabelas.Tabela.MEDICOS);
+            Upsert<MedicoResponseDto> upsert = medicoService.upsertPorCrm(crm, medicoDto);
+            MedicoResponseDto medico = upsert.valor();
+            EntityTag etag = EtagVersao.etag(token + "-" + medico.getId_medico(), medico.getVersao());
+
+            if (upsert.isCriado()) {
+                URI location = uriInfo.getBaseUriBuilder()
+                        .path(MedicoResource.class)
+                        .path(Integer.toString(medico.getId_medico()))
+                        .build();
+                return Response.created(location).entity(medico).tag(etag).build();
+            }
+            return Response.ok(medico).tag(etag).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Dados inválidos: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.error("Erro interno ao gravar médico por CRM", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno ao gravar médico por CRM")
+                    .build();
+        }
+    }
+
+    /**
+     * Upsert por CRM de um lote de médicos (até MedicoService.LOTE_MAXIMO_UPSERT), com MERGE
+     * em JDBC batch. Responde com a contagem de criados, atualizados e inalterados.
+     */
+    @PUT
+    @Path("/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response upsertEmLote(List<MedicoRequestDto> lote) {
+        try {
+            return Response.ok(medicoService.upsertEmLote(lote)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Dados inválidos: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.error("Erro interno ao gravar lote de médicos por CRM", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno ao gravar lote de médicos")
+                    .build();
+        }
+    }
+
+    /**
+     * Atualiza médico existente. Com If-Match (ETag de GET /{id}) só grava se o médico ainda
+     * estiver naquela versão; caso contrário responde 412. Responde com o ETag da versão gravada.
      */
     @PUT
     @Path("/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response atualizar(MedicoRequestDto medicoDto, @PathParam("id") int id) {
+    public Response atualizar(MedicoRequestDto medicoDto, @PathParam("id") int id,
+                              @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
             medicoDto.setId_medico(id);
-            medicoService.atualizar(medicoDto);
+            String prefixo = prefixoEtag(id);
+            int versao = medicoService.atualizar(medicoDto, versaoEsperada(ifMatch, id));
             return Response.ok()
                     .entity("Médico atualizado com sucesso")
+                    .tag(EtagVersao.etag(prefixo, versao))
                     .build();
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Médico não encontrado com ID: " + id + " para atualização")
                     .build();
+        } catch (ClientErrorException e) {
+            return Response.status(e.getResponse().getStatus())
+                    .entity(e.getMessage())
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("Dados inválidos: " + e.getMessage())
                     .build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao atualizar médico", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao atualizar médico: " + e.getMessage())
                     .build();
@@ -132,28 +253,44 @@ public class MedicoResource {
     }
 
     /**
-     * Exclui médico por ID
+     * Exclui médico por ID; com If-Match, só se ele ainda estiver naquela versão (senão 412)
      */
     @DELETE
     @Path("/{id}")
-    public Response excluir(@PathParam("id") int id) {
+    public Response excluir(@PathParam("id") int id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
-            medicoService.excluir(id);
+            medicoService.excluir(id, versaoEsperada(ifMatch, id));
             return Response.noContent()
                     .build();
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Médico não encontrado com ID: " + id + " para exclusão")
                     .build();
+        } catch (ClientErrorException e) {
+            return Response.status(e.getResponse().getStatus())
+                    .entity(e.getMessage())
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("ID inválido: " + e.getMessage())
                     .build();
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.error("Erro interno ao excluir médico", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao excluir médico: " + e.getMessage())
                     .build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Prefixo do ETag de um médico: muda a cada escrita na tabela, então um If-None-Match com ele
+     * ainda descreve a linha atual. Deve ser lido antes da consulta ou da escrita.
+     */
+    private String prefixoEtag(int id) {
+        return versoes.token(VersoesTabelas.Tabela.MEDICOS) + "-" + id;
+    }
+
+    private static Integer versaoEsperada(String ifMatch, int id) {
+        return EtagVersao.versaoEsperada(ifMatch, VersoesTabelas.Tabela.MEDICOS.nome(), id);
+    }
+}
@@ -1,34 +1,62 @@
 package br.com.fiap.resource;
 
+import br.com.fiap.dao.VersoesTabelas;
 import br.com.fiap.dto.PacienteRequestDto;
 import br.com.fiap.dto.PacienteResponseDto;
+import br.com.fiap.models.Cpf;
+import br.com.fiap.service.ImportacaoPacientes;
 import br.com.fiap.service.PacienteService;
+import br.com.fiap.service.Upsert;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.*;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import org.jboss.logging.Logger;
 
 /**
  * Recurso REST para pacientes (sem relação com ConsultaOnline)
  */
+@RunOnVirtualThread
 @Path("/pacientes")
 public class PacienteResource {
 
+    private static final Logger LOG = Logger.getLogger(PacienteResource.class);
+
     @Inject
     private PacienteService pacienteService;
 
+    @Inject
+    private ImportacaoPacientes importacao;
+
+    @Inject
+    private VersoesTabelas versoes;
+
     /**
-     * Lista todos os pacientes
+     * Lista todos os pacientes.
+     * Responde 304 sem consultar o banco quando o If-None-Match bate com a versão atual da tabela.
+     * Com ?ids=1,2,3 devolve só esses pacientes, em uma única consulta.
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response listar() {
+    public Response listar(@QueryParam("ids") String ids, @Context Request request) {
+        if (ids != null) {
+            return buscarPorIds(ids);
+        }
         try {
+            EntityTag etag = new EntityTag(versoes.token(VersoesTabelas.Tabela.PACIENTES));
+            Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+            if (naoModificado != null) {
+                return naoModificado.build();
+            }
+
             List<PacienteResponseDto> pacientes = pacienteService.listar();
-            return Response.ok(pacientes).build();
+            return Response.ok(pacientes).tag(etag).build();
         } catch (Exception e) {
-            System.err.println("Erro ao listar pacientes: " + e.getMessage());
+            LOG.error("Erro ao listar pacientes", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao listar pacientes")
                     .build();
@@ -36,12 +64,55 @@ public class PacienteResource {
     }
 
     /**
-     * Busca paciente por ID
+     * Busca em lote para ?ids=1,2,3, na ordem pedida
+     */
+    private Response buscarPorIds(String ids) {
+        try {
+            List<PacienteResponseDto> pacientes = pacienteService.buscarPorIds(ids);
+            return Response.ok(pacientes).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Parâmetros inválidos: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.error("Erro interno ao buscar pacientes por IDs", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno ao buscar pacientes por IDs")
+                    .build();
+        }
+    }
+
+    /**
+     * Busca pacientes por nome aproximado, ordenados por similaridade
+     * Ex.: /pacientes/search?nome=joao sil&limite=10
+     */
+    @GET
+    @Path("/search")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response buscarPorNome(@QueryParam("nome") String nome, @QueryParam("limite") Integer limite) {
+        try {
+            List<PacienteResponseDto> pacientes = pacienteService.buscarPorNome(nome, limite);
+            return Response.ok(pacientes).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Parâmetros de busca inválidos: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.error("Erro ao buscar pacientes por nome", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno ao buscar pacientes por nome")
+                    .build();
+        }
+    }
+
+    /**
+     * Busca paciente por ID. O ETag termina na versão da linha e serve de If-Match para PUT e DELETE;
+     * com If-None-Match emitido depois da última escrita na tabela responde 304 sem consultar o banco.
      */
     @GET
     @Path("/{id}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response buscarPorId(@PathParam("id") int id) {
+    public Response buscarPorId(@PathParam("id") int id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
         try {
             if (id <= 0) {
                 return Response.status(Response.Status.BAD_REQUEST)
@@ -49,15 +120,21 @@ public class PacienteResource {
                         .build();
             }
 
+            String prefixo = prefixoEtag(id);
+            EntityTag naoModificado = EtagVersao.naoModificado(ifNoneMatch, prefixo);
+            if (naoModificado != null) {
+                return Response.notModified(naoModificado).build();
+            }
+
             PacienteResponseDto paciente = pacienteService.buscarPorId(id);
-            return Response.ok(paciente).build();
+            return Response.ok(paciente).tag(EtagVersao.etag(prefixo, paciente.getVersao())).build();
 
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Paciente não encontrado com ID: " + id)
                     .build();
         } catch (Exception e) {
-            System.err.println("Erro ao buscar paciente ID " + id + ": " + e.getMessage());
+            LOG.errorf(e, "Erro ao buscar paciente ID %s", id);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao buscar paciente")
                     .build();
@@ -72,7 +149,7 @@ public class PacienteResource {
     @Produces(MediaType.APPLICATION_JSON)
     public Response buscarPorCpf(@PathParam("cpf") String cpf) {
         try {
-            if (cpf == null || cpf.length() != 11) {
+            if (Cpf.normalizar(cpf) == null) {
                 return Response.status(Response.Status.BAD_REQUEST)
                         .entity("CPF deve ter exatamente 11 dígitos")
                         .build();
@@ -87,13 +164,138 @@ public class PacienteResource {
             return Response.ok(paciente).build();
 
         } catch (Exception e) {
-            System.err.println("Erro ao buscar paciente CPF " + cpf + ": " + e.getMessage());
+            LOG.errorf(e, "Erro ao buscar paciente CPF %s", cpf);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao buscar paciente por CPF")
                     .build();
         }
     }
 
+    /**
+     * Cadastra ou atualiza o paciente do CPF (upsert) em um único MERGE, para sincronização
+     * com sistemas parceiros. Responde 201 com Location quando o paciente é novo e 200 quando
+     * já existia (com ou sem alteração).
+     */
+    @PUT
+    @Path("/cpf/{cpf}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response upsertPorCpf(@PathParam("cpf") String cpf, PacienteRequestDto pacienteDto,
+                                 @Context UriInfo uriInfo) {
+        try {
+            // Token lido antes da escrita, como no GET: o ETag nunca descreve mais do que foi gravado
+            String token = versoes.token(VersoesTabelas.Tabela.PACIENTES);
+            Upsert<PacienteResponseDto> upsert = pacienteService.upsertPorCpf(cpf, pacienteDto);
+            PacienteResponseDto paciente = upsert.valor();
+            EntityTag etag = EtagVersao.etag(token + "-" + paciente.getIdPaciente(), paciente.getVersao());
+
+            if (upsert.isCriado()) {
+                URI location = uriInfo.getBaseUriBuilder()
+                        .path(PacienteResource.class)
+                        .path(Integer.toString(paciente.getIdPaciente()))
+                        .build();
+                return Response.created(location).entity(paciente).tag(etag).build();
+            }
+            return Response.ok(paciente).tag(etag).build();
+
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Dados inválidos: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.errorf(e, "Erro ao gravar paciente CPF %s", cpf);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno ao gravar paciente por CPF")
+                    .build();
+        }
+    }
+
+    /**
+     * Upsert por CPF de um lote de pacientes (até PacienteService.LOTE_MAXIMO_UPSERT), com MERGE
+     * em JDBC batch. Responde com a contagem de criados, atualizados e inalterados.
+     */
+    @PUT
+    @Path("/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response upsertEmLote(List<PacienteRequestDto> lote) {
+        try {
+            return Response.ok(pacienteService.upsertEmLote(lote)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Dados inválidos: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.error("Erro ao gravar lote de pacientes por CPF", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno ao gravar lote de pacientes")
+                    .build();
+        }
+    }
+
+    /**
+     * Importa pacientes de um CSV enviado no corpo (nome e CPF por linha, cabeçalho opcional),
+     * lido em streaming. Responde com o resumo: linhas, importados, rejeitados por motivo,
+     * linhas/s e o arquivo de rejeitados (também em GET /pacientes/importacao/rejeitados).
+     * Só uma importação roda por vez; outra enquanto isso recebe 409.
+     */
+    @POST
+    @Path("/importacao")
+    @Consumes({"text/csv", MediaType.TEXT_PLAIN})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importar(InputStream csv) {
+        try {
+            return Response.ok(importacao.importar(csv)).build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(e.getMessage())
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Dados inválidos: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            LOG.error("Erro interno na importação de pacientes", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Erro interno na importação de pacientes: consulte GET /pacientes/importacao")
+                    .build();
+        }
+    }
+
+    /**
+     * Progresso da importação em andamento, ou o resumo da última
+     */
+    @GET
+    @Path("/importacao")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response progressoImportacao() {
+        Map<String, Object> progresso = importacao.progresso();
+        if (progresso == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Nenhuma importação de pacientes executada")
+                    .build();
+        }
+        return Response.ok(progresso).build();
+    }
+
+    /**
+     * CSV com as linhas rejeitadas pela última importação (linha, motivo, conteúdo original)
+     */
+    @GET
+    @Path("/importacao/rejeitados")
+    @Produces("text/csv")
+    public Response rejeitadosImportacao() {
+        java.nio.file.Path arquivo = importacao.arquivoRejeitados();
+        if (arquivo == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Nenhuma linha rejeitada na última importação")
+                    .build();
+        }
+        return Response.ok(arquivo.toFile())
+                .header("Content-Disposition", "attachment; filename=\"" + arquivo.getFileName() + "\"")
+                .build();
+    }
+
     /**
      * Cadastra novo paciente
      */
@@ -139,7 +341,7 @@ public class PacienteResource {
                         .entity("Conflito de dados: CPF já cadastrado")
                         .build();
             }
-            System.err.println("Erro ao cadastrar paciente: " + e.getMessage());
+            LOG.error("Erro ao cadastrar paciente", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao cadastrar paciente")
                     .build();
@@ -147,12 +349,14 @@ public class PacienteResource {
     }
 
     /**
-     * Atualiza paciente existente
+     * Atualiza paciente existente. Com If-Match (ETag de GET /{id}) só grava se o paciente ainda
+     * estiver naquela versão; caso contrário responde 412. Responde com o ETag da versão gravada.
      */
     @PUT
     @Path("/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response atualizar(PacienteRequestDto pacienteDto, @PathParam("id") int id) {
+    public Response atualizar(PacienteRequestDto pacienteDto, @PathParam("id") int id,
+                              @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
             if (id <= 0) {
                 return Response.status(Response.Status.BAD_REQUEST)
@@ -175,14 +379,21 @@ public class PacienteResource {
             }
 
             pacienteDto.setId(id);
-            pacienteService.atualizar(pacienteDto);
+            String prefixo = prefixoEtag(id);
+            int versao = pacienteService.atualizar(pacienteDto, versaoEsperada(ifMatch, id));
 
-            return Response.ok("Paciente atualizado com sucesso").build();
+            return Response.ok("Paciente atualizado com sucesso")
+                    .tag(EtagVersao.etag(prefixo, versao))
+                    .build();
 
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Paciente não encontrado com ID: " + id)
                     .build();
+        } catch (ClientErrorException e) {
+            return Response.status(e.getResponse().getStatus())
+                    .entity(e.getMessage())
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("Dados inválidos: " + e.getMessage())
@@ -194,7 +405,7 @@ public class PacienteResource {
                         .entity("Conflito de dados: CPF já cadastrado")
                         .build();
             }
-            System.err.println("Erro ao atualizar paciente ID " + id + ": " + e.getMessage());
+            LOG.errorf(e, "Erro ao atualizar paciente ID %s", id);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao atualizar paciente")
                     .build();
@@ -202,11 +413,11 @@ public class PacienteResource {
     }
 
     /**
-     * Exclui paciente por ID
+     * Exclui paciente por ID; com If-Match, só se ele ainda estiver naquela versão (senão 412)
      */
     @DELETE
     @Path("/{id}")
-    public Response excluir(@PathParam("id") int id) {
+    public Response excluir(@PathParam("id") int id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         try {
             if (id <= 0) {
                 return Response.status(Response.Status.BAD_REQUEST)
@@ -214,13 +425,17 @@ public class PacienteResource {
                         .build();
             }
 
-            pacienteService.excluir(id);
+            pacienteService.excluir(id, versaoEsperada(ifMatch, id));
             return Response.noContent().build();
 
         } catch (NotFoundException e) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Paciente não encontrado com ID: " + id)
                     .build();
+        } catch (ClientErrorException e) {
+            return Response.status(e.getResponse().getStatus())
+                    .entity(e.getMessage())
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("ID inválido: " + e.getMessage())
@@ -231,13 +446,25 @@ public class PacienteResource {
                         .entity("Não é possível excluir paciente: existem registros relacionados")
                         .build();
             }
-            System.err.println("Erro ao excluir paciente ID " + id + ": " + e.getMessage());
+            LOG.errorf(e, "Erro ao excluir paciente ID %s", id);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Erro interno ao excluir paciente")
                     .build();
         }
     }
 
+    /**
+     * Prefixo do ETag de um paciente: muda a cada escrita na tabela, então um If-None-Match com ele
+     * ainda descreve a linha atual. Deve ser lido antes da consulta ou da escrita.
+     */
+    private String prefixoEtag(int id) {
+        return versoes.token(VersoesTabelas.Tabela.PACIENTES) + "-" + id;
+    }
+
+    private static Integer versaoEsperada(String ifMatch, int id) {
+        return EtagVersao.versaoEsperada(ifMatch, VersoesTabelas.Tabela.PACIENTES.nome(), id);
+    }
+
     /**
      * Health check do recurso
      */
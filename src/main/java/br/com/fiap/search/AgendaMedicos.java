@@ -0,0 +1,345 @@
+package br.com.fiap.search;
+
+import br.com.fiap.models.ConsultaOnline;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Agenda em memória dos médicos: para cada médico, os horários ocupados pelas consultas
+ * de TBL_HC_CONSULTA_ONLINE em um mapa ordenado pelo início.
+ *
+ * Como nenhuma consulta dura mais que DURACAO_MAXIMA_MINUTOS, as consultas que podem
+ * se sobrepor a um intervalo [inicio, fim) estão todas entre inicio - DURACAO_MAXIMA_MINUTOS
+ * e fim no mapa; a verificação de conflito percorre só essa faixa (poucas entradas).
+ *
+ * Consultas sem horário (anteriores à coluna HORA_INICIO) e canceladas não ocupam a agenda.
+ * O índice é carregado na primeira consulta e depois mantido pelo ConsultaOnlineDao a cada escrita.
+ */
+@ApplicationScoped
+public class AgendaMedicos {
+
+    public static final int DURACAO_MAXIMA_MINUTOS = 24 * 60;
+
+    /** Duração assumida quando a linha não tem DURACAO_MINUTOS (mesmo DEFAULT da coluna) */
+    public static final int DURACAO_PADRAO_MINUTOS = 30;
+
+    public static final String STATUS_CANCELADA = "Cancelada";
+
+    private static final int MINUTOS_POR_DIA = 24 * 60;
+
+    /**
+     * Horário ocupado por uma consulta, em minutos desde 1970-01-01 00:00 (horário local); fim exclusivo
+     */
+    public record Ocupacao(int idConsulta, long inicio, long fim) {
+
+        public LocalDateTime getInicio() {
+            return paraDataHora(inicio);
+        }
+
+        public LocalDateTime getFim() {
+            return paraDataHora(fim);
+        }
+    }
+
+    private record Registro(int idMedico, long chave, Ocupacao ocupacao) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, NavigableMap<Long, Ocupacao>> porMedico = new HashMap<>();
+    private final Map<Integer, Registro> porConsulta = new HashMap<>();
+    private volatile boolean carregado;
+
+    /**
+     * Carrega a agenda na primeira chamada; chamadas seguintes não fazem nada
+     * @param fonte fornece as consultas com horário (normalmente o DAO)
+     */
+    public void garantirCarregado(Supplier<List<ConsultaOnline>> fonte) {
+        if (carregado) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (carregado) {
+                return;
+            }
+            for (ConsultaOnline consulta : fonte.get()) {
+                registrarSemLock(consulta);
+            }
+            carregado = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    /**
+     * Registra (ou move) o horário de uma consulta já gravada no banco.
+     * Antes da primeira carga não faz nada: a carga lerá o registro do banco.
+     */
+    public void registrar(ConsultaOnline consulta) {
+        if (consulta == null || !consulta.possuiIdValido()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!carregado) {
+                return;
+            }
+            removerSemLock(consulta.getIdConsulta());
+            registrarSemLock(consulta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Libera o horário de uma consulta excluída do banco
+     */
+    public void remover(int idConsulta) {
+        lock.writeLock().lock();
+        try {
+            if (!carregado) {
+                return;
+            }
+            removerSemLock(idConsulta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Procura uma consulta do médico que se sobreponha ao horário pedido
+     * @param idIgnorado consulta a desconsiderar (a própria consulta em uma atualização), ou null
+     * @return a primeira consulta conflitante, ou null se o horário está livre
+     */
+    public Ocupacao conflito(int idMedico, LocalDate data, LocalTime hora, int duracaoMinutos, Integer idIgnorado) {
+        long inicio = minutos(data, hora);
+        lock.readLock().lock();
+        try {
+            return conflitoSemLock(porMedico.get(idMedico), inicio, inicio + duracaoMinutos, idIgnorado);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Primeiro horário livre do médico a partir de um instante, dentro do expediente
+     * @param diasMaximos quantos dias à frente procurar
+     * @return início do primeiro horário livre, ou null se não houver no período
+     */
+    public LocalDateTime proximoHorarioLivre(int idMedico, LocalDateTime aPartirDe, int duracaoMinutos,
+                                             LocalTime abertura, LocalTime fechamento, int diasMaximos) {
+        long abre = abertura.toSecondOfDay() / 60;
+        long fecha = fechamento.toSecondOfDay() / 60;
+        long t = minutos(aPartirDe.toLocalDate(), aPartirDe.toLocalTime());
+        // arredonda para cima segundos e nanos que a conversão descartou
+        if (aPartirDe.getSecond() > 0 || aPartirDe.getNano() > 0) {
+            t++;
+        }
+
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Ocupacao> agenda = porMedico.get(idMedico);
+            long primeiroDia = aPartirDe.toLocalDate().toEpochDay();
+            for (long dia = primeiroDia; dia <= primeiroDia + diasMaximos; dia++) {
+                long abreDia = dia * MINUTOS_POR_DIA + abre;
+                long fechaDia = dia * MINUTOS_POR_DIA + fecha;
+                if (t < abreDia) {
+                    t = abreDia;
+                }
+                while (t + duracaoMinutos <= fechaDia) {
+                    Ocupacao ocupada = conflitoSemLock(agenda, t, t + duracaoMinutos, null);
+                    if (ocupada == null) {
+                        return paraDataHora(t);
+                    }
+                    t = ocupada.fim();
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Horários livres do médico em [de, ate), em ordem, na grade do expediente: cada dia é dividido
+     * em vagas de duracaoMinutos a partir da abertura, as vagas tocadas por alguma consulta são
+     * marcadas em um BitSet e as livres saem dos bits desligados.
+     * @param limite quantidade máxima de horários devolvidos
+     */
+    public List<LocalDateTime> horariosLivres(int idMedico, LocalDateTime de, LocalDateTime ate, int duracaoMinutos,
+                                              LocalTime abertura, LocalTime fechamento, int limite) {
+        long inicio = minutos(de.toLocalDate(), de.toLocalTime());
+        if (de.getSecond() > 0 || de.getNano() > 0) {
+            inicio++;
+        }
+        long fim = minutos(ate.toLocalDate(), ate.toLocalTime());
+        long abre = abertura.toSecondOfDay() / 60;
+        int vagasPorDia = (int) ((fechamento.toSecondOfDay() / 60 - abre) / duracaoMinutos);
+        List<LocalDateTime> livres = new ArrayList<>();
+        if (vagasPorDia <= 0 || limite <= 0) {
+            return livres;
+        }
+
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Ocupacao> agenda = porMedico.get(idMedico);
+            BitSet ocupadas = new BitSet(vagasPorDia);
+            for (long dia = Math.floorDiv(inicio, MINUTOS_POR_DIA); dia * MINUTOS_POR_DIA < fim; dia++) {
+                long abreDia = dia * MINUTOS_POR_DIA + abre;
+                long fechaDia = abreDia + (long) vagasPorDia * duracaoMinutos;
+                ocupadas.clear();
+                if (agenda != null) {
+                    for (Ocupacao ocupacao : agenda.subMap(chave(abreDia - DURACAO_MAXIMA_MINUTOS, 0), true,
+                            chave(fechaDia, 0), false).values()) {
+                        if (ocupacao.fim() <= abreDia) {
+                            continue;
+                        }
+                        int primeira = (int) Math.max(0, (ocupacao.inicio() - abreDia) / duracaoMinutos);
+                        int ultima = (int) Math.min(vagasPorDia, Math.ceilDiv(ocupacao.fim() - abreDia, (long) duracaoMinutos));
+                        ocupadas.set(primeira, ultima);
+                    }
+                }
+                for (int vaga = ocupadas.nextClearBit(0); vaga < vagasPorDia; vaga = ocupadas.nextClearBit(vaga + 1)) {
+                    long inicioVaga = abreDia + (long) vaga * duracaoMinutos;
+                    if (inicioVaga < inicio) {
+                        continue;
+                    }
+                    if (inicioVaga + duracaoMinutos > fim) {
+                        return livres;
+                    }
+                    livres.add(paraDataHora(inicioVaga));
+                    if (livres.size() == limite) {
+                        return livres;
+                    }
+                }
+            }
+            return livres;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Horários ocupados do médico que se sobrepõem ao período [de, ate), em ordem de início
+     */
+    public List<Ocupacao> ocupacoes(int idMedico, LocalDateTime de, LocalDateTime ate) {
+        long inicio = minutos(de.toLocalDate(), de.toLocalTime());
+        long fim = minutos(ate.toLocalDate(), ate.toLocalTime());
+        List<Ocupacao> resultado = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Ocupacao> agenda = porMedico.get(idMedico);
+            if (agenda == null) {
+                return resultado;
+            }
+            for (Ocupacao ocupacao : agenda.subMap(chave(inicio - DURACAO_MAXIMA_MINUTOS, 0), true, chave(fim, 0), false).values()) {
+                if (ocupacao.fim() > inicio) {
+                    resultado.add(ocupacao);
+                }
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Quantidade de consultas com horário na agenda
+     */
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return porConsulta.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Verifica se a consulta ocupa horário na agenda
+     */
+    public static boolean ocupaHorario(ConsultaOnline consulta) {
+        return consulta.getDataConsulta() != null
+                && consulta.getHoraInicio() != null
+                && idMedico(consulta) > 0
+                && !STATUS_CANCELADA.equalsIgnoreCase(consulta.getStatus());
+    }
+
+    private void registrarSemLock(ConsultaOnline consulta) {
+        if (!consulta.possuiIdValido() || !ocupaHorario(consulta)) {
+            return;
+        }
+        int duracao = consulta.getDuracaoMinutos() != null ? consulta.getDuracaoMinutos() : DURACAO_PADRAO_MINUTOS;
+        long inicio = minutos(consulta.getDataConsulta(), consulta.getHoraInicio());
+        int idConsulta = consulta.getIdConsulta();
+        Ocupacao ocupacao = new Ocupacao(idConsulta, inicio, inicio + duracao);
+        long chave = chave(inicio, idConsulta);
+
+        int idMedico = idMedico(consulta);
+        porMedico.computeIfAbsent(idMedico, id -> new TreeMap<>()).put(chave, ocupacao);
+        porConsulta.put(idConsulta, new Registro(idMedico, chave, ocupacao));
+    }
+
+    private void removerSemLock(int idConsulta) {
+        Registro registro = porConsulta.remove(idConsulta);
+        if (registro == null) {
+            return;
+        }
+        NavigableMap<Long, Ocupacao> agenda = porMedico.get(registro.idMedico());
+        agenda.remove(registro.chave());
+        if (agenda.isEmpty()) {
+            porMedico.remove(registro.idMedico());
+        }
+    }
+
+    private static Ocupacao conflitoSemLock(NavigableMap<Long, Ocupacao> agenda, long inicio, long fim, Integer idIgnorado) {
+        if (agenda == null) {
+            return null;
+        }
+        for (Ocupacao ocupacao : agenda.subMap(chave(inicio - DURACAO_MAXIMA_MINUTOS, 0), true, chave(fim, 0), false).values()) {
+            if (ocupacao.fim() > inicio && (idIgnorado == null || ocupacao.idConsulta() != idIgnorado)) {
+                return ocupacao;
+            }
+        }
+        return null;
+    }
+
+    private static int idMedico(ConsultaOnline consulta) {
+        if (consulta.getIdMedico() != null) {
+            return consulta.getIdMedico();
+        }
+        return consulta.getMedico() != null ? consulta.getMedico().getIdMedico() : 0;
+    }
+
+    /**
+     * Chave do mapa ordenada por início e desempatada pelo ID da consulta
+     */
+    private static long chave(long inicio, int idConsulta) {
+        return (inicio << 32) | idConsulta;
+    }
+
+    private static long minutos(LocalDate data, LocalTime hora) {
+        return data.toEpochDay() * MINUTOS_POR_DIA + hora.toSecondOfDay() / 60;
+    }
+
+    private static LocalDateTime paraDataHora(long minutos) {
+        return LocalDate.ofEpochDay(Math.floorDiv(minutos, MINUTOS_POR_DIA))
+                .atTime(LocalTime.ofSecondOfDay(Math.floorMod(minutos, MINUTOS_POR_DIA) * 60L));
+    }
+}
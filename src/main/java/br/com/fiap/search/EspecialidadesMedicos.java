@@ -0,0 +1,89 @@
+package br.com.fiap.search;
+
+import br.com.fiap.models.Medico;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Mapa especialidade -> médicos em memória, usado pela busca de disponibilidade.
+ *
+ * É montado de uma vez a partir de TBL_HC_MEDICOS e remontado na próxima consulta depois de
+ * qualquer escrita em médicos (a versão vem de VersoesTabelas). Especialidades são comparadas
+ * sem acento e sem diferenciar maiúsculas; sem correspondência exata, vale a busca por trecho,
+ * como o LIKE de MedicoDao.buscarPorEspecialidade, mas sobre as poucas especialidades distintas.
+ */
+@ApplicationScoped
+public class EspecialidadesMedicos {
+
+    private record Retrato(long versao, Map<String, List<Medico>> porEspecialidade) {
+    }
+
+    /**
+     * Trava da recarga: ReentrantLock em vez de synchronized, para que a leitura JDBC da fonte
+     * não prenda a thread virtual à thread portadora
+     */
+    private final ReentrantLock trava = new ReentrantLock();
+
+    private volatile Retrato retrato;
+
+    /**
+     * Médicos da especialidade, ordenados por ID
+     * @param versao versão atual da tabela de médicos, lida antes de chamar a fonte
+     * @param fonte fornece todos os médicos (normalmente o DAO)
+     */
+    public List<Medico> medicos(String especialidade, long versao, Supplier<List<Medico>> fonte) {
+        Retrato atual = retrato;
+        if (atual == null || atual.versao() != versao) {
+            atual = recarregar(versao, fonte);
+        }
+        Map<String, List<Medico>> porEspecialidade = atual.porEspecialidade();
+
+        String termo = Texto.normalizar(especialidade);
+        List<Medico> exatos = porEspecialidade.get(termo);
+        if (exatos != null) {
+            return exatos;
+        }
+
+        List<Medico> medicos = new ArrayList<>();
+        porEspecialidade.forEach((nome, daEspecialidade) -> {
+            if (nome.contains(termo)) {
+                medicos.addAll(daEspecialidade);
+            }
+        });
+        medicos.sort(Comparator.comparingInt(Medico::getIdMedico));
+        return medicos;
+    }
+
+    private Retrato recarregar(long versao, Supplier<List<Medico>> fonte) {
+        trava.lock();
+        try {
+            Retrato atual = retrato;
+            if (atual != null && atual.versao() == versao) {
+                return atual;
+            }
+
+            Map<String, List<Medico>> porEspecialidade = new HashMap<>();
+            for (Medico medico : fonte.get()) {
+                porEspecialidade.computeIfAbsent(Texto.normalizar(medico.getEspecialidade()), e -> new ArrayList<>())
+                        .add(medico);
+            }
+            porEspecialidade.replaceAll((nome, medicos) -> {
+                medicos.sort(Comparator.comparingInt(Medico::getIdMedico));
+                return Collections.unmodifiableList(medicos);
+            });
+
+            atual = new Retrato(versao, porEspecialidade);
+            retrato = atual;
+            return atual;
+        } finally {
+            trava.unlock();
+        }
+    }
+}
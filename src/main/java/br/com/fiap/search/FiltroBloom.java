@@ -0,0 +1,82 @@
+package br.com.fiap.search;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom para chaves long (ex.: CPF como número).
+ * Responde "certamente ausente" ou "talvez presente"; não há remoção.
+ * Seguro para uso concorrente: os bits são ligados com operações atômicas.
+ */
+public final class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long totalBits;
+    private final int funcoesHash;
+
+    /**
+     * @param capacidade número esperado de chaves
+     * @param taxaFalsoPositivo taxa de falso positivo desejada com a capacidade cheia (ex.: 0.01)
+     */
+    public FiltroBloom(long capacidade, double taxaFalsoPositivo) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("Capacidade do filtro deve ser positiva");
+        }
+        if (!(taxaFalsoPositivo > 0 && taxaFalsoPositivo < 1)) {
+            throw new IllegalArgumentException("Taxa de falso positivo deve estar entre 0 e 1");
+        }
+        long m = (long) Math.ceil(-capacidade * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        int palavras = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+        this.bits = new AtomicLongArray(palavras);
+        this.totalBits = (long) palavras * 64;
+        this.funcoesHash = Math.max(1, (int) Math.round((double) totalBits / capacidade * Math.log(2)));
+    }
+
+    public void adicionar(long chave) {
+        long h1 = misturar(chave);
+        long h2 = misturar(h1) | 1;
+        for (int i = 0; i < funcoesHash; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, totalBits);
+            int palavra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long atual = bits.get(palavra);
+            while ((atual & mascara) == 0 && !bits.compareAndSet(palavra, atual, atual | mascara)) {
+                atual = bits.get(palavra);
+            }
+        }
+    }
+
+    /**
+     * @return false se a chave certamente nunca foi adicionada
+     */
+    public boolean podeConter(long chave) {
+        long h1 = misturar(chave);
+        long h2 = misturar(h1) | 1;
+        for (int i = 0; i < funcoesHash; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, totalBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getTotalBits() {
+        return totalBits;
+    }
+
+    public int getFuncoesHash() {
+        return funcoesHash;
+    }
+
+    /**
+     * Finalizador do MurmurHash3 (fmix64)
+     */
+    private static long misturar(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb93fe53b5a27L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
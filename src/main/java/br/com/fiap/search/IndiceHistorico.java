@@ -0,0 +1,261 @@
+package br.com.fiap.search;
+
+import br.com.fiap.models.HistoricoConsulta;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido em memória sobre os textos de TBL_HC_HISTORICOS
+ * (sintomas, diagnóstico e observações).
+ *
+ * Os termos são normalizados (minúsculas, sem acento) e guardados em mapas ordenados
+ * por campo, o que permite busca por termo exato e por prefixo. O índice é carregado
+ * na primeira consulta e depois mantido pelo HistoricoConsultaDao a cada escrita.
+ */
+@ApplicationScoped
+public class IndiceHistorico {
+
+    /** Sufixo que transforma um termo da consulta em busca por prefixo (ex.: "cardi*") */
+    public static final char CURINGA = '*';
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    public enum Campo {
+        SINTOMAS, DIAGNOSTICO, OBSERVACAO
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Campo, NavigableMap<String, Set<Integer>>> termos = new EnumMap<>(Campo.class);
+    private final Map<Integer, HistoricoConsulta> documentos = new HashMap<>();
+    private volatile boolean carregado;
+
+    public IndiceHistorico() {
+        for (Campo campo : Campo.values()) {
+            termos.put(campo, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Carrega o índice com todos os históricos na primeira chamada; chamadas seguintes não fazem nada
+     * @param fonte fornece a lista completa de históricos (normalmente o DAO)
+     */
+    public void garantirCarregado(Supplier<List<HistoricoConsulta>> fonte) {
+        if (carregado) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (carregado) {
+                return;
+            }
+            for (HistoricoConsulta historico : fonte.get()) {
+                indexarSemLock(historico);
+            }
+            carregado = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    /**
+     * Indexa (ou reindexa) um histórico já gravado no banco.
+     * Antes da primeira carga não faz nada: a carga lerá o registro do banco.
+     */
+    public void indexar(HistoricoConsulta historico) {
+        if (historico == null || !historico.possuiId()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!carregado) {
+                return;
+            }
+            removerSemLock(historico.getIdHistorico());
+            indexarSemLock(historico);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um histórico excluído do banco
+     */
+    public void remover(int idHistorico) {
+        lock.writeLock().lock();
+        try {
+            if (!carregado) {
+                return;
+            }
+            removerSemLock(idHistorico);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca em todos os campos. Cada termo da consulta precisa aparecer em algum campo (E lógico);
+     * termos terminados em '*' casam por prefixo.
+     * @param limite número máximo de resultados; só esses são copiados
+     * @return os primeiros históricos encontrados, ordenados por ID
+     */
+    public List<HistoricoConsulta> buscar(String consulta, int limite) {
+        List<String> termosConsulta = tokenizarConsulta(consulta);
+        if (termosConsulta.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Set<Integer> resultado = null;
+            for (String termo : termosConsulta) {
+                Set<Integer> ids = new HashSet<>();
+                for (Campo campo : Campo.values()) {
+                    coletar(campo, termo, ids);
+                }
+                if (resultado == null) {
+                    resultado = ids;
+                } else {
+                    resultado.retainAll(ids);
+                }
+                if (resultado.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return documentosOrdenados(resultado, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return documentos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static Set<String> tokenizar(String texto) {
+        Set<String> tokens = new HashSet<>();
+        for (String token : SEPARADORES.split(Texto.normalizar(texto))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> tokenizarConsulta(String consulta) {
+        List<String> tokens = new ArrayList<>();
+        if (consulta == null) {
+            return tokens;
+        }
+        for (String bruto : consulta.trim().split("\\s+")) {
+            boolean prefixo = bruto.endsWith(String.valueOf(CURINGA));
+            String token = SEPARADORES.matcher(Texto.normalizar(bruto)).replaceAll("");
+            if (!token.isEmpty()) {
+                tokens.add(prefixo ? token + CURINGA : token);
+            }
+        }
+        return tokens;
+    }
+
+    private void coletar(Campo campo, String termo, Set<Integer> destino) {
+        NavigableMap<String, Set<Integer>> indice = termos.get(campo);
+        if (termo.charAt(termo.length() - 1) == CURINGA) {
+            String prefixo = termo.substring(0, termo.length() - 1);
+            for (Set<Integer> ids : indice.subMap(prefixo, true, prefixo + Character.MAX_VALUE, false).values()) {
+                destino.addAll(ids);
+            }
+        } else {
+            Set<Integer> ids = indice.get(termo);
+            if (ids != null) {
+                destino.addAll(ids);
+            }
+        }
+    }
+
+    /**
+     * Copia os documentos dos menores IDs, em ordem crescente. Um heap dos limite menores IDs evita
+     * ordenar (e copiar) todo o conjunto quando a busca casa com boa parte da tabela.
+     */
+    private List<HistoricoConsulta> documentosOrdenados(Collection<Integer> ids, int limite) {
+        PriorityQueue<Integer> menores = new PriorityQueue<>(Math.min(limite, ids.size()) + 1, Comparator.reverseOrder());
+        for (Integer id : ids) {
+            if (menores.size() < limite) {
+                menores.offer(id);
+            } else if (id < menores.peek()) {
+                menores.poll();
+                menores.offer(id);
+            }
+        }
+        HistoricoConsulta[] resultado = new HistoricoConsulta[menores.size()];
+        for (int i = resultado.length - 1; i >= 0; i--) {
+            resultado[i] = copiar(documentos.get(menores.poll()));
+        }
+        return Arrays.asList(resultado);
+    }
+
+    private void indexarSemLock(HistoricoConsulta historico) {
+        int id = historico.getIdHistorico();
+        documentos.put(id, copiar(historico));
+        adicionarTermos(Campo.SINTOMAS, historico.getSintomasHistorico(), id);
+        adicionarTermos(Campo.DIAGNOSTICO, historico.getDiagnostico(), id);
+        adicionarTermos(Campo.OBSERVACAO, historico.getObservacao(), id);
+    }
+
+    private void adicionarTermos(Campo campo, String texto, int id) {
+        NavigableMap<String, Set<Integer>> indice = termos.get(campo);
+        for (String token : tokenizar(texto)) {
+            indice.computeIfAbsent(token, t -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void removerSemLock(int id) {
+        HistoricoConsulta anterior = documentos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        removerTermos(Campo.SINTOMAS, anterior.getSintomasHistorico(), id);
+        removerTermos(Campo.DIAGNOSTICO, anterior.getDiagnostico(), id);
+        removerTermos(Campo.OBSERVACAO, anterior.getObservacao(), id);
+    }
+
+    private void removerTermos(Campo campo, String texto, int id) {
+        NavigableMap<String, Set<Integer>> indice = termos.get(campo);
+        for (String token : tokenizar(texto)) {
+            Set<Integer> ids = indice.get(token);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                indice.remove(token);
+            }
+        }
+    }
+
+    private static HistoricoConsulta copiar(HistoricoConsulta origem) {
+        HistoricoConsulta copia = new HistoricoConsulta(
+                origem.getSintomasHistorico(), origem.getDiagnostico(), origem.getObservacao());
+        copia.setIdHistorico(origem.getIdHistorico());
+        copia.setGravidade(origem.getGravidade());
+        return copia;
+    }
+}
@@ -0,0 +1,311 @@
+package br.com.fiap.search;
+
+import br.com.fiap.models.Paciente;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de trigramas em memória sobre o nome dos pacientes.
+ *
+ * Cada palavra do nome normalizado vira trigramas com preenchimento ("  ma", " mar", "mar", ...),
+ * como no pg_trgm. A busca conta os trigramas em comum com cada candidato e ordena pela
+ * similaridade de Jaccard; nomes que começam com o texto buscado (no nome ou em alguma
+ * palavra) vêm primeiro. O índice é carregado na inicialização e mantido pelo PacienteDao.
+ */
+@ApplicationScoped
+public class IndiceNomesPacientes {
+
+    /** Similaridade mínima para um nome entrar no resultado quando não casa por prefixo */
+    static final double SIMILARIDADE_MINIMA = 0.3;
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Resultado> POR_RELEVANCIA = Comparator
+            .comparingDouble(Resultado::pontuacao)
+            .thenComparing(r -> r.entrada().nomeNormalizado(), Comparator.reverseOrder());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Trigrama -> posições (slots) dos pacientes que o contêm, em ordem crescente */
+    private final Map<String, ListaInt> trigramas = new HashMap<>();
+
+    /** Pacientes em posições densas, para a contagem usar um int[] em vez de mapas */
+    private Entrada[] entradas = new Entrada[1024];
+    private final Map<Integer, Integer> slotPorId = new HashMap<>();
+    private final ListaInt slotsLivres = new ListaInt();
+    private int proximoSlot;
+    private volatile boolean carregado;
+
+    /**
+     * Contadores de trigramas em comum, reaproveitados entre buscas. Buscas simultâneas (sob o
+     * read lock) usam vetores diferentes; cada busca devolve o seu zerado só nos candidatos.
+     */
+    private final ConcurrentLinkedQueue<int[]> contadores = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Carrega o índice com todos os pacientes, se ainda não foi carregado
+     * @param fonte fornece a lista completa de pacientes (normalmente o DAO)
+     */
+    public void garantirCarregado(Supplier<List<Paciente>> fonte) {
+        if (carregado) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (carregado) {
+                return;
+            }
+            for (Paciente paciente : fonte.get()) {
+                indexarSemLock(paciente);
+            }
+            carregado = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    /**
+     * Indexa (ou reindexa) um paciente já gravado no banco.
+     * Antes da carga não faz nada: a carga lerá o registro do banco.
+     */
+    public void indexar(Paciente paciente) {
+        if (paciente == null || paciente.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!carregado) {
+                return;
+            }
+            removerSemLock(paciente.getId());
+            indexarSemLock(paciente);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um paciente excluído do banco
+     */
+    public void remover(int idPaciente) {
+        lock.writeLock().lock();
+        try {
+            if (!carregado) {
+                return;
+            }
+            removerSemLock(idPaciente);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca os pacientes cujo nome mais se parece com o texto informado
+     * @param nome texto digitado (parcial, com ou sem acento)
+     * @param limite número máximo de resultados
+     * @return pacientes ordenados do mais para o menos parecido
+     */
+    public List<Paciente> buscar(String nome, int limite) {
+        String consulta = Texto.normalizar(nome);
+        Set<String> trigramasConsulta = gerarTrigramas(consulta);
+        if (trigramasConsulta.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        int palavrasConsulta = contarPalavras(consulta);
+        String inicioDePalavra = " " + consulta;
+        lock.readLock().lock();
+        int[] emComum = null;
+        ListaInt candidatos = new ListaInt();
+        try {
+            emComum = contadores.poll();
+            if (emComum == null || emComum.length < proximoSlot) {
+                emComum = new int[Math.max(proximoSlot, entradas.length)];
+            }
+            for (String trigrama : trigramasConsulta) {
+                ListaInt slots = trigramas.get(trigrama);
+                if (slots == null) {
+                    continue;
+                }
+                for (int i = 0; i < slots.tamanho; i++) {
+                    int slot = slots.valores[i];
+                    if (emComum[slot]++ == 0) {
+                        candidatos.adicionar(slot);
+                    }
+                }
+            }
+
+            // Um prefixo de palavra contém todos os trigramas da consulta menos o de fim de palavra
+            int minimoParaPrefixo = trigramasConsulta.size() - palavrasConsulta;
+            PriorityQueue<Resultado> melhores = new PriorityQueue<>(limite + 1, POR_RELEVANCIA);
+            for (int i = 0; i < candidatos.tamanho; i++) {
+                int slot = candidatos.valores[i];
+                Entrada entrada = entradas[slot];
+                int comum = emComum[slot];
+                double similaridade = (double) comum / (trigramasConsulta.size() + entrada.totalTrigramas() - comum);
+                boolean prefixo = comum >= minimoParaPrefixo
+                        && (entrada.nomeNormalizado().startsWith(consulta)
+                        || entrada.nomeNormalizado().contains(inicioDePalavra));
+                if (!prefixo && similaridade < SIMILARIDADE_MINIMA) {
+                    continue;
+                }
+                melhores.offer(new Resultado(entrada, similaridade + (prefixo ? 1.0 : 0.0)));
+                if (melhores.size() > limite) {
+                    melhores.poll();
+                }
+            }
+
+            List<Paciente> resultado = new ArrayList<>(melhores.size());
+            while (!melhores.isEmpty()) {
+                resultado.add(copiar(melhores.poll().entrada().paciente()));
+            }
+            Collections.reverse(resultado);
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+            if (emComum != null) {
+                for (int i = 0; i < candidatos.tamanho; i++) {
+                    emComum[candidatos.valores[i]] = 0;
+                }
+                contadores.offer(emComum);
+            }
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return slotPorId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static Set<String> gerarTrigramas(String nomeNormalizado) {
+        Set<String> resultado = new HashSet<>();
+        for (String palavra : SEPARADORES.split(nomeNormalizado)) {
+            if (palavra.isEmpty()) {
+                continue;
+            }
+            String preenchida = "  " + palavra + " ";
+            for (int i = 0; i + 3 <= preenchida.length(); i++) {
+                resultado.add(preenchida.substring(i, i + 3));
+            }
+        }
+        return resultado;
+    }
+
+    private static int contarPalavras(String nomeNormalizado) {
+        int palavras = 0;
+        for (String palavra : SEPARADORES.split(nomeNormalizado)) {
+            if (!palavra.isEmpty()) {
+                palavras++;
+            }
+        }
+        return palavras;
+    }
+
+    private void indexarSemLock(Paciente paciente) {
+        String nomeNormalizado = Texto.normalizar(paciente.getNome());
+        Set<String> doNome = gerarTrigramas(nomeNormalizado);
+
+        int slot;
+        if (slotsLivres.tamanho > 0) {
+            slot = slotsLivres.valores[--slotsLivres.tamanho];
+        } else {
+            slot = proximoSlot++;
+            if (slot == entradas.length) {
+                entradas = Arrays.copyOf(entradas, entradas.length * 2);
+            }
+        }
+        entradas[slot] = new Entrada(copiar(paciente), nomeNormalizado, doNome.size());
+        slotPorId.put(paciente.getId(), slot);
+        for (String trigrama : doNome) {
+            trigramas.computeIfAbsent(trigrama, t -> new ListaInt()).inserirOrdenado(slot);
+        }
+    }
+
+    private void removerSemLock(int id) {
+        Integer slot = slotPorId.remove(id);
+        if (slot == null) {
+            return;
+        }
+        Entrada anterior = entradas[slot];
+        entradas[slot] = null;
+        slotsLivres.adicionar(slot);
+        for (String trigrama : gerarTrigramas(anterior.nomeNormalizado())) {
+            ListaInt slots = trigramas.get(trigrama);
+            if (slots != null && slots.removerOrdenado(slot) && slots.tamanho == 0) {
+                trigramas.remove(trigrama);
+            }
+        }
+    }
+
+    private static Paciente copiar(Paciente origem) {
+        return new Paciente(origem.getId(), origem.getNome(), origem.getCpf());
+    }
+
+    /**
+     * Lista de int sem boxing. As listas de ocorrência dos trigramas ficam ordenadas, para que
+     * inserção e remoção localizem o slot por busca binária.
+     */
+    private static final class ListaInt {
+        private int[] valores = new int[4];
+        private int tamanho;
+
+        void adicionar(int valor) {
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, tamanho * 2);
+            }
+            valores[tamanho++] = valor;
+        }
+
+        void inserirOrdenado(int valor) {
+            int posicao = Arrays.binarySearch(valores, 0, tamanho, valor);
+            if (posicao >= 0) {
+                return;
+            }
+            posicao = -posicao - 1;
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, tamanho * 2);
+            }
+            System.arraycopy(valores, posicao, valores, posicao + 1, tamanho - posicao);
+            valores[posicao] = valor;
+            tamanho++;
+        }
+
+        boolean removerOrdenado(int valor) {
+            int posicao = Arrays.binarySearch(valores, 0, tamanho, valor);
+            if (posicao < 0) {
+                return false;
+            }
+            System.arraycopy(valores, posicao + 1, valores, posicao, tamanho - posicao - 1);
+            tamanho--;
+            return true;
+        }
+    }
+
+    private record Entrada(Paciente paciente, String nomeNormalizado, int totalTrigramas) {
+    }
+
+    private record Resultado(Entrada entrada, double pontuacao) {
+    }
+}
@@ -0,0 +1,27 @@
+package br.com.fiap.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização de texto compartilhada pelos índices de busca
+ */
+public final class Texto {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+    private Texto() {
+    }
+
+    /**
+     * Remove acentos, converte para minúsculas e apara espaços
+     */
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return "";
+        }
+        String semAcento = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return semAcento.toLowerCase(Locale.ROOT).trim();
+    }
+}
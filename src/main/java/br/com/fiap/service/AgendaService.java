@@ -0,0 +1,174 @@
+package br.com.fiap.service;
+
+import br.com.fiap.dao.MedicoDao;
+import br.com.fiap.dao.VersoesTabelas;
+import br.com.fiap.dto.HorarioDisponivelDto;
+import br.com.fiap.models.Medico;
+import br.com.fiap.search.AgendaMedicos;
+import br.com.fiap.search.EspecialidadesMedicos;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Serviço de disponibilidade na agenda dos médicos
+ */
+@ApplicationScoped
+public class AgendaService {
+
+    /**
+     * Quantidade padrão e máxima de horários devolvidos
+     */
+    public static final int LIMITE_PADRAO = 10;
+    public static final int LIMITE_MAXIMO = 100;
+
+    /**
+     * Período máximo de uma busca, em dias; sem ate, a busca cobre uma semana
+     */
+    public static final int PERIODO_MAXIMO_DIAS = 31;
+    private static final int PERIODO_PADRAO_DIAS = 7;
+
+    @Inject
+    private ConsultaOnlineService consultaOnlineService;
+
+    @Inject
+    private MedicoDao medicoDao;
+
+    @Inject
+    private VersoesTabelas versoes;
+
+    @Inject
+    private AgendaMedicos agenda;
+
+    @Inject
+    private EspecialidadesMedicos especialidades;
+
+    @ConfigProperty(name = "hc.agenda.duracao-padrao-minutos", defaultValue = "30")
+    int duracaoPadrao;
+
+    @ConfigProperty(name = "hc.agenda.abertura", defaultValue = "08:00")
+    LocalTime abertura;
+
+    @ConfigProperty(name = "hc.agenda.fechamento", defaultValue = "18:00")
+    LocalTime fechamento;
+
+    /**
+     * Primeiros horários livres entre todos os médicos da especialidade.
+     * Cada médico contribui com seus horários livres já em ordem (AgendaMedicos.horariosLivres)
+     * e as listas são intercaladas por um heap até completar o limite, então o custo depende
+     * do número de médicos e do limite, não do histórico de consultas.
+     * @param de primeiro dia (yyyy-MM-dd), padrão hoje; horários já passados não entram
+     * @param ate último dia, inclusive; padrão de + 6 dias
+     * @throws IllegalArgumentException para parâmetros inválidos
+     */
+    public List<HorarioDisponivelDto> buscarDisponibilidade(String especialidade, String de, String ate,
+                                                           Integer duracao, Integer limite) {
+        if (especialidade == null || especialidade.isBlank()) {
+            throw new IllegalArgumentException("Especialidade é obrigatória");
+        }
+        LocalDate primeiroDia = de == null ? LocalDate.now() : interpretarData("de", de);
+        LocalDate ultimoDia = ate == null ? primeiroDia.plusDays(PERIODO_PADRAO_DIAS - 1) : interpretarData("ate", ate);
+        if (ultimoDia.isBefore(primeiroDia)) {
+            throw new IllegalArgumentException("ate não pode ser anterior a de");
+        }
+        if (ChronoUnit.DAYS.between(primeiroDia, ultimoDia) >= PERIODO_MAXIMO_DIAS) {
+            throw new IllegalArgumentException("Período máximo de " + PERIODO_MAXIMO_DIAS + " dias");
+        }
+        int expediente = (fechamento.toSecondOfDay() - abertura.toSecondOfDay()) / 60;
+        int minutos = duracao == null ? duracaoPadrao : duracao;
+        if (minutos < 1 || minutos > expediente) {
+            throw new IllegalArgumentException("Duração deve estar entre 1 e " + expediente + " minutos");
+        }
+        int tamanho = limite == null ? LIMITE_PADRAO : limite;
+        if (tamanho < 1 || tamanho > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("limite deve estar entre 1 e " + LIMITE_MAXIMO);
+        }
+
+        List<Medico> medicos = especialidades.medicos(especialidade,
+                versoes.versao(VersoesTabelas.Tabela.MEDICOS), this::listarMedicos);
+        if (medicos.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        consultaOnlineService.carregarAgenda();
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime inicio = primeiroDia.atStartOfDay();
+        if (inicio.isBefore(agora)) {
+            inicio = agora;
+        }
+        LocalDateTime fim = ultimoDia.plusDays(1).atStartOfDay();
+
+        PriorityQueue<Fila> filas = new PriorityQueue<>(medicos.size(), Fila.POR_PROXIMO_HORARIO);
+        for (Medico medico : medicos) {
+            List<LocalDateTime> livres = agenda.horariosLivres(medico.getIdMedico(), inicio, fim, minutos,
+                    abertura, fechamento, tamanho);
+            if (!livres.isEmpty()) {
+                filas.add(new Fila(medico, livres));
+            }
+        }
+
+        List<HorarioDisponivelDto> horarios = new ArrayList<>(tamanho);
+        while (horarios.size() < tamanho && !filas.isEmpty()) {
+            Fila fila = filas.poll();
+            horarios.add(new HorarioDisponivelDto(fila.medico, fila.proximo(), minutos));
+            if (fila.avancar()) {
+                filas.add(fila);
+            }
+        }
+        return horarios;
+    }
+
+    private List<Medico> listarMedicos() {
+        try {
+            return medicoDao.listarMedicos();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar médicos", e);
+        }
+    }
+
+    private static LocalDate interpretarData(String parametro, String valor) {
+        try {
+            return LocalDate.parse(valor.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(parametro + " deve estar no formato yyyy-MM-dd: " + valor);
+        }
+    }
+
+    /**
+     * Horários livres de um médico ainda não consumidos pela intercalação
+     */
+    private static final class Fila {
+
+        static final Comparator<Fila> POR_PROXIMO_HORARIO = Comparator
+                .comparing(Fila::proximo)
+                .thenComparingInt(fila -> fila.medico.getIdMedico());
+
+        final Medico medico;
+        final List<LocalDateTime> livres;
+        int posicao;
+
+        Fila(Medico medico, List<LocalDateTime> livres) {
+            this.medico = medico;
+            this.livres = livres;
+        }
+
+        LocalDateTime proximo() {
+            return livres.get(posicao);
+        }
+
+        boolean avancar() {
+            return ++posicao < livres.size();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.fiap.service;
+
+import br.com.fiap.dao.HistoricoConsultaDao;
+import br.com.fiap.models.GravidadeDiagnostico;
+import br.com.fiap.models.HistoricoConsulta;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Classifica em blocos a gravidade dos históricos já existentes.
+ * Cada bloco é lido por keyset (id_historico > cursor) e gravado em um único batch,
+ * então a tarefa pode ser interrompida e executada de novo sem refazer o que já foi salvo.
+ */
+@ApplicationScoped
+public class BackfillGravidade {
+
+    private static final Logger LOG = Logger.getLogger(BackfillGravidade.class);
+
+    @Inject
+    private HistoricoConsultaDao historicoDao;
+
+    @Inject
+    private ClassificadorGravidade classificador;
+
+    @ConfigProperty(name = "hc.gravidade.backfill.tamanho-bloco", defaultValue = "500")
+    int tamanhoBloco;
+
+    @ConfigProperty(name = "hc.gravidade.backfill.na-inicializacao", defaultValue = "false")
+    boolean naInicializacao;
+
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+
+    void aoIniciar(@Observes StartupEvent evento) {
+        if (naInicializacao) {
+            Thread.ofVirtual().name("backfill-gravidade").start(() -> executar(false));
+        }
+    }
+
+    /**
+     * Executa o backfill
+     * @param reclassificar false para classificar só registros sem gravidade;
+     *                      true para reavaliar todos (ex.: após trocar o classificador)
+     * @return número de registros cuja gravidade foi gravada
+     * @throws IllegalStateException se já houver um backfill em andamento
+     */
+    public int executar(boolean reclassificar) {
+        if (!emExecucao.compareAndSet(false, true)) {
+            throw new IllegalStateException("Backfill de gravidade já está em execução");
+        }
+        try {
+            int cursor = 0;
+            int gravados = 0;
+            List<HistoricoConsulta> bloco;
+            do {
+                bloco = historicoDao.listarBlocoParaClassificacao(cursor, tamanhoBloco, !reclassificar);
+                List<HistoricoConsulta> alterados = new ArrayList<>(bloco.size());
+                for (HistoricoConsulta historico : bloco) {
+                    GravidadeDiagnostico gravidade = classificador.classificar(historico);
+                    if (gravidade != historico.getGravidade()) {
+                        historico.setGravidade(gravidade);
+                        alterados.add(historico);
+                    }
+                }
+                gravados += historicoDao.atualizarGravidades(alterados, !reclassificar);
+                if (!bloco.isEmpty()) {
+                    cursor = bloco.get(bloco.size() - 1).getIdHistorico();
+                }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debugf("Backfill de gravidade: cursor=%s, gravados=%s", cursor, gravados);
+                }
+            } while (bloco.size() == tamanhoBloco);
+
+            LOG.infof("Backfill de gravidade concluído: %d registros classificados", gravados);
+            return gravados;
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.fiap.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.jboss.logging.Logger;
+
+/**
+ * Agrupa leituras concorrentes pela mesma chave (single-flight): a primeira chamada executa
+ * a consulta e as que chegarem enquanto ela está em andamento recebem o mesmo resultado,
+ * inclusive a mesma exceção. Nada fica guardado depois que a consulta termina.
+ *
+ * Para leituras de linhas que podem ser alteradas, a chave deve incluir a versão da tabela
+ * (ChaveVersionada): depois de uma escrita a versão muda e as chamadas seguintes iniciam uma
+ * consulta nova, em vez de receber o valor de uma consulta iniciada antes da escrita.
+ *
+ * Métricas, por operação (o ID não vira tag para não explodir a cardinalidade):
+ * - hc.chamada.unica.chamadas{papel=executada|compartilhada}
+ * - hc.chamada.unica.compartilhadas: quantas chamadas aproveitaram cada consulta executada
+ * O detalhe por chave sai em DEBUG quando uma consulta foi compartilhada.
+ */
+public final class ChamadaUnica<K, V> {
+
+    private static final Logger LOG = Logger.getLogger(ChamadaUnica.class);
+
+    static final String CONTADOR_CHAMADAS = "hc.chamada.unica.chamadas";
+    static final String RESUMO_COMPARTILHADAS = "hc.chamada.unica.compartilhadas";
+
+    private final String operacao;
+    private final ConcurrentMap<K, Voo<V>> emAndamento = new ConcurrentHashMap<>();
+    private final Counter executadas;
+    private final Counter compartilhadas;
+    private final DistributionSummary compartilhadasPorConsulta;
+
+    /**
+     * @param operacao nome da operação nas métricas, ex.: "paciente.buscarPorId"
+     */
+    public ChamadaUnica(String operacao, MeterRegistry registry) {
+        this.operacao = operacao;
+        this.executadas = Counter.builder(CONTADOR_CHAMADAS)
+                .description("Chamadas por chave: executadas no banco ou compartilhadas com uma consulta em andamento")
+                .tag("operacao", operacao)
+                .tag("papel", "executada")
+                .register(registry);
+        this.compartilhadas = Counter.builder(CONTADOR_CHAMADAS)
+                .description("Chamadas por chave: executadas no banco ou compartilhadas com uma consulta em andamento")
+                .tag("operacao", operacao)
+                .tag("papel", "compartilhada")
+                .register(registry);
+        this.compartilhadasPorConsulta = DistributionSummary.builder(RESUMO_COMPARTILHADAS)
+                .description("Chamadas que aproveitaram cada consulta executada")
+                .tag("operacao", operacao)
+                .register(registry);
+    }
+
+    /**
+     * Executa a carga para a chave, ou aguarda a que já estiver em andamento para ela
+     */
+    public V executar(K chave, Supplier<V> carga) {
+        Voo<V> novo = new Voo<>();
+        Voo<V> existente = emAndamento.putIfAbsent(chave, novo);
+        if (existente != null) {
+            existente.seguidores.incrementAndGet();
+            compartilhadas.increment();
+            return aguardar(existente);
+        }
+
+        executadas.increment();
+        try {
+            V valor = carga.get();
+            emAndamento.remove(chave, novo);
+            novo.resultado.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            emAndamento.remove(chave, novo);
+            novo.resultado.completeExceptionally(e);
+            throw e;
+        } finally {
+            int seguidores = novo.seguidores.get();
+            compartilhadasPorConsulta.record(seguidores);
+            if (seguidores > 0 && LOG.isDebugEnabled()) {
+                LOG.debugf("%s(%s): consulta compartilhada com %d chamadas", operacao, chave, seguidores);
+            }
+        }
+    }
+
+    private static <V> V aguardar(Voo<V> voo) {
+        try {
+            return voo.resultado.join();
+        } catch (CompletionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (causa instanceof Error erro) {
+                throw erro;
+            }
+            throw new RuntimeException(causa);
+        }
+    }
+
+    private static final class Voo<V> {
+        final CompletableFuture<V> resultado = new CompletableFuture<>();
+        final AtomicInteger seguidores = new AtomicInteger();
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.fiap.service;
+
+/**
+ * Chave de uma leitura compartilhada por ID: o ID da linha e a versão da tabela (VersoesTabelas)
+ * lida antes da consulta. Uma chamada só aproveita consultas iniciadas na mesma versão, ou seja,
+ * depois da última escrita que ela já poderia ter observado.
+ */
+record ChaveVersionada(int id, long versaoTabela) {
+}
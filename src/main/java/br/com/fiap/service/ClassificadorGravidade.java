@@ -0,0 +1,14 @@
+package br.com.fiap.service;
+
+import br.com.fiap.models.GravidadeDiagnostico;
+import br.com.fiap.models.HistoricoConsulta;
+
+/**
+ * Classifica a gravidade de um histórico no momento da gravação.
+ * A implementação padrão é {@link ClassificadorPalavrasChave}; para trocá-la basta
+ * declarar outro bean que implemente esta interface.
+ */
+public interface ClassificadorGravidade {
+
+    GravidadeDiagnostico classificar(HistoricoConsulta historico);
+}
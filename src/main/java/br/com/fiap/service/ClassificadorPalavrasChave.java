@@ -0,0 +1,40 @@
+package br.com.fiap.service;
+
+import br.com.fiap.models.GravidadeDiagnostico;
+import br.com.fiap.models.HistoricoConsulta;
+import br.com.fiap.search.Texto;
+import io.quarkus.arc.DefaultBean;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Classificador por regras de palavra-chave: o diagnóstico é crítico quando contém
+ * alguma das palavras configuradas em hc.gravidade.palavras-criticas
+ * (comparação sem acento e sem diferenciar maiúsculas)
+ */
+@DefaultBean
+@ApplicationScoped
+public class ClassificadorPalavrasChave implements ClassificadorGravidade {
+
+    private final List<String> palavrasCriticas;
+
+    public ClassificadorPalavrasChave(
+            @ConfigProperty(name = "hc.gravidade.palavras-criticas", defaultValue = "grave") List<String> palavrasCriticas) {
+        this.palavrasCriticas = palavrasCriticas.stream()
+                .map(Texto::normalizar)
+                .filter(p -> !p.isEmpty())
+                .toList();
+    }
+
+    @Override
+    public GravidadeDiagnostico classificar(HistoricoConsulta historico) {
+        String diagnostico = Texto.normalizar(historico.getDiagnostico());
+        for (String palavra : palavrasCriticas) {
+            if (diagnostico.contains(palavra)) {
+                return GravidadeDiagnostico.CRITICO;
+            }
+        }
+        return GravidadeDiagnostico.NORMAL;
+    }
+}
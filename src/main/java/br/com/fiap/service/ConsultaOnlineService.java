@@ -4,19 +4,40 @@ import br.com.fiap.dao.ConsultaOnlineDao;
 import br.com.fiap.dao.ExameDao;
 import br.com.fiap.dao.MedicoDao;
 import br.com.fiap.dao.PacienteDao;
+import br.com.fiap.dao.ResultadoEscrita;
+import br.com.fiap.dao.VersoesTabelas;
 import br.com.fiap.dto.ConsultaOnlineRequestDto;
 import br.com.fiap.dto.ConsultaOnlineResponseDto;
+import br.com.fiap.dto.CursorConsulta;
+import br.com.fiap.dto.PaginaDto;
+import br.com.fiap.models.CampoConsulta;
 import br.com.fiap.models.ConsultaOnline;
-import br.com.fiap.models.Exame;
-import br.com.fiap.models.Medico;
-import br.com.fiap.models.Paciente;
+import br.com.fiap.search.AgendaMedicos;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.NotFoundException;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
 /**
  * Serviço para consultas online
@@ -24,6 +45,24 @@ import java.util.stream.Collectors;
 @ApplicationScoped
 public class ConsultaOnlineService {
 
+    private static final Logger LOG = Logger.getLogger(ConsultaOnlineService.class);
+
+    /**
+     * Tamanho de página padrão e máximo da listagem paginada
+     */
+    public static final int LIMITE_PADRAO = 50;
+    public static final int LIMITE_MAXIMO = 200;
+
+    /**
+     * Quantidade máxima de consultas aceitas em um cadastro em lote
+     */
+    public static final int LOTE_MAXIMO = 5000;
+
+    /**
+     * Dias à frente procurados ao sugerir o próximo horário livre em um conflito
+     */
+    private static final int DIAS_SUGESTAO = 30;
+
     @Inject
     private ConsultaOnlineDao consultaOnlineDao;
 
@@ -36,16 +75,133 @@ public class ConsultaOnlineService {
     @Inject
     private PacienteDao pacienteDao;
 
+    @Inject
+    private MeterRegistry registry;
+
+    @Inject
+    private AgendaMedicos agenda;
+
+    @Inject
+    private VersoesTabelas versoes;
+
+    @ConfigProperty(name = "hc.agenda.duracao-padrao-minutos", defaultValue = "30")
+    int duracaoPadrao;
+
+    @ConfigProperty(name = "hc.agenda.abertura", defaultValue = "08:00")
+    LocalTime abertura;
+
+    @ConfigProperty(name = "hc.agenda.fechamento", defaultValue = "18:00")
+    LocalTime fechamento;
+
+    @ConfigProperty(name = "hc.agenda.dias-anteriores-carregados", defaultValue = "1")
+    int diasAnterioresCarregados;
+
+    @ConfigProperty(name = "hc.agenda.carregar-na-inicializacao", defaultValue = "true")
+    boolean carregarAgendaNaInicializacao;
+
+    /**
+     * Serializa verificação de conflito e gravação por médico: duas marcações
+     * simultâneas no mesmo horário não passam ambas pela verificação
+     */
+    private final ConcurrentMap<Integer, ReentrantLock> travasPorMedico = new ConcurrentHashMap<>();
+
+    /**
+     * Leituras concorrentes do mesmo ID na mesma versão da tabela compartilham uma única consulta ao banco
+     */
+    private ChamadaUnica<ChaveVersionada, ConsultaOnline> buscasPorId;
+
+    @PostConstruct
+    void iniciar() {
+        buscasPorId = new ChamadaUnica<>("consulta.buscarPorId", registry);
+    }
+
+    /**
+     * Carrega a agenda dos médicos na inicialização para a primeira marcação não pagar a carga.
+     * Se o banco estiver indisponível, a carga é refeita na primeira marcação.
+     */
+    void aoIniciar(@Observes StartupEvent evento) {
+        if (!carregarAgendaNaInicializacao) {
+            return;
+        }
+        try {
+            carregarAgenda();
+            LOG.infof("Agenda dos médicos carregada: %d consultas com horário", agenda.tamanho());
+        } catch (RuntimeException e) {
+            LOG.warn("Não foi possível carregar a agenda dos médicos na inicialização", e);
+        }
+    }
+
+    /**
+     * Garante a agenda carregada com as consultas a partir de hoje menos
+     * hc.agenda.dias-anteriores-carregados; marcações mais antigas não são verificadas
+     */
+    void carregarAgenda() {
+        agenda.garantirCarregado(() -> consultaOnlineDao.listarHorariosAPartirDe(
+                LocalDate.now().minusDays(diasAnterioresCarregados)));
+    }
+
     /**
      * Lista todas as consultas online
      */
     public List<ConsultaOnlineResponseDto> listar() {
-        List<ConsultaOnline> consultaOnlines = consultaOnlineDao.listarConsultasOnline();
+        return listar(CampoConsulta.TODOS);
+    }
+
+    /**
+     * Lista todas as consultas online só com os campos da projeção
+     */
+    public List<ConsultaOnlineResponseDto> listar(Set<CampoConsulta> campos) {
+        List<ConsultaOnline> consultaOnlines = consultaOnlineDao.listarConsultasOnline(campos);
         return consultaOnlines.stream()
-                .map(ConsultaOnlineResponseDto::convertToDto)
+                .map(consulta -> ConsultaOnlineResponseDto.convertToDto(consulta, campos))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Exporta todas as consultas online uma a uma, sem montar listas intermediárias
+     */
+    public void exportar(Consumer<ConsultaOnlineResponseDto> consumidor) {
+        consultaOnlineDao.percorrerConsultasOnline(
+                consulta -> consumidor.accept(ConsultaOnlineResponseDto.convertToDto(consulta)));
+    }
+
+    /**
+     * Lista uma página de consultas online a partir de um cursor keyset
+     */
+    public PaginaDto<ConsultaOnlineResponseDto> listarPagina(String cursor, Integer limite) {
+        return listarPagina(cursor, limite, CampoConsulta.TODOS);
+    }
+
+    /**
+     * Lista uma página de consultas online só com os campos da projeção.
+     * Limite acima de LIMITE_MAXIMO é reduzido a ele; o limite usado volta na página.
+     */
+    public PaginaDto<ConsultaOnlineResponseDto> listarPagina(String cursor, Integer limite, Set<CampoConsulta> campos) {
+        int tamanho = limite == null ? LIMITE_PADRAO : Math.min(limite, LIMITE_MAXIMO);
+        if (tamanho <= 0) {
+            throw new IllegalArgumentException("Limite deve ser positivo");
+        }
+
+        CursorConsulta inicio = cursor == null ? null : CursorConsulta.decodificar(cursor);
+        List<ConsultaOnline> consultas = consultaOnlineDao.listarConsultasOnlinePaginado(
+                inicio == null ? null : inicio.getDataConsulta(),
+                inicio == null ? null : inicio.getIdConsulta(),
+                tamanho,
+                campos);
+
+        String proximoCursor = null;
+        if (consultas.size() > tamanho) {
+            consultas = consultas.subList(0, tamanho);
+            ConsultaOnline ultima = consultas.get(tamanho - 1);
+            proximoCursor = new CursorConsulta(ultima.getDataConsulta(), ultima.getIdConsulta()).codificar();
+        }
+
+        List<ConsultaOnlineResponseDto> itens = consultas.stream()
+                .map(consulta -> ConsultaOnlineResponseDto.convertToDto(consulta, campos))
+                .collect(Collectors.toList());
+        return new PaginaDto<>(itens, proximoCursor, tamanho);
+    }
+
     /**
      * Busca consulta online por ID
      */
@@ -54,6 +210,19 @@ public class ConsultaOnlineService {
             throw new IllegalArgumentException("ID da consulta deve ser positivo");
         }
 
+        ChaveVersionada chave = new ChaveVersionada(id, versoes.versao(VersoesTabelas.Tabela.CONSULTAS));
+        ConsultaOnline consultaOnline = buscasPorId.executar(chave, () -> consultaOnlineDao.buscarPorIdConsultaOnline(id));
+        if (consultaOnline == null) {
+            throw new NotFoundException("Consulta online com ID " + id + " não encontrada");
+        }
+        return ConsultaOnlineResponseDto.convertToDto(consultaOnline);
+    }
+
+    /**
+     * Lê a consulta direto do banco, sem compartilhar leituras em andamento: usado logo depois de
+     * uma escrita, para devolver a versão gravada e não a de uma leitura iniciada antes dela
+     */
+    public ConsultaOnlineResponseDto buscarAposEscrita(int id) {
         ConsultaOnline consultaOnline = consultaOnlineDao.buscarPorIdConsultaOnline(id);
         if (consultaOnline == null) {
             throw new NotFoundException("Consulta online com ID " + id + " não encontrada");
@@ -62,118 +231,242 @@ public class ConsultaOnlineService {
     }
 
     /**
-     * Cadastra nova consulta online - VERSÃO CORRIGIDA
+     * Cadastra nova consulta online em um único round trip.
+     * Paciente, médico e exame são validados pelas chaves estrangeiras no próprio INSERT.
      */
     public ConsultaOnline cadastrar(ConsultaOnlineRequestDto consultaDto) throws SQLException {
-        validarDadosConsulta(consultaDto);
-
-
-        ConsultaOnline consulta = new ConsultaOnline();
-        consulta.setDataConsulta(consultaDto.getDataConsulta());
-        consulta.setStatus(consultaDto.getStatus());
-        consulta.setLink(consultaDto.getLink());
-
+        ConsultaOnline consulta = criarConsulta(consultaDto);
 
-        if (consultaDto.getIdPaciente() == null || consultaDto.getIdPaciente() <= 0) {
-            throw new IllegalArgumentException("ID do paciente é obrigatório");
-        }
-        Paciente paciente = pacienteDao.buscarPorIdPaciente(consultaDto.getIdPaciente());
-        if (paciente == null) {
-            throw new IllegalArgumentException("Paciente com ID " + consultaDto.getIdPaciente() + " não encontrado");
+        try {
+            gravarSemConflito(List.of(consulta), () -> consultaOnlineDao.cadastrarConsultaOnline(consulta));
+            return consulta;
+        } catch (IllegalArgumentException | HorarioIndisponivelException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.error("Erro detalhado ao cadastrar consulta", e);
+            throw new RuntimeException("Erro ao cadastrar consulta online: " + e.getMessage(), e);
         }
-        consulta.setIdPaciente(consultaDto.getIdPaciente());
-        consulta.setPaciente(paciente);
-
+    }
 
-        if (consultaDto.getIdMedico() == null || consultaDto.getIdMedico() <= 0) {
-            throw new IllegalArgumentException("ID do médico é obrigatório");
+    /**
+     * Cadastra um lote de consultas online.
+     * Paciente, médico e exame de todo o lote são validados com uma consulta
+     * por tabela, e a inserção ocorre em uma única transação.
+     * Horários que conflitam com a agenda ou entre si rejeitam o lote inteiro.
+     * Retorna os IDs gerados na mesma ordem do lote recebido.
+     */
+    public List<Integer> cadastrarEmLote(List<ConsultaOnlineRequestDto> lote) {
+        if (lote == null || lote.isEmpty()) {
+            throw new IllegalArgumentException("Lote de consultas não pode ser vazio");
         }
-        Medico medico = medicoDao.buscarPorIdMedico(consultaDto.getIdMedico());
-        if (medico == null) {
-            throw new IllegalArgumentException("Médico com ID " + consultaDto.getIdMedico() + " não encontrado");
+        if (lote.size() > LOTE_MAXIMO) {
+            throw new IllegalArgumentException("Lote não pode exceder " + LOTE_MAXIMO + " consultas");
         }
-        consulta.setIdMedico(consultaDto.getIdMedico());
-        consulta.setMedico(medico);
-
 
-        if (consultaDto.getIdExame() != null && consultaDto.getIdExame() > 0) {
-            Exame exame = exameDao.buscarPorIdExame(consultaDto.getIdExame());
-            if (exame == null) {
-                throw new IllegalArgumentException("Exame com ID " + consultaDto.getIdExame() + " não encontrado");
+        Set<Integer> idsPacientes = new HashSet<>();
+        Set<Integer> idsMedicos = new HashSet<>();
+        Set<Integer> idsExames = new HashSet<>();
+        for (int i = 0; i < lote.size(); i++) {
+            ConsultaOnlineRequestDto consultaDto = lote.get(i);
+            if (consultaDto == null) {
+                throw new IllegalArgumentException("Consulta na posição " + i + " é nula");
             }
+            try {
+                consultaDto.validateForCreate();
+                validarDadosConsulta(consultaDto);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Consulta na posição " + i + ": " + e.getMessage());
+            }
+            idsPacientes.add(consultaDto.getIdPaciente());
+            idsMedicos.add(consultaDto.getIdMedico());
+            if (consultaDto.getIdExame() != null && consultaDto.getIdExame() > 0) {
+                idsExames.add(consultaDto.getIdExame());
+            }
+        }
+
+        verificarExistentes("Paciente", idsPacientes, pacienteDao.buscarIdsExistentes(idsPacientes));
+        verificarExistentes("Médico", idsMedicos, medicoDao.buscarIdsExistentes(idsMedicos));
+        verificarExistentes("Exame", idsExames, exameDao.buscarIdsExistentes(idsExames));
+
+        List<ConsultaOnline> consultas = new ArrayList<>(lote.size());
+        for (ConsultaOnlineRequestDto consultaDto : lote) {
+            ConsultaOnline consulta = new ConsultaOnline();
+            consulta.setDataConsulta(consultaDto.getDataConsulta());
+            consulta.setStatus(consultaDto.getStatus());
+            consulta.setLink(consultaDto.getLink());
+            consulta.setIdPaciente(consultaDto.getIdPaciente());
+            consulta.setIdMedico(consultaDto.getIdMedico());
             consulta.setIdExame(consultaDto.getIdExame());
-            consulta.setExame(exame);
+            definirHorario(consulta, consultaDto);
+            consultas.add(consulta);
         }
 
-        try {
-            consultaOnlineDao.cadastrarConsultaOnline(consulta);
-            return consulta;
-        } catch (Exception e) {
-            System.out.println("Erro detalhado ao cadastrar consulta: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Erro ao cadastrar consulta online: " + e.getMessage(), e);
+        gravarSemConflito(consultas, () -> consultaOnlineDao.cadastrarConsultasOnlineEmLote(consultas));
+        return consultas.stream()
+                .map(ConsultaOnline::getIdConsulta)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Lança IllegalArgumentException listando os IDs solicitados que não existem
+     */
+    private void verificarExistentes(String entidade, Set<Integer> solicitados, Set<Integer> existentes) {
+        if (existentes.containsAll(solicitados)) {
+            return;
         }
+        List<Integer> ausentes = solicitados.stream()
+                .filter(id -> !existentes.contains(id))
+                .sorted()
+                .collect(Collectors.toList());
+        throw new IllegalArgumentException(entidade + " não encontrado para os IDs: " + ausentes);
     }
 
     /**
-     * Atualiza consulta online existente - VERSÃO CORRIGIDA
+     * Atualiza consulta online existente em um único round trip.
+     * A consulta inexistente é detectada pelo UPDATE sem linhas afetadas e
+     * referências inválidas pelas chaves estrangeiras.
      */
     public void atualizar(ConsultaOnlineRequestDto consultaDto, int id) throws SQLException {
+        atualizar(consultaDto, id, null);
+    }
+
+    /**
+     * Atualiza consulta online só se ela ainda estiver na versão informada (If-Match)
+     * @param versaoEsperada versão lida pelo cliente, ou null para atualizar em qualquer versão
+     * @throws jakarta.ws.rs.ClientErrorException com 412 se a consulta foi alterada depois da leitura
+     */
+    public void atualizar(ConsultaOnlineRequestDto consultaDto, int id, Integer versaoEsperada) throws SQLException {
         if (id <= 0) {
             throw new IllegalArgumentException("ID da consulta deve ser positivo para atualização");
         }
-        validarDadosConsulta(consultaDto);
 
+        ConsultaOnline consulta = criarConsulta(consultaDto);
+        consulta.setIdConsulta(id);
 
-        buscarPorId(id);
+        ResultadoEscrita[] resultado = new ResultadoEscrita[1];
+        try {
+            gravarSemConflito(List.of(consulta),
+                    () -> resultado[0] = consultaOnlineDao.atualizarConsultaOnline(consulta, versaoEsperada));
+        } catch (IllegalArgumentException | HorarioIndisponivelException e) {
+            throw e;
+        } catch (Exception e) {
+            LOG.error("Erro detalhado ao atualizar consulta", e);
+            throw new RuntimeException("Erro ao atualizar consulta online: " + e.getMessage(), e);
+        }
+        ResultadosEscrita.exigirAplicada(resultado[0], "Consulta online com ID " + id + " não encontrada");
+    }
 
-        ConsultaOnline consulta = new ConsultaOnline();
-        consulta.setIdConsulta(id);
-        consulta.setDataConsulta(consultaDto.getDataConsulta());
-        consulta.setStatus(consultaDto.getStatus());
-        consulta.setLink(consultaDto.getLink());
+    /**
+     * Executa a gravação com a agenda dos médicos envolvidos travada, depois de verificar que
+     * nenhuma consulta conflita com a agenda nem com outra da mesma lista.
+     * As travas são tomadas em ordem de ID do médico, então lotes concorrentes não se bloqueiam mutuamente.
+     * @throws HorarioIndisponivelException se algum horário já estiver ocupado
+     */
+    private void gravarSemConflito(List<ConsultaOnline> consultas, Runnable gravacao) {
+        List<Integer> medicos = consultas.stream()
+                .filter(AgendaMedicos::ocupaHorario)
+                .map(ConsultaOnline::getIdMedico)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        if (medicos.isEmpty()) {
+            gravacao.run();
+            return;
+        }
 
-        if (consultaDto.getIdPaciente() == null || consultaDto.getIdPaciente() <= 0) {
-            throw new IllegalArgumentException("ID do paciente é obrigatório");
+        carregarAgenda();
+        List<ReentrantLock> travas = new ArrayList<>(medicos.size());
+        try {
+            for (Integer idMedico : medicos) {
+                ReentrantLock trava = travasPorMedico.computeIfAbsent(idMedico, id -> new ReentrantLock());
+                trava.lock();
+                travas.add(trava);
+            }
+            verificarConflitos(consultas);
+            gravacao.run();
+        } finally {
+            for (int i = travas.size() - 1; i >= 0; i--) {
+                travas.get(i).unlock();
+            }
         }
-        Paciente paciente = pacienteDao.buscarPorIdPaciente(consultaDto.getIdPaciente());
-        if (paciente == null) {
-            throw new IllegalArgumentException("Paciente com ID " + consultaDto.getIdPaciente() + " não encontrado");
+    }
+
+    /**
+     * Verifica cada consulta contra a agenda e contra as anteriores da lista para o mesmo médico
+     */
+    private void verificarConflitos(List<ConsultaOnline> consultas) {
+        Map<Integer, List<Integer>> posicoesPorMedico = new HashMap<>();
+        for (int i = 0; i < consultas.size(); i++) {
+            ConsultaOnline consulta = consultas.get(i);
+            if (!AgendaMedicos.ocupaHorario(consulta)) {
+                continue;
+            }
+            String prefixo = consultas.size() > 1 ? "Consulta na posição " + i + ": " : "";
+
+            AgendaMedicos.Ocupacao ocupada = agenda.conflito(consulta.getIdMedico(), consulta.getDataConsulta(),
+                    consulta.getHoraInicio(), consulta.getDuracaoMinutos(), consulta.getIdConsulta());
+            if (ocupada != null) {
+                LocalDateTime sugestao = agenda.proximoHorarioLivre(consulta.getIdMedico(),
+                        consulta.getDataConsulta().atTime(consulta.getHoraInicio()), consulta.getDuracaoMinutos(),
+                        abertura, fechamento, DIAS_SUGESTAO);
+                throw new HorarioIndisponivelException(prefixo + "médico " + consulta.getIdMedico()
+                        + " já tem a consulta " + ocupada.idConsulta() + " de " + ocupada.getInicio()
+                        + " a " + ocupada.getFim()
+                        + (sugestao != null ? "; próximo horário livre: " + sugestao : ""));
+            }
+
+            List<Integer> anteriores = posicoesPorMedico.computeIfAbsent(consulta.getIdMedico(), id -> new ArrayList<>());
+            for (int j : anteriores) {
+                if (sobrepoe(consultas.get(j), consulta)) {
+                    throw new HorarioIndisponivelException(prefixo + "horário conflita com a consulta na posição " + j + " do lote");
+                }
+            }
+            anteriores.add(i);
         }
-        consulta.setIdPaciente(consultaDto.getIdPaciente());
-        consulta.setPaciente(paciente);
+    }
 
+    private static boolean sobrepoe(ConsultaOnline a, ConsultaOnline b) {
+        LocalDateTime inicioA = a.getDataConsulta().atTime(a.getHoraInicio());
+        LocalDateTime inicioB = b.getDataConsulta().atTime(b.getHoraInicio());
+        return inicioA.isBefore(inicioB.plusMinutes(b.getDuracaoMinutos()))
+                && inicioB.isBefore(inicioA.plusMinutes(a.getDuracaoMinutos()));
+    }
+
+    /**
+     * Monta a consulta a partir do DTO validando os campos obrigatórios
+     */
+    private ConsultaOnline criarConsulta(ConsultaOnlineRequestDto consultaDto) {
+        validarDadosConsulta(consultaDto);
 
+        if (consultaDto.getIdPaciente() == null || consultaDto.getIdPaciente() <= 0) {
+            throw new IllegalArgumentException("ID do paciente é obrigatório");
+        }
         if (consultaDto.getIdMedico() == null || consultaDto.getIdMedico() <= 0) {
             throw new IllegalArgumentException("ID do médico é obrigatório");
         }
-        Medico medico = medicoDao.buscarPorIdMedico(consultaDto.getIdMedico());
-        if (medico == null) {
-            throw new IllegalArgumentException("Médico com ID " + consultaDto.getIdMedico() + " não encontrado");
-        }
-        consulta.setIdMedico(consultaDto.getIdMedico());
-        consulta.setMedico(medico);
-
 
+        ConsultaOnline consulta = new ConsultaOnline();
+        consulta.setDataConsulta(consultaDto.getDataConsulta());
+        consulta.setStatus(consultaDto.getStatus());
+        consulta.setLink(consultaDto.getLink());
+        consulta.setIdPaciente(consultaDto.getIdPaciente());
+        consulta.setIdMedico(consultaDto.getIdMedico());
         if (consultaDto.getIdExame() != null && consultaDto.getIdExame() > 0) {
-            Exame exame = exameDao.buscarPorIdExame(consultaDto.getIdExame());
-            if (exame == null) {
-                throw new IllegalArgumentException("Exame com ID " + consultaDto.getIdExame() + " não encontrado");
-            }
             consulta.setIdExame(consultaDto.getIdExame());
-            consulta.setExame(exame);
-        } else {
-            consulta.setIdExame(0);
-            consulta.setExame(null);
         }
+        definirHorario(consulta, consultaDto);
+        return consulta;
+    }
 
-        try {
-            consultaOnlineDao.updateConsultaOnline(consulta);
-        } catch (Exception e) {
-            System.out.println("Erro detalhado ao atualizar consulta: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Erro ao atualizar consulta online: " + e.getMessage(), e);
+    /**
+     * Copia o horário do DTO; sem duração informada vale hc.agenda.duracao-padrao-minutos
+     */
+    private void definirHorario(ConsultaOnline consulta, ConsultaOnlineRequestDto consultaDto) {
+        if (consultaDto.getHoraInicio() == null) {
+            return;
         }
+        consulta.setHoraInicio(consultaDto.getHoraInicio());
+        consulta.setDuracaoMinutos(consultaDto.getDuracaoMinutos() != null ? consultaDto.getDuracaoMinutos() : duracaoPadrao);
     }
 
     /**
@@ -189,10 +482,20 @@ public class ConsultaOnlineService {
         if (consultaDto.getStatus().length() > 20) {
             throw new IllegalArgumentException("Status não pode exceder 20 caracteres");
         }
+        Integer duracao = consultaDto.getDuracaoMinutos();
+        if (duracao != null) {
+            if (consultaDto.getHoraInicio() == null) {
+                throw new IllegalArgumentException("hora_inicio é obrigatória quando duracao_minutos é informada");
+            }
+            if (duracao < 1 || duracao > AgendaMedicos.DURACAO_MAXIMA_MINUTOS) {
+                throw new IllegalArgumentException("Duração deve estar entre 1 e " + AgendaMedicos.DURACAO_MAXIMA_MINUTOS + " minutos");
+            }
+        }
     }
 
     /**
-     * Método depreciado para atualizar consulta
+     * Método depreciado para atualizar consulta; grava pelo mesmo caminho de atualizar(dto, id),
+     * em um único UPDATE e com o horário conferido na agenda
      */
     @Deprecated
     public void atualizar(ConsultaOnline consultaOnline) {
@@ -203,30 +506,42 @@ public class ConsultaOnlineService {
             throw new IllegalArgumentException("Data da consulta é obrigatória para atualização");
         }
 
-        buscarPorId(consultaOnline.getIdConsulta());
-
+        ResultadoEscrita[] resultado = new ResultadoEscrita[1];
         try {
-            consultaOnlineDao.updateConsultaOnline(consultaOnline);
+            gravarSemConflito(List.of(consultaOnline),
+                    () -> resultado[0] = consultaOnlineDao.atualizarConsultaOnline(consultaOnline, null));
+        } catch (IllegalArgumentException | HorarioIndisponivelException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Erro ao atualizar consulta online", e);
         }
+        ResultadosEscrita.exigirAplicada(resultado[0],
+                "Consulta online com ID " + consultaOnline.getIdConsulta() + " não encontrada");
     }
 
     /**
      * Exclui consulta online por ID
      */
     public void excluir(int id) {
+        excluir(id, null);
+    }
+
+    /**
+     * Exclui consulta online em um único DELETE, só se ela ainda estiver na versão informada (If-Match)
+     * @param versaoEsperada versão lida pelo cliente, ou null para excluir em qualquer versão
+     */
+    public void excluir(int id, Integer versaoEsperada) {
         if (id <= 0) {
             throw new IllegalArgumentException("ID da consulta deve ser positivo para exclusão");
         }
 
-        buscarPorId(id);
-
+        ResultadoEscrita resultado;
         try {
-            consultaOnlineDao.excluirConsultaOnline(id);
+            resultado = consultaOnlineDao.excluirConsultaOnline(id, versaoEsperada);
         } catch (Exception e) {
             throw new RuntimeException("Erro ao excluir consulta online", e);
         }
+        ResultadosEscrita.exigirAplicada(resultado, "Consulta online com ID " + id + " não encontrada");
     }
 
     /**
@@ -41,6 +41,16 @@ public class ExameService {
         return ExameResponseDto.convertToDto(exame);
     }
 
+    /**
+     * Busca vários exames em uma única consulta
+     * @param ids IDs separados por vírgula, ex.: "1,2,3"
+     * @return exames na ordem pedida; IDs inexistentes são omitidos
+     */
+    public List<ExameResponseDto> buscarPorIds(String ids) {
+        List<Integer> lista = ListaIds.interpretar(ids);
+        return ListaIds.naOrdem(lista, exameDao.buscarPorIds(lista), ExameResponseDto::convertToDto);
+    }
+
     /**
      * Cadastra novo exame
      */
@@ -81,22 +91,29 @@ public class ExameService {
             throw new IllegalArgumentException("Status do resultado é obrigatório para atualização");
         }
 
-
-        buscarPorId(id);
-
         Exame exame = new Exame();
         exame.setId_exame(id);
         exame.setNome_exame(exameDto.getNome_exame().trim());
         exame.setResultado_exame(exameDto.getResultado_exame().trim());
         exame.setStatus_resultado(exameDto.getStatus_resultado().trim());
 
-        exameDao.updateExame(exame);
+        ResultadosEscrita.exigirAplicada(exameDao.atualizarExame(exame, null), "Exame com ID " + id + " não encontrado");
     }
 
     /**
      * Atualiza exame existente (sobrecarga)
      */
     public void atualizar(Exame exame) throws SQLException {
+        atualizar(exame, null);
+    }
+
+    /**
+     * Atualiza exame em um único UPDATE, só se ele ainda estiver na versão informada (If-Match)
+     * @param versaoEsperada versão lida pelo cliente, ou null para atualizar em qualquer versão
+     * @return versão gravada, devolvida pelo próprio UPDATE
+     * @throws jakarta.ws.rs.ClientErrorException com 412 se o exame foi alterado depois da leitura
+     */
+    public int atualizar(Exame exame, Integer versaoEsperada) {
         if (exame.getId_exame() <= 0) {
             throw new IllegalArgumentException("ID do exame deve ser positivo para atualização");
         }
@@ -110,21 +127,28 @@ public class ExameService {
             throw new IllegalArgumentException("Status do resultado é obrigatório para atualização");
         }
 
-        exameDao.updateExame(exame);
+        ResultadosEscrita.exigirAplicada(exameDao.atualizarExame(exame, versaoEsperada),
+                "Exame com ID " + exame.getId_exame() + " não encontrado");
+        return exame.getVersao();
     }
 
     /**
      * Exclui exame por ID
      */
     public void excluir(int id) throws SQLException {
+        excluir(id, null);
+    }
+
+    /**
+     * Exclui exame em um único DELETE, só se ele ainda estiver na versão informada (If-Match)
+     * @param versaoEsperada versão lida pelo cliente, ou null para excluir em qualquer versão
+     */
+    public void excluir(int id, Integer versaoEsperada) {
         if (id <= 0) {
             throw new IllegalArgumentException("ID do exame deve ser positivo para exclusão");
         }
 
-
-        buscarPorId(id);
-
-        exameDao.excluirExame(id);
+        ResultadosEscrita.exigirAplicada(exameDao.excluirExame(id, versaoEsperada), "Exame com ID " + id + " não encontrado");
     }
 
     /**
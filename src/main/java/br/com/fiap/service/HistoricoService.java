@@ -3,7 +3,10 @@ package br.com.fiap.service;
 import br.com.fiap.dao.HistoricoConsultaDao;
 import br.com.fiap.dto.HistoricoConsultaRequestDto;
 import br.com.fiap.dto.HistoricoConsultaResponseDto;
+import br.com.fiap.dto.PaginaDto;
+import br.com.fiap.models.GravidadeDiagnostico;
 import br.com.fiap.models.HistoricoConsulta;
+import br.com.fiap.search.IndiceHistorico;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.NotFoundException;
@@ -16,9 +19,18 @@ import java.util.stream.Collectors;
 @ApplicationScoped
 public class HistoricoService {
 
+    static final int LIMITE_BUSCA_PADRAO = 50;
+    static final int LIMITE_BUSCA_MAXIMO = 200;
+
     @Inject
     private HistoricoConsultaDao historicoDao;
 
+    @Inject
+    private IndiceHistorico indice;
+
+    @Inject
+    private ClassificadorGravidade classificador;
+
     public List<HistoricoConsultaResponseDto> listar() {
         List<HistoricoConsulta> historicoConsultas = historicoDao.listarTodosHistoricos();
         return historicoConsultas.stream()
@@ -38,6 +50,16 @@ public class HistoricoService {
         return HistoricoConsultaResponseDto.convertToDto(historicoConsulta);
     }
 
+    /**
+     * Busca vários históricos em uma única consulta
+     * @param ids IDs separados por vírgula, ex.: "1,2,3"
+     * @return históricos na ordem pedida; IDs inexistentes são omitidos
+     */
+    public List<HistoricoConsultaResponseDto> buscarPorIds(String ids) {
+        List<Integer> lista = ListaIds.interpretar(ids);
+        return ListaIds.naOrdem(lista, historicoDao.buscarPorIds(lista), HistoricoConsultaResponseDto::convertToDto);
+    }
+
     public HistoricoConsultaResponseDto cadastrar(HistoricoConsultaRequestDto historicoDto) {
         if (!historicoDto.isValid()) {
             throw new IllegalArgumentException("Dados do histórico são inválidos");
@@ -47,6 +69,7 @@ public class HistoricoService {
         historico.setSintomasHistorico(historicoDto.getSintomasHistorico().trim());
         historico.setDiagnostico(historicoDto.getDiagnostico().trim());
         historico.setObservacao(historicoDto.getObservacao().trim());
+        historico.setGravidade(classificador.classificar(historico));
 
         historicoDao.cadastrarHistoricoConsulta(historico);
         return buscarPorId(historico.getIdHistorico());
@@ -67,6 +90,7 @@ public class HistoricoService {
         historico.setSintomasHistorico(historicoDto.getSintomasHistorico().trim());
         historico.setDiagnostico(historicoDto.getDiagnostico().trim());
         historico.setObservacao(historicoDto.getObservacao().trim());
+        historico.setGravidade(classificador.classificar(historico));
 
         historicoDao.upDateHistorico(historico);
     }
@@ -80,10 +104,49 @@ public class HistoricoService {
         historicoDao.excluiHistoricoConsulta(id);
     }
 
-    public List<HistoricoConsultaResponseDto> listarDiagnosticosCriticos() {
-        List<HistoricoConsulta> historicos = historicoDao.listarTodosHistoricos();
-        return historicos.stream()
-                .filter(HistoricoConsulta::isDiagnosticoCritical)
+    /**
+     * Lista os históricos com diagnóstico crítico, filtrando pela coluna GRAVIDADE no banco
+     * @param cursor ID do último histórico da página anterior (null para a primeira página)
+     * @param limite tamanho da página (padrão 50, máximo 200)
+     */
+    public PaginaDto<HistoricoConsultaResponseDto> listarDiagnosticosCriticos(String cursor, Integer limite) {
+        int tamanho = limite == null ? LIMITE_BUSCA_PADRAO : limite;
+        if (tamanho < 1 || tamanho > LIMITE_BUSCA_MAXIMO) {
+            throw new IllegalArgumentException("limite deve estar entre 1 e " + LIMITE_BUSCA_MAXIMO);
+        }
+        Integer idCursor = cursor == null ? null : Integer.valueOf(cursor);
+
+        List<HistoricoConsulta> historicos = historicoDao.listarPorGravidade(GravidadeDiagnostico.CRITICO, idCursor, tamanho);
+        String proximoCursor = null;
+        if (historicos.size() > tamanho) {
+            historicos = historicos.subList(0, tamanho);
+            proximoCursor = String.valueOf(historicos.get(tamanho - 1).getIdHistorico());
+        }
+
+        List<HistoricoConsultaResponseDto> itens = historicos.stream()
+                .map(HistoricoConsultaResponseDto::convertToDto)
+                .collect(Collectors.toList());
+        return new PaginaDto<>(itens, proximoCursor, tamanho);
+    }
+
+    /**
+     * Busca textual em sintomas, diagnóstico e observações.
+     * Todos os termos precisam aparecer; acentos e maiúsculas são ignorados e
+     * termos terminados em '*' casam por prefixo (ex.: "dor cabe*")
+     * @param consulta texto da busca
+     * @param limite número máximo de resultados (padrão 50, máximo 200)
+     */
+    public List<HistoricoConsultaResponseDto> buscarTexto(String consulta, Integer limite) {
+        if (consulta == null || consulta.isBlank()) {
+            throw new IllegalArgumentException("Parâmetro q é obrigatório");
+        }
+        int tamanho = limite == null ? LIMITE_BUSCA_PADRAO : limite;
+        if (tamanho < 1 || tamanho > LIMITE_BUSCA_MAXIMO) {
+            throw new IllegalArgumentException("limite deve estar entre 1 e " + LIMITE_BUSCA_MAXIMO);
+        }
+
+        indice.garantirCarregado(historicoDao::listarTodosHistoricos);
+        return indice.buscar(consulta, tamanho).stream()
                 .map(HistoricoConsultaResponseDto::convertToDto)
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,12 @@
+package br.com.fiap.service;
+
+/**
+ * O horário pedido conflita com uma consulta já marcada para o médico ou com outra do mesmo lote.
+ * Os recursos respondem 409 com a mensagem, que inclui o próximo horário livre quando houver.
+ */
+public class HorarioIndisponivelException extends RuntimeException {
+
+    public HorarioIndisponivelException(String mensagem) {
+        super(mensagem);
+    }
+}
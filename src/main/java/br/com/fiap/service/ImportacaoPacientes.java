@@ -0,0 +1,492 @@
+package br.com.fiap.service;
+
+import br.com.fiap.dao.FiltroCpfPacientes;
+import br.com.fiap.dao.PacienteDao;
+import br.com.fiap.models.Cpf;
+import br.com.fiap.models.Paciente;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Importação de pacientes a partir de CSV, para carga inicial de clínicas (centenas de milhares de linhas).
+ *
+ * O arquivo é lido em streaming, em blocos de hc.pacientes.importacao.tamanho-bloco linhas, num
+ * pipeline de duas etapas: enquanto um bloco é gravado no banco (em outra thread virtual), o seguinte
+ * é interpretado e validado. A validação de CPF custa dezenas de nanossegundos por linha, então o que
+ * importa é ela não esperar o banco; dividi-la entre núcleos custaria mais que a própria validação.
+ * Cada bloco faz uma única consulta de CPFs já cadastrados (só dos que o filtro de Bloom não
+ * descarta) e um único INSERT em JDBC batch. Linhas recusadas vão para um CSV de rejeitados com o
+ * número da linha e o motivo.
+ *
+ * Formato: colunas nome e CPF separadas por vírgula ou ponto e vírgula, com cabeçalho opcional
+ * (nome/nome_paciente, cpf/cpf_paciente, em qualquer ordem). Sem cabeçalho, vale nome,cpf.
+ * Reimportar o mesmo arquivo é seguro: o que já foi gravado volta como "CPF já cadastrado".
+ */
+@ApplicationScoped
+public class ImportacaoPacientes {
+
+    private static final Logger LOG = Logger.getLogger(ImportacaoPacientes.class);
+
+    /**
+     * Tamanho máximo do nome (mesmo limite de PacienteRequestDto)
+     */
+    static final int TAMANHO_MAXIMO_NOME = 50;
+
+    /**
+     * Linhas lidas entre dois registros de progresso no log
+     */
+    private static final int LINHAS_POR_LOG = 50000;
+
+    /**
+     * CPF cadastrado por outra transação entre a consulta de existentes e o INSERT (ORA-00001):
+     * o bloco é reavaliado uma vez, consultando todos os CPFs
+     */
+    private static final int TENTATIVAS_GRAVACAO = 2;
+
+    static final String MOTIVO_COLUNAS = "Colunas insuficientes";
+    static final String MOTIVO_NOME_VAZIO = "Nome vazio";
+    static final String MOTIVO_NOME_LONGO = "Nome com mais de " + TAMANHO_MAXIMO_NOME + " caracteres";
+    static final String MOTIVO_CPF_FORMATO = "CPF deve ter 11 dígitos";
+    static final String MOTIVO_CPF_INVALIDO = "CPF inválido";
+    static final String MOTIVO_CPF_REPETIDO = "CPF repetido no arquivo";
+    static final String MOTIVO_CPF_CADASTRADO = "CPF já cadastrado";
+
+    @Inject
+    private PacienteDao pacienteDao;
+
+    @Inject
+    private FiltroCpfPacientes filtroCpfs;
+
+    @ConfigProperty(name = "hc.pacientes.importacao.tamanho-bloco", defaultValue = "1000")
+    int tamanhoBloco;
+
+    /**
+     * Onde gravar os CSVs de rejeitados; padrão: diretório temporário do sistema
+     */
+    @ConfigProperty(name = "hc.pacientes.importacao.diretorio-rejeitados")
+    Optional<String> diretorioRejeitados;
+
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+
+    /**
+     * Progresso da importação em andamento ou da última concluída
+     */
+    private volatile Progresso progresso;
+
+    /**
+     * Importa o CSV inteiro, lendo-o em streaming
+     * @return resumo: linhas, importados, rejeitados por motivo, duração, linhas/s e arquivo de rejeitados
+     * @throws IllegalStateException se já houver uma importação em andamento
+     */
+    public Map<String, Object> importar(InputStream csv) {
+        if (csv == null) {
+            throw new IllegalArgumentException("Arquivo CSV é obrigatório");
+        }
+        if (tamanhoBloco < 1) {
+            throw new IllegalArgumentException("hc.pacientes.importacao.tamanho-bloco deve ser positivo");
+        }
+        if (!emExecucao.compareAndSet(false, true)) {
+            throw new IllegalStateException("Já existe uma importação de pacientes em execução");
+        }
+
+        Progresso atual = new Progresso();
+        progresso = atual;
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+             Rejeitados rejeitados = new Rejeitados(diretorio(), atual);
+             ExecutorService gravacao = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            Formato formato = null;
+            Set<String> cpfsDoArquivo = new HashSet<>();
+            Future<?> gravacaoAnterior = CompletableFuture.completedFuture(null);
+            List<LinhaCsv> bloco = new ArrayList<>(tamanhoBloco);
+            String texto;
+            int numero = 0;
+            while ((texto = leitor.readLine()) != null) {
+                numero++;
+                if (formato == null) {
+                    formato = Formato.detectar(texto);
+                    if (formato.cabecalho()) {
+                        continue;
+                    }
+                }
+                if (texto.isBlank()) {
+                    continue;
+                }
+                bloco.add(new LinhaCsv(numero, texto));
+                if (bloco.size() == tamanhoBloco) {
+                    gravacaoAnterior = processarBloco(bloco, formato, cpfsDoArquivo, rejeitados, atual,
+                            gravacaoAnterior, gravacao);
+                    bloco = new ArrayList<>(tamanhoBloco);
+                }
+            }
+            if (!bloco.isEmpty()) {
+                gravacaoAnterior = processarBloco(bloco, formato, cpfsDoArquivo, rejeitados, atual,
+                        gravacaoAnterior, gravacao);
+            }
+            aguardar(gravacaoAnterior);
+            atual.concluir();
+
+            LOG.infof("Importação de pacientes concluída: %d linhas, %d importados, %d rejeitados em %d ms (%.0f linhas/s)",
+                    atual.linhas.get(), atual.importados.get(), atual.rejeitados.get(),
+                    atual.duracaoMs(), atual.linhasPorSegundo());
+            return atual.resumo();
+
+        } catch (IOException e) {
+            atual.falhar(e);
+            LOG.error("Erro ao ler o CSV de pacientes", e);
+            throw new UncheckedIOException("Erro ao ler o CSV de pacientes", e);
+        } catch (RuntimeException e) {
+            atual.falhar(e);
+            LOG.errorf(e, "Importação de pacientes interrompida após %d linhas (%d importados)",
+                    atual.linhas.get(), atual.importados.get());
+            throw e;
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    /**
+     * Progresso da importação em andamento ou da última executada, ou null se nenhuma foi executada
+     */
+    public Map<String, Object> progresso() {
+        Progresso atual = progresso;
+        return atual == null ? null : atual.resumo();
+    }
+
+    /**
+     * CSV de rejeitados da importação em andamento ou da última, ou null se não houve rejeições
+     */
+    public Path arquivoRejeitados() {
+        Progresso atual = progresso;
+        return atual == null ? null : atual.arquivoRejeitados;
+    }
+
+    /**
+     * Etapa de leitura de um bloco: validação e descarte de CPFs repetidos no arquivo.
+     * Espera a gravação do bloco anterior antes de entregar este (mantém a ordem do arquivo e no
+     * máximo um bloco esperando o banco) e devolve a gravação deste bloco.
+     */
+    private Future<?> processarBloco(List<LinhaCsv> bloco, Formato formato, Set<String> cpfsDoArquivo,
+                                     Rejeitados rejeitados, Progresso atual, Future<?> gravacaoAnterior,
+                                     ExecutorService gravacao) {
+        // Na ordem do arquivo: a primeira ocorrência de um CPF é a que vale
+        List<Validacao> candidatos = new ArrayList<>(bloco.size());
+        for (LinhaCsv linha : bloco) {
+            Validacao validacao = validar(linha, formato);
+            if (validacao.motivo() != null) {
+                rejeitados.registrar(validacao.linha(), validacao.motivo());
+            } else if (!cpfsDoArquivo.add(validacao.paciente().getCpf())) {
+                rejeitados.registrar(validacao.linha(), MOTIVO_CPF_REPETIDO);
+            } else {
+                candidatos.add(validacao);
+            }
+        }
+
+        long antes = atual.linhas.getAndAdd(bloco.size());
+        aguardar(gravacaoAnterior);
+        if (antes / LINHAS_POR_LOG != (antes + bloco.size()) / LINHAS_POR_LOG) {
+            LOG.infof("Importação de pacientes: %d linhas lidas, %d importados, %d rejeitados (%.0f linhas/s)",
+                    atual.linhas.get(), atual.importados.get(), atual.rejeitados.get(), atual.linhasPorSegundo());
+        }
+        return gravacao.submit(() -> gravar(candidatos, rejeitados, atual));
+    }
+
+    /**
+     * Etapa de gravação de um bloco: descarta CPFs já cadastrados com uma única consulta e insere
+     * os demais em um único batch
+     */
+    private void gravar(List<Validacao> candidatos, Rejeitados rejeitados, Progresso atual) {
+        List<Validacao> pendentes = candidatos;
+        for (int tentativa = 1; !pendentes.isEmpty(); tentativa++) {
+            // Na repetição o filtro não serve: o CPF que causou o conflito pode ter sido gravado por outra instância
+            boolean usarFiltro = tentativa == 1;
+            List<String> talvezCadastrados = new ArrayList<>();
+            for (Validacao validacao : pendentes) {
+                String cpf = validacao.paciente().getCpf();
+                if (!usarFiltro || filtroCpfs.podeExistir(cpf)) {
+                    talvezCadastrados.add(cpf);
+                }
+            }
+            Set<String> cadastrados = pacienteDao.buscarCpfsExistentes(talvezCadastrados);
+
+            List<Validacao> novos = new ArrayList<>(pendentes.size());
+            for (Validacao validacao : pendentes) {
+                if (cadastrados.contains(validacao.paciente().getCpf())) {
+                    rejeitados.registrar(validacao.linha(), MOTIVO_CPF_CADASTRADO);
+                } else {
+                    novos.add(validacao);
+                }
+            }
+            if (novos.isEmpty()) {
+                return;
+            }
+
+            try {
+                pacienteDao.cadastrarPacientesEmLote(novos.stream().map(Validacao::paciente).toList());
+                atual.importados.addAndGet(novos.size());
+                return;
+            } catch (IllegalArgumentException e) {
+                if (tentativa >= TENTATIVAS_GRAVACAO) {
+                    throw e;
+                }
+                pendentes = novos;
+            }
+        }
+    }
+
+    /**
+     * Interpreta e valida uma linha
+     */
+    static Validacao validar(LinhaCsv linha, Formato formato) {
+        List<String> campos = dividir(linha.texto(), formato.separador());
+        if (campos.size() <= Math.max(formato.colunaNome(), formato.colunaCpf())) {
+            return new Validacao(linha, null, MOTIVO_COLUNAS);
+        }
+        String nome = campos.get(formato.colunaNome()).trim();
+        if (nome.isEmpty()) {
+            return new Validacao(linha, null, MOTIVO_NOME_VAZIO);
+        }
+        if (nome.length() > TAMANHO_MAXIMO_NOME) {
+            return new Validacao(linha, null, MOTIVO_NOME_LONGO);
+        }
+        String cpf = Cpf.normalizar(campos.get(formato.colunaCpf()));
+        if (cpf == null) {
+            return new Validacao(linha, null, MOTIVO_CPF_FORMATO);
+        }
+        if (!Cpf.isValido(cpf)) {
+            return new Validacao(linha, null, MOTIVO_CPF_INVALIDO);
+        }
+        return new Validacao(linha, new Paciente(nome, cpf), null);
+    }
+
+    /**
+     * Divide uma linha CSV, aceitando campos entre aspas com o separador dentro e "" como aspas literais.
+     * Campos com quebra de linha não são suportados.
+     */
+    static List<String> dividir(String linha, char separador) {
+        List<String> campos = new ArrayList<>(2);
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c != '"') {
+                    campo.append(c);
+                } else if (i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else {
+                    entreAspas = false;
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    private Path diretorio() {
+        return Path.of(diretorioRejeitados.orElse(System.getProperty("java.io.tmpdir")));
+    }
+
+    private static void aguardar(Future<?> gravacao) {
+        try {
+            gravacao.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Importação de pacientes interrompida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new RuntimeException("Erro ao gravar bloco de pacientes", e.getCause());
+        }
+    }
+
+    record LinhaCsv(int numero, String texto) {
+    }
+
+    record Validacao(LinhaCsv linha, Paciente paciente, String motivo) {
+    }
+
+    /**
+     * Separador e posição das colunas, deduzidos da primeira linha do arquivo
+     */
+    record Formato(char separador, int colunaNome, int colunaCpf, boolean cabecalho) {
+
+        static Formato detectar(String primeiraLinha) {
+            String linha = primeiraLinha.startsWith("\uFEFF") ? primeiraLinha.substring(1) : primeiraLinha;
+            char separador = contar(linha, ';') > contar(linha, ',') ? ';' : ',';
+
+            List<String> campos = dividir(linha, separador);
+            int colunaNome = -1;
+            int colunaCpf = -1;
+            for (int i = 0; i < campos.size(); i++) {
+                String campo = campos.get(i).trim().toLowerCase(Locale.ROOT);
+                if (campo.equals("nome") || campo.equals("nome_paciente")) {
+                    colunaNome = i;
+                } else if (campo.equals("cpf") || campo.equals("cpf_paciente")) {
+                    colunaCpf = i;
+                }
+            }
+            if (colunaNome >= 0 && colunaCpf >= 0) {
+                return new Formato(separador, colunaNome, colunaCpf, true);
+            }
+            return new Formato(separador, 0, 1, false);
+        }
+
+        private static int contar(String texto, char c) {
+            int total = 0;
+            for (int i = 0; i < texto.length(); i++) {
+                if (texto.charAt(i) == c) {
+                    total++;
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Contadores de uma importação, lidos por GET /pacientes/importacao enquanto ela avança
+     */
+    private static final class Progresso {
+
+        final Instant inicio = Instant.now();
+        final long inicioNanos = System.nanoTime();
+        final AtomicLong linhas = new AtomicLong();
+        final AtomicLong importados = new AtomicLong();
+        final AtomicLong rejeitados = new AtomicLong();
+        final Map<String, Long> motivos = new ConcurrentHashMap<>();
+        volatile long fimNanos;
+        volatile String situacao = "EM_EXECUCAO";
+        volatile String erro;
+        volatile Path arquivoRejeitados;
+
+        void rejeitar(String motivo) {
+            rejeitados.incrementAndGet();
+            motivos.merge(motivo, 1L, Long::sum);
+        }
+
+        void concluir() {
+            fimNanos = System.nanoTime();
+            situacao = "CONCLUIDA";
+        }
+
+        void falhar(Exception e) {
+            fimNanos = System.nanoTime();
+            erro = e.getMessage();
+            situacao = "FALHOU";
+        }
+
+        long duracaoMs() {
+            long fim = fimNanos != 0 ? fimNanos : System.nanoTime();
+            return (fim - inicioNanos) / 1_000_000;
+        }
+
+        double linhasPorSegundo() {
+            long duracao = duracaoMs();
+            return duracao == 0 ? 0 : linhas.get() * 1000.0 / duracao;
+        }
+
+        Map<String, Object> resumo() {
+            Map<String, Object> resumo = new LinkedHashMap<>();
+            resumo.put("situacao", situacao);
+            resumo.put("inicio", inicio.toString());
+            resumo.put("linhas", linhas.get());
+            resumo.put("importados", importados.get());
+            resumo.put("rejeitados", rejeitados.get());
+            resumo.put("motivosRejeicao", new TreeMap<>(motivos));
+            resumo.put("duracaoMs", duracaoMs());
+            resumo.put("linhasPorSegundo", Math.round(linhasPorSegundo()));
+            Path arquivo = arquivoRejeitados;
+            if (arquivo != null) {
+                resumo.put("arquivoRejeitados", arquivo.toString());
+            }
+            if (erro != null) {
+                resumo.put("erro", erro);
+            }
+            return resumo;
+        }
+    }
+
+    /**
+     * CSV de linhas rejeitadas (linha,motivo,conteudo), criado na primeira rejeição.
+     * Recebe rejeições das duas etapas do pipeline.
+     */
+    private static final class Rejeitados implements Closeable {
+
+        private final Path diretorio;
+        private final Progresso progresso;
+        private BufferedWriter escritor;
+
+        Rejeitados(Path diretorio, Progresso progresso) {
+            this.diretorio = diretorio;
+            this.progresso = progresso;
+        }
+
+        synchronized void registrar(LinhaCsv linha, String motivo) {
+            progresso.rejeitar(motivo);
+            try {
+                if (escritor == null) {
+                    Path arquivo = Files.createTempFile(diretorio, "importacao-pacientes-", "-rejeitados.csv");
+                    escritor = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8);
+                    escritor.write("linha,motivo,conteudo");
+                    escritor.newLine();
+                    progresso.arquivoRejeitados = arquivo;
+                }
+                escritor.write(Integer.toString(linha.numero()));
+                escritor.write(',');
+                escritor.write(motivo);
+                escritor.write(",\"");
+                escritor.write(linha.texto().replace("\"", "\"\""));
+                escritor.write('"');
+                escritor.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erro ao gravar o arquivo de rejeitados", e);
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (escritor != null) {
+                escritor.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.fiap.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Interpreta o parâmetro ?ids=1,2,3 das buscas em lote
+ */
+final class ListaIds {
+
+    /**
+     * Máximo de IDs por requisição: cabe em uma única lista IN do Oracle,
+     * então cada busca em lote é uma única consulta
+     */
+    static final int LIMITE_MAXIMO = 1000;
+
+    private ListaIds() {
+    }
+
+    /**
+     * Converte "1,2,3" em IDs distintos, na ordem em que foram informados
+     * @throws IllegalArgumentException se algum ID não for um inteiro positivo ou se passar do limite
+     */
+    static List<Integer> interpretar(String ids) {
+        if (ids == null || ids.isBlank()) {
+            throw new IllegalArgumentException("Informe ao menos um ID em ids");
+        }
+
+        Set<Integer> distintos = new LinkedHashSet<>();
+        for (String parte : ids.split(",")) {
+            String valor = parte.trim();
+            if (valor.isEmpty()) {
+                continue;
+            }
+            int id;
+            try {
+                id = Integer.parseInt(valor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("ID inválido em ids: " + valor);
+            }
+            if (id <= 0) {
+                throw new IllegalArgumentException("IDs devem ser positivos: " + valor);
+            }
+            distintos.add(id);
+            if (distintos.size() > LIMITE_MAXIMO) {
+                throw new IllegalArgumentException("Máximo de " + LIMITE_MAXIMO + " IDs por requisição");
+            }
+        }
+        if (distintos.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um ID em ids");
+        }
+        return new ArrayList<>(distintos);
+    }
+
+    /**
+     * Monta a resposta na ordem dos IDs pedidos, omitindo os que não foram encontrados
+     */
+    static <T, R> List<R> naOrdem(List<Integer> ids, Map<Integer, T> encontrados, Function<T, R> conversor) {
+        if (encontrados.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return ids.stream()
+                .map(encontrados::get)
+                .filter(Objects::nonNull)
+                .map(conversor)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,15 +1,20 @@
 package br.com.fiap.service;
 
 import br.com.fiap.dao.MedicoDao;
+import br.com.fiap.dao.ResultadoUpsert;
 import br.com.fiap.dto.MedicoRequestDto;
 import br.com.fiap.dto.MedicoResponseDto;
 import br.com.fiap.models.Medico;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.NotFoundException;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -17,6 +22,12 @@ import java.util.stream.Collectors;
  */
 @ApplicationScoped
 public class MedicoService {
+
+    /**
+     * Quantidade máxima de médicos aceitos em um upsert em lote
+     */
+    public static final int LOTE_MAXIMO_UPSERT = 50000;
+
     @Inject
     private MedicoDao medicoDao;
 
@@ -41,6 +52,16 @@ public class MedicoService {
         return MedicoResponseDto.convertToDto(medico);
     }
 
+    /**
+     * Busca vários médicos em uma única consulta (cache primeiro)
+     * @param ids IDs separados por vírgula, ex.: "1,2,3"
+     * @return médicos na ordem pedida; IDs inexistentes são omitidos
+     */
+    public List<MedicoResponseDto> buscarPorIds(String ids) {
+        List<Integer> lista = ListaIds.interpretar(ids);
+        return ListaIds.naOrdem(lista, medicoDao.buscarPorIds(lista), MedicoResponseDto::convertToDto);
+    }
+
     /**
      * Cadastra novo médico
      */
@@ -68,7 +89,17 @@ public class MedicoService {
     /**
      * Atualiza médico existente
      */
-    public void atualizar(MedicoRequestDto medicoDto) throws SQLException {
+    public void atualizar(MedicoRequestDto medicoDto) {
+        atualizar(medicoDto, null);
+    }
+
+    /**
+     * Atualiza médico em um único UPDATE, só se ele ainda estiver na versão informada (If-Match)
+     * @param versaoEsperada versão lida pelo cliente, ou null para atualizar em qualquer versão
+     * @return versão gravada, devolvida pelo próprio UPDATE
+     * @throws jakarta.ws.rs.ClientErrorException com 412 se o médico foi alterado depois da leitura
+     */
+    public int atualizar(MedicoRequestDto medicoDto, Integer versaoEsperada) {
         if (medicoDto.getId_medico() == null || medicoDto.getId_medico() <= 0) {
             throw new IllegalArgumentException("ID do médico deve ser positivo para atualização");
         }
@@ -79,13 +110,6 @@ public class MedicoService {
             throw new IllegalArgumentException("Especialidade é obrigatória para atualização");
         }
 
-
-        Medico existingMedico = medicoDao.buscarPorIdMedico(medicoDto.getId_medico());
-        if (existingMedico == null) {
-            throw new NotFoundException("Médico com ID " + medicoDto.getId_medico() + " não encontrado para atualização");
-        }
-
-
         Medico medico = new Medico();
         medico.setIdMedico(medicoDto.getId_medico());
         medico.setNome(medicoDto.getNome());
@@ -93,18 +117,103 @@ public class MedicoService {
         medico.setCrm(medicoDto.getCrm());
 
 
-        medicoDao.updateMedico(medico);
+        ResultadosEscrita.exigirAplicada(medicoDao.atualizarMedico(medico, versaoEsperada),
+                "Médico com ID " + medicoDto.getId_medico() + " não encontrado para atualização");
+        return medico.getVersao();
     }
 
     /**
      * Exclui médico por ID
      */
-    public void excluir(int id) throws SQLException {
+    public void excluir(int id) {
+        excluir(id, null);
+    }
+
+    /**
+     * Exclui médico em um único DELETE, só se ele ainda estiver na versão informada (If-Match)
+     * @param versaoEsperada versão lida pelo cliente, ou null para excluir em qualquer versão
+     */
+    public void excluir(int id, Integer versaoEsperada) {
         if (id <= 0) {
             throw new IllegalArgumentException("ID do médico deve ser positivo para exclusão");
         }
 
-        medicoDao.excluirMedico(id);
+        ResultadosEscrita.exigirAplicada(medicoDao.excluirMedico(id, versaoEsperada),
+                "Médico com ID " + id + " não encontrado para exclusão");
     }
 
+    /**
+     * Cadastra ou atualiza o médico do CRM em um único MERGE
+     * @param crm CRM da URL; se o corpo trouxer CRM, ele deve ser o mesmo
+     */
+    public Upsert<MedicoResponseDto> upsertPorCrm(int crm, MedicoRequestDto medicoDto) {
+        if (medicoDto == null) {
+            throw new IllegalArgumentException("Dados do médico não podem ser nulos");
+        }
+        Medico medico = paraUpsert(crm, medicoDto, "");
+
+        ResultadoUpsert resultado = medicoDao.upsertMedico(medico);
+        return new Upsert<>(resultado, MedicoResponseDto.convertToDto(medico));
+    }
+
+    /**
+     * Upsert por CRM de um lote de médicos (sincronização com sistemas parceiros).
+     * O lote inteiro é validado antes da primeira escrita; CRMs repetidos valem pela última ocorrência.
+     * @return contagem de recebidos, repetidos, criados, atualizados e inalterados
+     */
+    public Map<String, Object> upsertEmLote(List<MedicoRequestDto> lote) {
+        if (lote == null || lote.isEmpty()) {
+            throw new IllegalArgumentException("Lote de médicos não pode ser vazio");
+        }
+        if (lote.size() > LOTE_MAXIMO_UPSERT) {
+            throw new IllegalArgumentException("Lote não pode exceder " + LOTE_MAXIMO_UPSERT + " médicos");
+        }
+
+        Map<Integer, Medico> porCrm = new LinkedHashMap<>();
+        for (int i = 0; i < lote.size(); i++) {
+            MedicoRequestDto medicoDto = lote.get(i);
+            if (medicoDto == null) {
+                throw new IllegalArgumentException("Médico na posição " + i + " é nulo");
+            }
+            Medico medico = paraUpsert(medicoDto.getCrm(), medicoDto, "Médico na posição " + i + ": ");
+            porCrm.put(medico.getCrm(), medico);
+        }
+
+        Map<ResultadoUpsert, Integer> totais = medicoDao.upsertMedicosEmLote(new ArrayList<>(porCrm.values()));
+        return Upsert.resumo(lote.size(), porCrm.size(), totais);
+    }
+
+    /**
+     * Valida e converte o DTO de um upsert
+     */
+    private static Medico paraUpsert(int crm, MedicoRequestDto medicoDto, String prefixo) {
+        if (crm <= 0) {
+            throw new IllegalArgumentException(prefixo + "CRM deve ser positivo");
+        }
+        if (medicoDto.getCrm() != 0 && medicoDto.getCrm() != crm) {
+            throw new IllegalArgumentException(prefixo + "CRM do corpo difere do CRM informado na URL");
+        }
+        if (medicoDto.getNome() == null || medicoDto.getNome().trim().isEmpty()) {
+            throw new IllegalArgumentException(prefixo + "Nome é obrigatório");
+        }
+        if (medicoDto.getEspecialidade() == null || medicoDto.getEspecialidade().trim().isEmpty()) {
+            throw new IllegalArgumentException(prefixo + "Especialidade é obrigatória");
+        }
+
+        return new Medico(medicoDto.getNome().trim(), medicoDto.getEspecialidade().trim(), crm);
+    }
+
+    /**
+     * Estatísticas do cache de médicos
+     */
+    public Map<String, Object> estatisticasCache() {
+        CacheStats stats = medicoDao.estatisticasCache();
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("acertos", stats.hitCount());
+        estatisticas.put("faltas", stats.missCount());
+        estatisticas.put("remocoes", stats.evictionCount());
+        estatisticas.put("taxaAcerto", stats.hitRate());
+        estatisticas.put("tamanho", medicoDao.tamanhoCache());
+        return estatisticas;
+    }
 }
\ No newline at end of file
@@ -1,23 +1,111 @@
 package br.com.fiap.service;
 
+import br.com.fiap.dao.FiltroCpfPacientes;
 import br.com.fiap.dao.PacienteDao;
+import br.com.fiap.dao.ResultadoEscrita;
+import br.com.fiap.dao.ResultadoUpsert;
+import br.com.fiap.dao.VersoesTabelas;
 import br.com.fiap.dto.PacienteRequestDto;
 import br.com.fiap.dto.PacienteResponseDto;
+import br.com.fiap.models.Cpf;
 import br.com.fiap.models.Paciente;
+import br.com.fiap.search.IndiceNomesPacientes;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.NotFoundException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
 /**
  * Serviço para pacientes (sem relação com ConsultaOnline)
  */
 @ApplicationScoped
 public class PacienteService {
+
+    private static final Logger LOG = Logger.getLogger(PacienteService.class);
+
+    static final int LIMITE_BUSCA_PADRAO = 10;
+    static final int LIMITE_BUSCA_MAXIMO = 50;
+
+    /**
+     * Quantidade máxima de pacientes aceitos em um upsert em lote
+     */
+    public static final int LOTE_MAXIMO_UPSERT = 50000;
+
     @Inject
     private PacienteDao pacienteDao;
 
+    @Inject
+    private IndiceNomesPacientes indiceNomes;
+
+    @Inject
+    private FiltroCpfPacientes filtroCpfs;
+
+    @Inject
+    private MeterRegistry registry;
+
+    @Inject
+    private VersoesTabelas versoes;
+
+    /**
+     * Leituras concorrentes do mesmo ID na mesma versão da tabela compartilham uma única consulta ao banco
+     */
+    private ChamadaUnica<ChaveVersionada, Paciente> buscasPorId;
+
+    @ConfigProperty(name = "hc.busca.pacientes.aquecer-na-inicializacao", defaultValue = "true")
+    boolean aquecerIndice;
+
+    @PostConstruct
+    void iniciar() {
+        buscasPorId = new ChamadaUnica<>("paciente.buscarPorId", registry);
+    }
+
+    /**
+     * Carrega o índice de nomes na inicialização para a primeira busca não pagar a carga.
+     * Se o banco estiver indisponível, a carga é refeita na primeira busca.
+     */
+    void aoIniciar(@Observes StartupEvent evento) {
+        if (!aquecerIndice) {
+            return;
+        }
+        try {
+            indiceNomes.garantirCarregado(pacienteDao::listarPacientes);
+            LOG.infof("Índice de nomes de pacientes carregado: %d pacientes", indiceNomes.tamanho());
+        } catch (RuntimeException e) {
+            LOG.warn("Não foi possível carregar o índice de nomes de pacientes na inicialização", e);
+        }
+    }
+
+    /**
+     * Busca pacientes por nome aproximado (índice de trigramas em memória)
+     * @param nome nome ou parte do nome, com ou sem acento
+     * @param limite número máximo de resultados (padrão 10, máximo 50)
+     * @return pacientes do mais para o menos parecido
+     */
+    public List<PacienteResponseDto> buscarPorNome(String nome, Integer limite) {
+        if (nome == null || nome.trim().length() < 2) {
+            throw new IllegalArgumentException("Informe pelo menos 2 caracteres do nome");
+        }
+        int tamanho = limite == null ? LIMITE_BUSCA_PADRAO : limite;
+        if (tamanho < 1 || tamanho > LIMITE_BUSCA_MAXIMO) {
+            throw new IllegalArgumentException("limite deve estar entre 1 e " + LIMITE_BUSCA_MAXIMO);
+        }
+
+        indiceNomes.garantirCarregado(pacienteDao::listarPacientes);
+        return indiceNomes.buscar(nome, tamanho).stream()
+                .map(PacienteResponseDto::convertToDto)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Lista todos os pacientes
      */
@@ -28,17 +116,20 @@ public class PacienteService {
                     .map(PacienteResponseDto::convertToDto)
                     .collect(Collectors.toList());
 
-            System.out.println("Listados " + response.size() + " pacientes");
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Listados %s pacientes", response.size());
+            }
             return response;
 
         } catch (Exception e) {
-            System.err.println("Erro ao listar pacientes: " + e.getMessage());
+            LOG.error("Erro ao listar pacientes", e);
             throw new RuntimeException("Erro ao listar pacientes", e);
         }
     }
 
     /**
-     * Busca paciente por ID
+     * Busca paciente por ID. A versão da tabela é lida antes da consulta: quem leu o token do
+     * ETag antes de chamar este método nunca recebe uma linha anterior a esse token.
      */
     public PacienteResponseDto buscarPorId(int id) {
         if (id <= 0) {
@@ -46,28 +137,42 @@ public class PacienteService {
         }
 
         try {
-            Paciente paciente = pacienteDao.buscarPorIdPaciente(id);
+            ChaveVersionada chave = new ChaveVersionada(id, versoes.versao(VersoesTabelas.Tabela.PACIENTES));
+            Paciente paciente = buscasPorId.executar(chave, () -> pacienteDao.buscarPorIdPaciente(id));
             if (paciente == null || paciente.getId() == null) {
                 throw new NotFoundException("Paciente com ID " + id + " não encontrado");
             }
 
             PacienteResponseDto response = PacienteResponseDto.convertToDto(paciente);
-            System.out.println("Paciente encontrado: ID=" + id);
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Paciente encontrado: ID=%s", id);
+            }
             return response;
 
         } catch (NotFoundException e) {
             throw e;
         } catch (Exception e) {
-            System.err.println("Erro ao buscar paciente ID " + id + ": " + e.getMessage());
+            LOG.errorf(e, "Erro ao buscar paciente ID %s", id);
             throw new RuntimeException("Erro ao buscar paciente", e);
         }
     }
 
+    /**
+     * Busca vários pacientes em uma única consulta
+     * @param ids IDs separados por vírgula, ex.: "1,2,3"
+     * @return pacientes na ordem pedida; IDs inexistentes são omitidos
+     */
+    public List<PacienteResponseDto> buscarPorIds(String ids) {
+        List<Integer> lista = ListaIds.interpretar(ids);
+        return ListaIds.naOrdem(lista, pacienteDao.buscarPorIds(lista), PacienteResponseDto::convertToDto);
+    }
+
     /**
      * Busca paciente por CPF
      */
     public PacienteResponseDto buscarPorCpf(String cpf) {
-        if (cpf == null || cpf.length() != 11) {
+        cpf = Cpf.normalizar(cpf);
+        if (cpf == null) {
             throw new IllegalArgumentException("CPF deve ter exatamente 11 dígitos");
         }
 
@@ -78,11 +183,13 @@ public class PacienteService {
             }
 
             PacienteResponseDto response = PacienteResponseDto.convertToDto(paciente);
-            System.out.println("Paciente encontrado por CPF: " + cpf);
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Paciente encontrado por CPF: %s", cpf);
+            }
             return response;
 
         } catch (Exception e) {
-            System.err.println("Erro ao buscar paciente CPF " + cpf + ": " + e.getMessage());
+            LOG.errorf(e, "Erro ao buscar paciente CPF %s", cpf);
             throw new RuntimeException("Erro ao buscar paciente por CPF", e);
         }
     }
@@ -104,9 +211,13 @@ public class PacienteService {
 
         try {
 
-            Paciente pacienteExistente = pacienteDao.buscarPorCpf(pacienteDto.getCpfPaciente());
-            if (pacienteExistente != null) {
-                throw new IllegalArgumentException("CPF já cadastrado: " + pacienteDto.getCpfPaciente());
+            // Leitura prévia só quando o filtro não garante que o CPF é novo;
+            // a constraint UNIQUE cobre o restante (o DAO converte ORA-00001)
+            if (filtroCpfs.podeExistir(pacienteDto.getCpfPaciente())) {
+                Paciente pacienteExistente = pacienteDao.buscarPorCpf(pacienteDto.getCpfPaciente());
+                if (pacienteExistente != null) {
+                    throw new IllegalArgumentException("CPF já cadastrado: " + pacienteDto.getCpfPaciente());
+                }
             }
 
 
@@ -114,7 +225,9 @@ public class PacienteService {
             paciente.setNome(pacienteDto.getNomePaciente());
             paciente.setCpf(pacienteDto.getCpfPaciente());
 
-            System.out.println("Tentando cadastrar paciente: " + paciente.getNome() + ", CPF: " + paciente.getCpf());
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Tentando cadastrar paciente: %s, CPF: %s", paciente.getNome(), paciente.getCpf());
+            }
 
 
             pacienteDao.cadastrarPaciente(paciente);
@@ -125,14 +238,15 @@ public class PacienteService {
             }
 
             PacienteResponseDto response = PacienteResponseDto.convertToDto(paciente);
-            System.out.println("Paciente cadastrado com sucesso: ID=" + response.getIdPaciente());
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Paciente cadastrado com sucesso: ID=%s", response.getIdPaciente());
+            }
             return response;
 
         } catch (IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
-            System.err.println("Erro detalhado ao cadastrar paciente: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Erro detalhado ao cadastrar paciente", e);
             throw new RuntimeException("Erro ao cadastrar paciente: " + e.getMessage(), e);
         }
     }
@@ -141,6 +255,18 @@ public class PacienteService {
      * Atualiza paciente existente
      */
     public void atualizar(PacienteRequestDto pacienteDto) {
+        atualizar(pacienteDto, null);
+    }
+
+    /**
+     * Atualiza paciente em um único UPDATE, só se ele ainda estiver na versão informada (If-Match).
+     * Paciente inexistente e versão divergente são identificados pelo próprio UPDATE sem linhas
+     * afetadas; CPF repetido, pela restrição única da tabela.
+     * @param versaoEsperada versão lida pelo cliente, ou null para atualizar em qualquer versão
+     * @return versão gravada, devolvida pelo próprio UPDATE
+     * @throws jakarta.ws.rs.ClientErrorException com 412 se o paciente foi alterado depois da leitura
+     */
+    public int atualizar(PacienteRequestDto pacienteDto, Integer versaoEsperada) {
 
         if (pacienteDto == null) {
             throw new IllegalArgumentException("Dados do paciente não podem ser nulos");
@@ -155,64 +281,55 @@ public class PacienteService {
             throw new IllegalArgumentException("Dados do paciente inválidos ou incompletos");
         }
 
+        ResultadoEscrita resultado;
+        Paciente paciente = new Paciente();
         try {
 
-            Paciente pacienteExistente = pacienteDao.buscarPorIdPaciente(pacienteDto.getIdPaciente());
-            if (pacienteExistente == null || pacienteExistente.getId() == null) {
-                throw new NotFoundException("Paciente com ID " + pacienteDto.getIdPaciente() + " não encontrado para atualização");
-            }
-
-
-            if (!pacienteExistente.getCpf().equals(pacienteDto.getCpfPaciente())) {
-                Paciente pacienteComCpf = pacienteDao.buscarPorCpf(pacienteDto.getCpfPaciente());
-                if (pacienteComCpf != null && !pacienteComCpf.getId().equals(pacienteDto.getIdPaciente())) {
-                    throw new IllegalArgumentException("CPF já cadastrado para outro paciente: " + pacienteDto.getCpfPaciente());
-                }
-            }
-
-
-            Paciente paciente = new Paciente();
             paciente.setId(pacienteDto.getIdPaciente());
             paciente.setNome(pacienteDto.getNomePaciente());
             paciente.setCpf(pacienteDto.getCpfPaciente());
 
 
-            pacienteDao.updatePaciente(paciente);
-            System.out.println("Paciente atualizado com sucesso: ID=" + pacienteDto.getIdPaciente());
+            resultado = pacienteDao.atualizarPaciente(paciente, versaoEsperada);
 
-        } catch (NotFoundException e) {
-            throw e;
         } catch (IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
-            System.err.println("Erro ao atualizar paciente ID " + pacienteDto.getIdPaciente() + ": " + e.getMessage());
+            LOG.errorf(e, "Erro ao atualizar paciente ID %s", pacienteDto.getIdPaciente());
             throw new RuntimeException("Erro ao atualizar paciente", e);
         }
+
+        ResultadosEscrita.exigirAplicada(resultado,
+                "Paciente com ID " + pacienteDto.getIdPaciente() + " não encontrado para atualização");
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Paciente atualizado com sucesso: ID=%s", pacienteDto.getIdPaciente());
+        }
+        return paciente.getVersao();
     }
 
     /**
      * Exclui paciente por ID
      */
     public void excluir(int id) {
+        excluir(id, null);
+    }
+
+    /**
+     * Exclui paciente em um único DELETE, só se ele ainda estiver na versão informada (If-Match)
+     * @param versaoEsperada versão lida pelo cliente, ou null para excluir em qualquer versão
+     */
+    public void excluir(int id, Integer versaoEsperada) {
         if (id <= 0) {
             throw new IllegalArgumentException("ID do paciente deve ser positivo para exclusão");
         }
 
+        ResultadoEscrita resultado;
         try {
 
-            Paciente paciente = pacienteDao.buscarPorIdPaciente(id);
-            if (paciente == null || paciente.getId() == null) {
-                throw new NotFoundException("Paciente com ID " + id + " não encontrado para exclusão");
-            }
-
+            resultado = pacienteDao.excluirPaciente(id, versaoEsperada);
 
-            pacienteDao.excluirPaciente(id);
-            System.out.println("Paciente excluído com sucesso: ID=" + id);
-
-        } catch (NotFoundException e) {
-            throw e;
         } catch (Exception e) {
-            System.err.println("Erro ao excluir paciente ID " + id + ": " + e.getMessage());
+            LOG.errorf(e, "Erro ao excluir paciente ID %s", id);
 
             if (e.getMessage().contains("constraint") || e.getMessage().contains("foreign key")) {
                 throw new RuntimeException("Não é possível excluir paciente: existem registros relacionados", e);
@@ -220,5 +337,72 @@ public class PacienteService {
 
             throw new RuntimeException("Erro ao excluir paciente", e);
         }
+
+        ResultadosEscrita.exigirAplicada(resultado, "Paciente com ID " + id + " não encontrado para exclusão");
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Paciente excluído com sucesso: ID=%s", id);
+        }
+    }
+
+    /**
+     * Cadastra ou atualiza o paciente do CPF em um único MERGE, sem buscarPorCpf antes
+     * @param cpf CPF da URL, com ou sem máscara; se o corpo trouxer CPF, ele deve ser o mesmo
+     */
+    public Upsert<PacienteResponseDto> upsertPorCpf(String cpf, PacienteRequestDto pacienteDto) {
+        if (pacienteDto == null) {
+            throw new IllegalArgumentException("Dados do paciente não podem ser nulos");
+        }
+        Paciente paciente = paraUpsert(cpf, pacienteDto, "");
+
+        ResultadoUpsert resultado = pacienteDao.upsertPaciente(paciente);
+        return new Upsert<>(resultado, PacienteResponseDto.convertToDto(paciente));
+    }
+
+    /**
+     * Upsert por CPF de um lote de pacientes (sincronização com sistemas parceiros).
+     * O lote inteiro é validado antes da primeira escrita; CPFs repetidos valem pela última ocorrência.
+     * @return contagem de recebidos, repetidos, criados, atualizados e inalterados
+     */
+    public Map<String, Object> upsertEmLote(List<PacienteRequestDto> lote) {
+        if (lote == null || lote.isEmpty()) {
+            throw new IllegalArgumentException("Lote de pacientes não pode ser vazio");
+        }
+        if (lote.size() > LOTE_MAXIMO_UPSERT) {
+            throw new IllegalArgumentException("Lote não pode exceder " + LOTE_MAXIMO_UPSERT + " pacientes");
+        }
+
+        Map<String, Paciente> porCpf = new LinkedHashMap<>();
+        for (int i = 0; i < lote.size(); i++) {
+            PacienteRequestDto pacienteDto = lote.get(i);
+            if (pacienteDto == null) {
+                throw new IllegalArgumentException("Paciente na posição " + i + " é nulo");
+            }
+            Paciente paciente = paraUpsert(pacienteDto.getCpfPaciente(), pacienteDto, "Paciente na posição " + i + ": ");
+            porCpf.put(paciente.getCpf(), paciente);
+        }
+
+        Map<ResultadoUpsert, Integer> totais = pacienteDao.upsertPacientesEmLote(new ArrayList<>(porCpf.values()));
+        return Upsert.resumo(lote.size(), porCpf.size(), totais);
+    }
+
+    /**
+     * Valida e converte o DTO de um upsert, com o CPF normalizado
+     */
+    private static Paciente paraUpsert(String cpf, PacienteRequestDto pacienteDto, String prefixo) {
+        String normalizado = Cpf.normalizar(cpf);
+        if (normalizado == null) {
+            throw new IllegalArgumentException(prefixo + "CPF deve ter exatamente 11 dígitos");
+        }
+
+        pacienteDto.cleanData();
+        if (pacienteDto.getCpfPaciente() != null && !normalizado.equals(pacienteDto.getCpfPaciente())) {
+            throw new IllegalArgumentException(prefixo + "CPF do corpo difere do CPF informado na URL");
+        }
+        pacienteDto.setCpfPaciente(normalizado);
+        if (!pacienteDto.isValid()) {
+            throw new IllegalArgumentException(prefixo + "Dados do paciente inválidos ou incompletos");
+        }
+
+        return new Paciente(pacienteDto.getNomePaciente(), normalizado);
     }
 }
\ No newline at end of file
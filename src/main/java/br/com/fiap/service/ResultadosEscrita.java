@@ -0,0 +1,31 @@
+package br.com.fiap.service;
+
+import br.com.fiap.dao.ResultadoEscrita;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Converte o resultado de uma escrita versionada nas exceções tratadas pelos recursos
+ */
+final class ResultadosEscrita {
+
+    private ResultadosEscrita() {
+    }
+
+    /**
+     * @param naoEncontrado mensagem da NotFoundException quando a linha não existe
+     * @throws NotFoundException se a linha não existe (404)
+     * @throws ClientErrorException com 412 se a versão do If-Match não é mais a atual
+     */
+    static void exigirAplicada(ResultadoEscrita resultado, String naoEncontrado) {
+        switch (resultado) {
+            case APLICADA -> {
+            }
+            case NAO_ENCONTRADA -> throw new NotFoundException(naoEncontrado);
+            case VERSAO_DIVERGENTE -> throw new ClientErrorException(
+                    "O registro foi alterado por outra requisição; leia-o novamente antes de gravar",
+                    Response.Status.PRECONDITION_FAILED);
+        }
+    }
+}
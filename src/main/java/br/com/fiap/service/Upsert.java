@@ -0,0 +1,30 @@
+package br.com.fiap.service;
+
+import br.com.fiap.dao.ResultadoUpsert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registro gravado por um upsert e se ele foi criado, atualizado ou já estava igual
+ */
+public record Upsert<T>(ResultadoUpsert resultado, T valor) {
+
+    public boolean isCriado() {
+        return resultado == ResultadoUpsert.CRIADO;
+    }
+
+    /**
+     * Resumo de um upsert em lote, ex.: {"recebidos": 3, "repetidos": 1, "criados": 1, "atualizados": 1, "inalterados": 0}.
+     * Repetidos são registros com a mesma chave de outro do lote; vale o último.
+     */
+    static Map<String, Object> resumo(int recebidos, int distintos, Map<ResultadoUpsert, Integer> totais) {
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("recebidos", recebidos);
+        resumo.put("repetidos", recebidos - distintos);
+        resumo.put("criados", totais.getOrDefault(ResultadoUpsert.CRIADO, 0));
+        resumo.put("atualizados", totais.getOrDefault(ResultadoUpsert.ATUALIZADO, 0));
+        resumo.put("inalterados", totais.getOrDefault(ResultadoUpsert.INALTERADO, 0));
+        return resumo;
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.fiap.dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ListaInTest {
+
+    @Test
+    void quantidadeEhArredondadaParaAFaixaSeguinte() {
+        assertEquals(10, ListaIn.faixa(1));
+        assertEquals(10, ListaIn.faixa(10));
+        assertEquals(50, ListaIn.faixa(11));
+        assertEquals(100, ListaIn.faixa(51));
+        assertEquals(500, ListaIn.faixa(101));
+        assertEquals(1000, ListaIn.faixa(501));
+        assertEquals(1000, ListaIn.faixa(ListaIn.TAMANHO_MAXIMO));
+    }
+
+    @Test
+    void parametrosTemAQuantidadeDaFaixa() {
+        assertEquals("?, ?, ?, ?, ?, ?, ?, ?, ?, ?", ListaIn.parametros(3));
+        assertEquals(50, ListaIn.parametros(37).chars().filter(c -> c == '?').count());
+    }
+
+    @Test
+    void quantidadeForaDosLimitesEhRejeitada() {
+        assertThrows(IllegalArgumentException.class, () -> ListaIn.faixa(0));
+        assertThrows(IllegalArgumentException.class, () -> ListaIn.faixa(ListaIn.TAMANHO_MAXIMO + 1));
+    }
+}
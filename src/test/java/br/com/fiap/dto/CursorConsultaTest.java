@@ -0,0 +1,61 @@
+package br.com.fiap.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CursorConsultaTest {
+
+    private static String base64(String chave) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(chave.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void codificarEDecodificarPreservamAChave() {
+        String token = new CursorConsulta(LocalDate.of(2026, 3, 10), 123456).codificar();
+
+        CursorConsulta cursor = CursorConsulta.decodificar(token);
+        assertEquals(LocalDate.of(2026, 3, 10), cursor.getDataConsulta());
+        assertEquals(123456, cursor.getIdConsulta());
+    }
+
+    @Test
+    void tokenEhUrlSafeESemPreenchimento() {
+        for (int id = 1; id < 300; id++) {
+            String token = new CursorConsulta(LocalDate.of(2026, 12, 31), id).codificar();
+            assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+            assertFalse(token.contains("="), token);
+        }
+    }
+
+    @Test
+    void aceitaEspacosEmVoltaDoToken() {
+        String token = new CursorConsulta(LocalDate.of(2026, 1, 5), 9).codificar();
+        assertEquals(9, CursorConsulta.decodificar(" " + token + " ").getIdConsulta());
+    }
+
+    @Test
+    void tokenVazioOuMalFormadoEhRejeitado() {
+        assertThrows(IllegalArgumentException.class, () -> CursorConsulta.decodificar(null));
+        assertThrows(IllegalArgumentException.class, () -> CursorConsulta.decodificar(" "));
+        assertThrows(IllegalArgumentException.class, () -> CursorConsulta.decodificar("não é base64!"));
+        assertThrows(IllegalArgumentException.class, () -> CursorConsulta.decodificar(base64("2026-03-10")));
+        assertThrows(IllegalArgumentException.class, () -> CursorConsulta.decodificar(base64("|10")));
+        assertThrows(IllegalArgumentException.class, () -> CursorConsulta.decodificar(base64("2026-13-10|10")));
+        assertThrows(IllegalArgumentException.class, () -> CursorConsulta.decodificar(base64("2026-03-10|dez")));
+        assertThrows(IllegalArgumentException.class, () -> CursorConsulta.decodificar(base64("2026-03-10|")));
+    }
+
+    @Test
+    void idNaoPositivoEhRejeitado() {
+        assertThrows(IllegalArgumentException.class, () -> CursorConsulta.decodificar(base64("2026-03-10|0")));
+        assertThrows(IllegalArgumentException.class, () -> CursorConsulta.decodificar(base64("2026-03-10|-5")));
+    }
+}
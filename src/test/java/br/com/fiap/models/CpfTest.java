@@ -0,0 +1,73 @@
+package br.com.fiap.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CpfTest {
+
+    @Test
+    void cpfComDigitosVerificadoresCorretosEhValido() {
+        assertTrue(Cpf.isValido("52998224725"));
+        assertTrue(Cpf.isValido("11144477735"));
+    }
+
+    @Test
+    void digitoVerificadorErradoInvalidaOCpf() {
+        assertFalse(Cpf.isValido("52998224724"));
+        assertFalse(Cpf.isValido("52998224735"));
+    }
+
+    @Test
+    void restoMenorQueDoisGeraDigitoZero() {
+        // soma do primeiro dígito com resto 0 ou 1: o verificador é 0
+        assertTrue(Cpf.isValido("12345678909"));
+        assertFalse(Cpf.isValido("12345678919"));
+    }
+
+    @Test
+    void sequenciaRepetidaNaoEhValida() {
+        for (char c = '0'; c <= '9'; c++) {
+            assertFalse(Cpf.isValido(String.valueOf(c).repeat(Cpf.TAMANHO)), "sequência de " + c);
+        }
+    }
+
+    @Test
+    void tamanhoOuCaractereInvalidoNaoEhValido() {
+        assertFalse(Cpf.isValido(null));
+        assertFalse(Cpf.isValido("5299822472"));
+        assertFalse(Cpf.isValido("529982247250"));
+        assertFalse(Cpf.isValido("529.982.247-25"));
+        assertFalse(Cpf.isValido("5299822472a"));
+    }
+
+    @Test
+    void formatoValidoNaoConfereDigitoVerificador() {
+        assertTrue(Cpf.isFormatoValido("52998224724"));
+        assertFalse(Cpf.isFormatoValido("529.982.247-24"));
+    }
+
+    @Test
+    void normalizarRemoveMascaraEEspacos() {
+        assertEquals("52998224725", Cpf.normalizar("529.982.247-25"));
+        assertEquals("52998224725", Cpf.normalizar(" 529 982 247 25 "));
+    }
+
+    @Test
+    void normalizarDevolveAMesmaStringQuandoJaEstaLimpa() {
+        String cpf = "52998224725";
+        assertSame(cpf, Cpf.normalizar(cpf));
+    }
+
+    @Test
+    void normalizarSemOnzeDigitosDevolveNull() {
+        assertNull(Cpf.normalizar(null));
+        assertNull(Cpf.normalizar("529.982.247-2"));
+        assertNull(Cpf.normalizar("529.982.247-255"));
+        assertNull(Cpf.normalizar("abc"));
+    }
+}
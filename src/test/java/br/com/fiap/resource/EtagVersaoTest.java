@@ -0,0 +1,66 @@
+package br.com.fiap.resource;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EtagVersaoTest {
+
+    @Test
+    void etagTerminaNaVersao() {
+        assertEquals("pacientes-abc-42-v3", EtagVersao.etag("pacientes-abc-42", 3).getValue());
+    }
+
+    @Test
+    void semIfMatchOuComCuringaGravaEmQualquerVersao() {
+        assertNull(EtagVersao.versaoEsperada(null, "pacientes", 42));
+        assertNull(EtagVersao.versaoEsperada("  ", "pacientes", 42));
+        assertNull(EtagVersao.versaoEsperada("*", "pacientes", 42));
+        assertNull(EtagVersao.versaoEsperada("\"pacientes-abc-42-v1\", *", "pacientes", 42));
+    }
+
+    @Test
+    void leAVersaoDoEtagDaLinha() {
+        assertEquals(3, EtagVersao.versaoEsperada("\"pacientes-abc-42-v3\"", "pacientes", 42));
+        assertEquals(0, EtagVersao.versaoEsperada("pacientes-abc-42-v0", "pacientes", 42));
+    }
+
+    @Test
+    void comVariosEtagsValeAMaiorVersao() {
+        assertEquals(5, EtagVersao.versaoEsperada(
+                "\"pacientes-abc-42-v2\", \"pacientes-def-42-v5\" ,\"pacientes-abc-42-v4\"", "pacientes", 42));
+    }
+
+    @Test
+    void etagDeOutraLinhaOuRecursoNaoCorresponde() {
+        assertEquals(EtagVersao.VERSAO_INVALIDA, EtagVersao.versaoEsperada("\"pacientes-abc-142-v3\"", "pacientes", 42));
+        assertEquals(EtagVersao.VERSAO_INVALIDA, EtagVersao.versaoEsperada("\"pacientes-abc-4-v3\"", "pacientes", 42));
+        assertEquals(EtagVersao.VERSAO_INVALIDA, EtagVersao.versaoEsperada("\"exames-abc-42-v3\"", "pacientes", 42));
+    }
+
+    @Test
+    void etagFracoOuVersaoMalFormadaNaoCorresponde() {
+        assertEquals(EtagVersao.VERSAO_INVALIDA, EtagVersao.versaoEsperada("W/\"pacientes-abc-42-v3\"", "pacientes", 42));
+        assertEquals(EtagVersao.VERSAO_INVALIDA, EtagVersao.versaoEsperada("\"pacientes-abc-42-v\"", "pacientes", 42));
+        assertEquals(EtagVersao.VERSAO_INVALIDA, EtagVersao.versaoEsperada("\"pacientes-abc-42-v3a\"", "pacientes", 42));
+        assertEquals(EtagVersao.VERSAO_INVALIDA, EtagVersao.versaoEsperada("\"pacientes-abc-42--v1\"", "pacientes", 42));
+        assertEquals(EtagVersao.VERSAO_INVALIDA,
+                EtagVersao.versaoEsperada("\"pacientes-abc-42-v1234567890\"", "pacientes", 42));
+        assertEquals(7, EtagVersao.versaoEsperada("W/\"pacientes-abc-42-v9\", \"pacientes-abc-42-v7\"", "pacientes", 42));
+    }
+
+    @Test
+    void naoModificadoAceitaEtagFracoComOPrefixoAtual() {
+        assertEquals("medicos-abc-7-v2",
+                EtagVersao.naoModificado("\"exames-abc-7-v2\", W/\"medicos-abc-7-v2\"", "medicos-abc-7").getValue());
+        assertEquals("medicos-abc-7-v2", EtagVersao.naoModificado("medicos-abc-7-v2", "medicos-abc-7").getValue());
+    }
+
+    @Test
+    void naoModificadoIgnoraPrefixoAntigoOuDeOutraLinha() {
+        assertNull(EtagVersao.naoModificado(null, "medicos-abc-7"));
+        assertNull(EtagVersao.naoModificado("\"medicos-old-7-v2\"", "medicos-abc-7"));
+        assertNull(EtagVersao.naoModificado("\"medicos-abc-71-v2\"", "medicos-abc-7"));
+    }
+}
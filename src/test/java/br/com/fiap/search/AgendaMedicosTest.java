@@ -0,0 +1,172 @@
+package br.com.fiap.search;
+
+import br.com.fiap.models.ConsultaOnline;
+import br.com.fiap.search.AgendaMedicos.Ocupacao;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AgendaMedicosTest {
+
+    private static final int MEDICO = 7;
+    private static final LocalDate DIA = LocalDate.of(2026, 3, 10);
+    private static final LocalTime ABERTURA = LocalTime.of(8, 0);
+    private static final LocalTime FECHAMENTO = LocalTime.of(12, 0);
+
+    private static ConsultaOnline consulta(int id, LocalDate data, LocalTime hora, Integer duracao) {
+        ConsultaOnline consulta = new ConsultaOnline();
+        consulta.setIdConsulta(id);
+        consulta.setIdMedico(MEDICO);
+        consulta.setDataConsulta(data);
+        consulta.setHoraInicio(hora);
+        consulta.setDuracaoMinutos(duracao);
+        consulta.setStatus("Agendada");
+        return consulta;
+    }
+
+    private static AgendaMedicos agenda(ConsultaOnline... consultas) {
+        AgendaMedicos agenda = new AgendaMedicos();
+        agenda.garantirCarregado(() -> List.of(consultas));
+        return agenda;
+    }
+
+    @Test
+    void intervalosSemiabertosNaoConflitamNaBorda() {
+        AgendaMedicos agenda = agenda(consulta(1, DIA, LocalTime.of(9, 0), 30));
+
+        assertNull(agenda.conflito(MEDICO, DIA, LocalTime.of(8, 30), 30, null));
+        assertNull(agenda.conflito(MEDICO, DIA, LocalTime.of(9, 30), 30, null));
+        assertEquals(1, agenda.conflito(MEDICO, DIA, LocalTime.of(8, 31), 30, null).idConsulta());
+        assertEquals(1, agenda.conflito(MEDICO, DIA, LocalTime.of(9, 29), 30, null).idConsulta());
+        assertEquals(1, agenda.conflito(MEDICO, DIA, LocalTime.of(8, 0), 240, null).idConsulta());
+    }
+
+    @Test
+    void conflitoIgnoraAPropriaConsultaEOutrosMedicos() {
+        AgendaMedicos agenda = agenda(consulta(1, DIA, LocalTime.of(9, 0), 30));
+
+        assertNull(agenda.conflito(MEDICO, DIA, LocalTime.of(9, 15), 30, 1));
+        assertNull(agenda.conflito(MEDICO + 1, DIA, LocalTime.of(9, 0), 30, null));
+    }
+
+    @Test
+    void conflitoAtravessaAMeiaNoite() {
+        AgendaMedicos agenda = agenda(consulta(1, DIA, LocalTime.of(23, 30), 60));
+
+        Ocupacao ocupacao = agenda.conflito(MEDICO, DIA.plusDays(1), LocalTime.MIDNIGHT, 30, null);
+        assertNotNull(ocupacao);
+        assertEquals(LocalDateTime.of(DIA.plusDays(1), LocalTime.of(0, 30)), ocupacao.getFim());
+        assertNull(agenda.conflito(MEDICO, DIA.plusDays(1), LocalTime.of(0, 30), 30, null));
+    }
+
+    @Test
+    void duracaoNulaUsaOPadraoECanceladaNaoOcupa() {
+        ConsultaOnline cancelada = consulta(2, DIA, LocalTime.of(10, 0), 30);
+        cancelada.setStatus(AgendaMedicos.STATUS_CANCELADA);
+        AgendaMedicos agenda = agenda(consulta(1, DIA, LocalTime.of(9, 0), null), cancelada);
+
+        assertEquals(1, agenda.tamanho());
+        assertNotNull(agenda.conflito(MEDICO, DIA, LocalTime.of(9, 29), 1, null));
+        assertNull(agenda.conflito(MEDICO, DIA, LocalTime.of(9, AgendaMedicos.DURACAO_PADRAO_MINUTOS), 1, null));
+        assertNull(agenda.conflito(MEDICO, DIA, LocalTime.of(10, 0), 30, null));
+    }
+
+    @Test
+    void registrarMoveERemoverLibera() {
+        AgendaMedicos agenda = agenda(consulta(1, DIA, LocalTime.of(9, 0), 30));
+
+        agenda.registrar(consulta(1, DIA, LocalTime.of(11, 0), 30));
+        assertNull(agenda.conflito(MEDICO, DIA, LocalTime.of(9, 0), 30, null));
+        assertNotNull(agenda.conflito(MEDICO, DIA, LocalTime.of(11, 0), 30, null));
+
+        agenda.remover(1);
+        assertNull(agenda.conflito(MEDICO, DIA, LocalTime.of(11, 0), 30, null));
+        assertEquals(0, agenda.tamanho());
+    }
+
+    @Test
+    void antesDaCargaRegistrarNaoFazNada() {
+        AgendaMedicos agenda = new AgendaMedicos();
+        agenda.registrar(consulta(1, DIA, LocalTime.of(9, 0), 30));
+        assertEquals(0, agenda.tamanho());
+    }
+
+    @Test
+    void horariosLivresMarcaTodaVagaTocadaPelaConsulta() {
+        // 09:10-09:40 toca as vagas de 09:00 e de 09:30
+        AgendaMedicos agenda = agenda(consulta(1, DIA, LocalTime.of(9, 10), 30));
+
+        List<LocalDateTime> livres = agenda.horariosLivres(MEDICO, DIA.atTime(ABERTURA), DIA.atTime(FECHAMENTO), 30,
+                ABERTURA, FECHAMENTO, 100);
+
+        assertEquals(List.of(DIA.atTime(8, 0), DIA.atTime(8, 30), DIA.atTime(10, 0), DIA.atTime(10, 30),
+                DIA.atTime(11, 0), DIA.atTime(11, 30)), livres);
+    }
+
+    @Test
+    void horariosLivresRespeitaPeriodoELimite() {
+        AgendaMedicos agenda = agenda();
+
+        // 08:00 começa antes de "de"; 11:30 termina depois de "ate"
+        assertEquals(List.of(DIA.atTime(8, 30), DIA.atTime(9, 0), DIA.atTime(9, 30), DIA.atTime(10, 0),
+                        DIA.atTime(10, 30), DIA.atTime(11, 0)),
+                agenda.horariosLivres(MEDICO, DIA.atTime(8, 15), DIA.atTime(11, 30), 30, ABERTURA, FECHAMENTO, 100));
+        assertEquals(List.of(DIA.atTime(8, 0), DIA.atTime(8, 30)),
+                agenda.horariosLivres(MEDICO, DIA.atTime(0, 0), DIA.atTime(23, 0), 30, ABERTURA, FECHAMENTO, 2));
+        assertTrue(agenda.horariosLivres(MEDICO, DIA.atTime(0, 0), DIA.atTime(23, 0), 30, ABERTURA, FECHAMENTO, 0)
+                .isEmpty());
+    }
+
+    @Test
+    void horariosLivresSeguemParaOsProximosDias() {
+        AgendaMedicos agenda = agenda();
+
+        List<LocalDateTime> livres = agenda.horariosLivres(MEDICO, DIA.atTime(11, 0), DIA.plusDays(2).atStartOfDay(), 60,
+                ABERTURA, FECHAMENTO, 100);
+
+        assertEquals(List.of(DIA.atTime(11, 0), DIA.plusDays(1).atTime(8, 0), DIA.plusDays(1).atTime(9, 0),
+                DIA.plusDays(1).atTime(10, 0), DIA.plusDays(1).atTime(11, 0)), livres);
+    }
+
+    @Test
+    void consultaDaVesperaOcupaAPrimeiraVagaDepoisDaMeiaNoite() {
+        AgendaMedicos agenda = agenda(consulta(1, DIA.minusDays(1), LocalTime.of(23, 45), 30));
+
+        List<LocalDateTime> livres = agenda.horariosLivres(MEDICO, DIA.atStartOfDay(), DIA.atTime(2, 0), 30,
+                LocalTime.MIDNIGHT, LocalTime.of(2, 0), 100);
+
+        assertEquals(List.of(DIA.atTime(0, 30), DIA.atTime(1, 0), DIA.atTime(1, 30)), livres);
+    }
+
+    @Test
+    void sobraDoExpedienteNaoViraVaga() {
+        AgendaMedicos agenda = agenda();
+
+        assertEquals(List.of(DIA.atTime(8, 0), DIA.atTime(8, 30), DIA.atTime(9, 0)),
+                agenda.horariosLivres(MEDICO, DIA.atStartOfDay(), DIA.plusDays(1).atStartOfDay(), 30,
+                        ABERTURA, LocalTime.of(9, 45), 100));
+        assertTrue(agenda.horariosLivres(MEDICO, DIA.atStartOfDay(), DIA.plusDays(1).atStartOfDay(), 120,
+                ABERTURA, LocalTime.of(9, 0), 100).isEmpty());
+    }
+
+    @Test
+    void proximoHorarioLivrePulaConsultasEncadeadas() {
+        AgendaMedicos agenda = agenda(
+                consulta(1, DIA, LocalTime.of(8, 0), 30),
+                consulta(2, DIA, LocalTime.of(8, 30), 45));
+
+        assertEquals(DIA.atTime(9, 15),
+                agenda.proximoHorarioLivre(MEDICO, DIA.atTime(7, 0), 30, ABERTURA, FECHAMENTO, 0));
+        assertEquals(DIA.plusDays(1).atTime(8, 0),
+                agenda.proximoHorarioLivre(MEDICO, DIA.atTime(11, 45), 30, ABERTURA, FECHAMENTO, 1));
+        assertNull(agenda.proximoHorarioLivre(MEDICO, DIA.atTime(11, 45), 30, ABERTURA, FECHAMENTO, 0));
+    }
+}
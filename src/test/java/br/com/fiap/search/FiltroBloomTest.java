@@ -0,0 +1,62 @@
+package br.com.fiap.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FiltroBloomTest {
+
+    @Test
+    void dimensionaPelaCapacidadeETaxa() {
+        // m = ceil(-1000 * ln(0,01) / ln²2) = 9586 bits, arredondado para 150 palavras de 64 bits
+        FiltroBloom filtro = new FiltroBloom(1000, 0.01);
+        assertEquals(9600, filtro.getTotalBits());
+        assertEquals(7, filtro.getFuncoesHash());
+    }
+
+    @Test
+    void totalDeBitsEhMultiploDe64() {
+        for (long capacidade : new long[] {1, 7, 100, 12_345, 1_000_000}) {
+            FiltroBloom filtro = new FiltroBloom(capacidade, 0.05);
+            assertEquals(0, filtro.getTotalBits() % 64, "capacidade " + capacidade);
+            assertTrue(filtro.getFuncoesHash() >= 1, "capacidade " + capacidade);
+        }
+    }
+
+    @Test
+    void parametrosInvalidosSaoRejeitados() {
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(-1, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(100, 1));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(100, Double.NaN));
+    }
+
+    @Test
+    void naoTemFalsoNegativo() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (long chave = 0; chave < 10_000; chave++) {
+            filtro.adicionar(52_998_224_725L + chave * 97);
+        }
+        for (long chave = 0; chave < 10_000; chave++) {
+            assertTrue(filtro.podeConter(52_998_224_725L + chave * 97));
+        }
+    }
+
+    @Test
+    void taxaDeFalsoPositivoFicaPertoDaPlanejada() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (long chave = 0; chave < 10_000; chave++) {
+            filtro.adicionar(chave);
+        }
+        int falsosPositivos = 0;
+        for (long chave = 1_000_000; chave < 1_100_000; chave++) {
+            if (filtro.podeConter(chave)) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(falsosPositivos < 2_000, "falsos positivos: " + falsosPositivos);
+    }
+}
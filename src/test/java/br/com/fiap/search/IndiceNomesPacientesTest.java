@@ -0,0 +1,106 @@
+package br.com.fiap.search;
+
+import br.com.fiap.models.Paciente;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceNomesPacientesTest {
+
+    private static IndiceNomesPacientes indice(Paciente... pacientes) {
+        IndiceNomesPacientes indice = new IndiceNomesPacientes();
+        indice.garantirCarregado(() -> List.of(pacientes));
+        return indice;
+    }
+
+    private static List<Integer> ids(List<Paciente> pacientes) {
+        return pacientes.stream().map(Paciente::getId).toList();
+    }
+
+    @Test
+    void prefixoDePalavraVemAntesDeSimilaridadeMaior() {
+        // "silvia sa" tem Jaccard 4/11 com "silva"; "silvana rocha" tem 5/15, mas começa com o texto
+        IndiceNomesPacientes indice = indice(
+                new Paciente(1, "Silvia Sá", "52998224725"),
+                new Paciente(2, "Silvana Rocha", "11144477735"));
+        assertEquals(List.of(2, 1), ids(indice.buscar("silva", 10)));
+    }
+
+    @Test
+    void prefixosSaoOrdenadosPorSimilaridade() {
+        IndiceNomesPacientes indice = indice(
+                new Paciente(1, "Mariana Souza", "52998224725"),
+                new Paciente(2, "Ana Maria Lima", "11144477735"),
+                new Paciente(3, "Marina Alves", "12345678909"));
+        // "marina alves" não casa por prefixo e fica abaixo de SIMILARIDADE_MINIMA
+        assertEquals(List.of(2, 1), ids(indice.buscar("Maria", 10)));
+    }
+
+    @Test
+    void empateSeguePelaOrdemDoNome() {
+        IndiceNomesPacientes indice = indice(
+                new Paciente(1, "Ana Souza", "52998224725"),
+                new Paciente(2, "Ana Costa", "11144477735"));
+        assertEquals(List.of(2, 1), ids(indice.buscar("ana", 10)));
+        assertEquals(List.of(2), ids(indice.buscar("ana", 1)));
+    }
+
+    @Test
+    void ignoraAcentosEMaiusculas() {
+        IndiceNomesPacientes indice = indice(new Paciente(1, "José Conceição", "52998224725"));
+        assertEquals(List.of(1), ids(indice.buscar("JOSE", 10)));
+        assertEquals(List.of(1), ids(indice.buscar("conceicao", 10)));
+    }
+
+    @Test
+    void nomePoucoParecidoNaoEntra() {
+        IndiceNomesPacientes indice = indice(new Paciente(1, "Roberto Dias", "52998224725"));
+        assertTrue(indice.buscar("marcos", 10).isEmpty());
+    }
+
+    @Test
+    void consultaVaziaOuLimiteZeroNaoRetornaNada() {
+        IndiceNomesPacientes indice = indice(new Paciente(1, "Ana Costa", "52998224725"));
+        assertTrue(indice.buscar("", 10).isEmpty());
+        assertTrue(indice.buscar(null, 10).isEmpty());
+        assertTrue(indice.buscar("ana", 0).isEmpty());
+    }
+
+    @Test
+    void indexarERemoverMantemOIndice() {
+        IndiceNomesPacientes indice = indice(new Paciente(1, "Ana Costa", "52998224725"));
+
+        indice.indexar(new Paciente(1, "Beatriz Costa", "52998224725"));
+        assertTrue(indice.buscar("ana", 10).isEmpty());
+        assertEquals(List.of(1), ids(indice.buscar("beatriz", 10)));
+
+        indice.indexar(new Paciente(2, "Ana Beatriz", "11144477735"));
+        assertEquals(List.of(2, 1), ids(indice.buscar("beatriz", 10)));
+        assertEquals(2, indice.tamanho());
+
+        indice.remover(1);
+        assertEquals(List.of(2), ids(indice.buscar("beatriz", 10)));
+        assertEquals(1, indice.tamanho());
+
+        // o slot liberado é reaproveitado sem deixar trigramas do nome anterior
+        indice.indexar(new Paciente(3, "Carlos Lima", "12345678909"));
+        assertEquals(List.of(3), ids(indice.buscar("carlos", 10)));
+        assertEquals(List.of(2), ids(indice.buscar("beatriz", 10)));
+    }
+
+    @Test
+    void antesDaCargaIndexarNaoFazNada() {
+        IndiceNomesPacientes indice = new IndiceNomesPacientes();
+        indice.indexar(new Paciente(1, "Ana Costa", "52998224725"));
+        assertFalse(indice.isCarregado());
+        assertEquals(0, indice.tamanho());
+
+        indice.garantirCarregado(() -> List.of(new Paciente(2, "Ana Souza", "11144477735")));
+        assertTrue(indice.isCarregado());
+        assertEquals(List.of(2), ids(indice.buscar("ana", 10)));
+    }
+}
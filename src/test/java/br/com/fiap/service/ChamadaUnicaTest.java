@@ -0,0 +1,112 @@
+package br.com.fiap.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChamadaUnicaTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final ChamadaUnica<Integer, String> chamada = new ChamadaUnica<>("teste", registry);
+
+    private double chamadas(String papel) {
+        return registry.get(ChamadaUnica.CONTADOR_CHAMADAS).tag("operacao", "teste").tag("papel", papel)
+                .counter().count();
+    }
+
+    @Test
+    void erroDaCargaChegaAoChamador() {
+        IllegalStateException erro = new IllegalStateException("banco indisponível");
+
+        IllegalStateException recebido = assertThrows(IllegalStateException.class,
+                () -> chamada.executar(1, () -> {
+                    throw erro;
+                }));
+        assertSame(erro, recebido);
+    }
+
+    @Test
+    void errorTambemEhPropagado() {
+        assertThrows(StackOverflowError.class, () -> chamada.executar(1, () -> {
+            throw new StackOverflowError();
+        }));
+    }
+
+    @Test
+    void depoisDeUmaFalhaAChaveFazNovaConsulta() {
+        assertThrows(IllegalStateException.class, () -> chamada.executar(1, () -> {
+            throw new IllegalStateException();
+        }));
+
+        assertEquals("ok", chamada.executar(1, () -> "ok"));
+        assertEquals(2, chamadas("executada"));
+        assertEquals(0, chamadas("compartilhada"));
+    }
+
+    @Test
+    void seguidorRecebeAMesmaExcecaoDaConsultaEmAndamento() throws Exception {
+        IllegalStateException erro = new IllegalStateException("banco indisponível");
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger cargas = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> lider = executor.submit(() -> chamada.executar(1, () -> {
+                cargas.incrementAndGet();
+                aguardar(liberar);
+                throw erro;
+            }));
+            while (cargas.get() == 0) {
+                Thread.sleep(1);
+            }
+            Future<String> seguidor = executor.submit(() -> chamada.executar(1, () -> {
+                cargas.incrementAndGet();
+                return "não deveria executar";
+            }));
+            long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (chamadas("compartilhada") == 0 && System.nanoTime() < prazo) {
+                Thread.sleep(1);
+            }
+            liberar.countDown();
+
+            assertSame(erro, causa(lider));
+            assertSame(erro, causa(seguidor));
+        }
+        assertEquals(1, cargas.get());
+        assertEquals(1, chamadas("executada"));
+        assertEquals(1, chamadas("compartilhada"));
+        assertEquals(1, registry.get(ChamadaUnica.RESUMO_COMPARTILHADAS).summary().totalAmount());
+    }
+
+    @Test
+    void chavesDiferentesNaoSaoCompartilhadas() {
+        assertEquals("1", chamada.executar(1, () -> "1"));
+        assertEquals("2", chamada.executar(2, () -> "2"));
+        assertEquals(2, chamadas("executada"));
+        assertEquals(0, chamadas("compartilhada"));
+    }
+
+    private static Throwable causa(Future<?> futuro) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> futuro.get(5, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
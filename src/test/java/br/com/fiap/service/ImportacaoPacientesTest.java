@@ -0,0 +1,77 @@
+package br.com.fiap.service;
+
+import br.com.fiap.service.ImportacaoPacientes.Formato;
+import br.com.fiap.service.ImportacaoPacientes.LinhaCsv;
+import br.com.fiap.service.ImportacaoPacientes.Validacao;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImportacaoPacientesTest {
+
+    @Test
+    void dividirSeparaCamposSimples() {
+        assertEquals(List.of("Ana Costa", "52998224725"), ImportacaoPacientes.dividir("Ana Costa,52998224725", ','));
+        assertEquals(List.of("", "", ""), ImportacaoPacientes.dividir(";;", ';'));
+        assertEquals(List.of(""), ImportacaoPacientes.dividir("", ','));
+    }
+
+    @Test
+    void dividirAceitaSeparadorEntreAspas() {
+        assertEquals(List.of("Costa, Ana", "529.982.247-25"),
+                ImportacaoPacientes.dividir("\"Costa, Ana\",529.982.247-25", ','));
+    }
+
+    @Test
+    void dividirTrataAspasDuplicadasComoLiterais() {
+        assertEquals(List.of("Ana \"Nina\" Costa", "52998224725"),
+                ImportacaoPacientes.dividir("\"Ana \"\"Nina\"\" Costa\";52998224725", ';'));
+        assertEquals(List.of("\"", "x"), ImportacaoPacientes.dividir("\"\"\"\",x", ','));
+    }
+
+    @Test
+    void detectarReconheceCabecalhoEmQualquerOrdem() {
+        assertEquals(new Formato(',', 0, 1, true), Formato.detectar("nome,cpf"));
+        assertEquals(new Formato(';', 2, 0, true), Formato.detectar("CPF_Paciente; telefone ; Nome_Paciente "));
+    }
+
+    @Test
+    void detectarIgnoraBomDoUtf8() {
+        assertEquals(new Formato(',', 0, 1, true), Formato.detectar("\uFEFFnome,cpf"));
+    }
+
+    @Test
+    void semCabecalhoUsaNomeECpfNasDuasPrimeirasColunas() {
+        assertEquals(new Formato(',', 0, 1, false), Formato.detectar("Ana Costa,52998224725"));
+        assertEquals(new Formato(';', 0, 1, false), Formato.detectar("Ana Costa;529.982.247-25"));
+        // cabeçalho só com uma das colunas não conta como cabeçalho
+        assertEquals(new Formato(',', 0, 1, false), Formato.detectar("nome,documento"));
+    }
+
+    @Test
+    void validarAceitaLinhaComCpfMascarado() {
+        Validacao validacao = ImportacaoPacientes.validar(new LinhaCsv(2, " Ana Costa ;529.982.247-25"),
+                new Formato(';', 0, 1, true));
+        assertNull(validacao.motivo());
+        assertEquals("Ana Costa", validacao.paciente().getNome());
+        assertEquals("52998224725", validacao.paciente().getCpf());
+    }
+
+    @Test
+    void validarInformaOMotivoDaRejeicao() {
+        Formato formato = new Formato(',', 0, 1, false);
+        assertEquals(ImportacaoPacientes.MOTIVO_COLUNAS, motivo("Ana Costa", formato));
+        assertEquals(ImportacaoPacientes.MOTIVO_NOME_VAZIO, motivo(" ,52998224725", formato));
+        assertEquals(ImportacaoPacientes.MOTIVO_NOME_LONGO,
+                motivo("A".repeat(ImportacaoPacientes.TAMANHO_MAXIMO_NOME + 1) + ",52998224725", formato));
+        assertEquals(ImportacaoPacientes.MOTIVO_CPF_FORMATO, motivo("Ana Costa,5299822472", formato));
+        assertEquals(ImportacaoPacientes.MOTIVO_CPF_INVALIDO, motivo("Ana Costa,52998224724", formato));
+    }
+
+    private static String motivo(String texto, Formato formato) {
+        return ImportacaoPacientes.validar(new LinhaCsv(1, texto), formato).motivo();
+    }
+}